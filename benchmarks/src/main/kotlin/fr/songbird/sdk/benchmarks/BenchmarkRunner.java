@@ -0,0 +1,56 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point d'entrée du jar de benchmarks.
+ * <p>
+ * Délègue à la ligne de commande de JMH en activant le profiler {@code gc}, qui rapporte
+ * le taux d'allocation ({@code gc.alloc.rate.norm}, en octets par opération) à côté du débit,
+ * sauf si un autre profiler est demandé avec {@code -prof}. Exemples:
+ * <pre>
+ *     java -jar target/benchmarks.jar                       # tous les benchmarks
+ *     java -jar target/benchmarks.jar CompiledDistribution  # filtre sur le nom
+ *     java -jar target/benchmarks.jar Concurrent -t 4       # passage à l'échelle sur 4 threads
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner(){}
+
+    public static void main(String[] args) throws Exception
+    {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if(!arguments.contains("-prof"))
+        {
+            arguments.add("-prof");
+            arguments.add("gc");
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[arguments.size()]));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.RandomSource;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la compilation d'une distribution et le coût d'un tirage au sort, unitaire
+ * ou par lot, pour des tables de tailles variées.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledDistributionBenchmark {
+
+    /**
+     * Le nombre de tirages effectués par les benchmarks par lot.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Le nombre d'items de la table.
+     */
+    @Param({"10", "1000", "100000"})
+    public int item_count;
+
+    private List<FavorableCase<Integer>> fav_case;
+    private CompiledDistribution<Integer> distribution;
+    private RandomSource random;
+    private int[] indexes;
+    private long[] histogram;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        fav_case = new ArrayList<>(item_count);
+        for(int i = 0; i < item_count; i++)
+            fav_case.add(FavorableCase.weighted("item " + i, i, 1.0 + (i % 17)));
+        distribution = CompiledDistribution.of(fav_case);
+        random = new SplittableRandomSource(117);
+        indexes = new int[BATCH_SIZE];
+        histogram = new long[item_count];
+    }
+
+    @Benchmark
+    public CompiledDistribution<Integer> compile()
+    {
+        return CompiledDistribution.of(fav_case);
+    }
+
+    @Benchmark
+    public FavorableCase<Integer> fire_random_item()
+    {
+        return distribution.fire_random_item();
+    }
+
+    @Benchmark
+    public int fire_random_index_with_source()
+    {
+        return distribution.fire_random_index(random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] fire_random_indexes()
+    {
+        distribution.fire_random_indexes(indexes, 0, BATCH_SIZE, random);
+        return indexes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] fire_histogram()
+    {
+        distribution.fire_histogram(histogram, BATCH_SIZE, random);
+        return histogram;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.ProbabilityManager;
+import fr.songbird.sdk.probabuilder.RandomSource;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mesure le passage à l'échelle des tirages effectués sur une même distribution
+ * par plusieurs threads. Le débit total doit croître linéairement avec le nombre de threads:
+ * <pre>
+ *     java -jar target/benchmarks.jar ConcurrentSampling -t 1
+ *     java -jar target/benchmarks.jar ConcurrentSampling -t 4
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentSamplingBenchmark {
+
+    /**
+     * La distribution et le gestionnaire, partagés par tous les threads.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedTable {
+
+        private final AtomicLong seeds = new AtomicLong(117);
+        public ProbabilityManager<Integer> manager;
+        public CompiledDistribution<Integer> distribution;
+
+        @Setup
+        public void setup() throws Exception
+        {
+            final List<FavorableCase<Integer>> fav_case = new ArrayList<>();
+            for(int i = 0; i < 10; i++)
+                fav_case.add(new FavorableCase<>("item " + i, i, 10));
+            manager = new ProbabilityManager<>(fav_case);
+            distribution = manager.compile();
+        }
+    }
+
+    /**
+     * Le générateur propre à chaque thread.
+     */
+    @State(Scope.Thread)
+    public static class WorkerRandom {
+
+        public RandomSource random;
+
+        @Setup
+        public void setup(SharedTable table)
+        {
+            random = new XoroshiroRandomSource(table.seeds.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    public FavorableCase<Integer> manager_fire_random_item(SharedTable table)
+    {
+        return table.manager.fire_random_item();
+    }
+
+    @Benchmark
+    public FavorableCase<Integer> compiled_fire_random_item(SharedTable table)
+    {
+        return table.distribution.fire_random_item();
+    }
+
+    @Benchmark
+    public int compiled_fire_random_index_with_source(SharedTable table, WorkerRandom worker)
+    {
+        return table.distribution.fire_random_index(worker.random);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.collectionutils.Entry;
+import fr.songbird.sdk.collectionutils.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure {@link Maps#asMap(Entry, Entry[])} pour un nombre d'entrées croissant.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapsBenchmark {
+
+    /**
+     * Le nombre d'entrées de la map.
+     */
+    @Param({"1", "10", "100", "10000"})
+    public int entry_count;
+
+    private Entry<String, Integer> first_entry;
+    private Entry<String, Integer>[] more_entries;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup()
+    {
+        first_entry = new Entry<>("key 0", 0);
+        more_entries = new Entry[entry_count - 1];
+        for(int i = 1; i < entry_count; i++)
+            more_entries[i - 1] = new Entry<>("key " + i, i);
+    }
+
+    @Benchmark
+    public Map<String, Integer> as_map()
+    {
+        return Maps.asMap(first_entry, more_entries);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.ProbabilityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mesure la construction d'un {@link ProbabilityManager} et le coût d'un tirage au sort
+ * à travers la façade historique.
+ * <p>
+ * La façade impose des pourcentages tenant dans les cas potentiels, la taille des tables
+ * est donc limitée à 100 items; {@link CompiledDistributionBenchmark} mesure les grandes tables.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProbabilityManagerBenchmark {
+
+    /**
+     * Le nombre d'items de la table.
+     */
+    @Param({"2", "10", "100"})
+    public int item_count;
+
+    private List<FavorableCase<Integer>> fav_case;
+    private ProbabilityManager<Integer> manager;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        // Les warnings de validation ne doivent pas être mesurés.
+        Logger.getLogger(ProbabilityManager.class.getSimpleName()).setLevel(Level.OFF);
+        fav_case = new ArrayList<>(item_count);
+        for(int i = 0; i < item_count; i++)
+            fav_case.add(new FavorableCase<>("item " + i, i, 100 / item_count));
+        manager = new ProbabilityManager<>(fav_case);
+        manager.compile();
+    }
+
+    @Benchmark
+    public ProbabilityManager<Integer> construct() throws Exception
+    {
+        return new ProbabilityManager<>(fav_case);
+    }
+
+    @Benchmark
+    public Object construct_and_compile() throws Exception
+    {
+        return new ProbabilityManager<>(fav_case).compile();
+    }
+
+    @Benchmark
+    public FavorableCase<Integer> fire_random_item()
+    {
+        return manager.fire_random_item();
+    }
+}
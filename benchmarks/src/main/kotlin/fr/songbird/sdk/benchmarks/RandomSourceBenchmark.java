@@ -0,0 +1,118 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.probabuilder.RandomSource;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare les implémentations de {@link RandomSource} à {@link java.util.Random},
+ * utilisé directement ou créé à chaque tirage comme le faisait l'ancien {@code fire_random_item()}.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+    private Random jdk_random;
+    private RandomSource jdk_source;
+    private RandomSource splittable_source;
+    private RandomSource xoroshiro_source;
+    private RandomSource thread_local_source;
+
+    @Setup
+    public void setup()
+    {
+        jdk_random = new Random(117);
+        jdk_source = RandomSource.of(new Random(117));
+        splittable_source = new SplittableRandomSource(117);
+        xoroshiro_source = new XoroshiroRandomSource(117);
+        thread_local_source = RandomSource.thread_local();
+    }
+
+    @Benchmark
+    public int new_jdk_random_per_draw()
+    {
+        return new Random().nextInt(100);
+    }
+
+    @Benchmark
+    public int jdk_random()
+    {
+        return jdk_random.nextInt(100);
+    }
+
+    @Benchmark
+    public int jdk_source()
+    {
+        return jdk_source.next_int(100);
+    }
+
+    @Benchmark
+    public int splittable_source()
+    {
+        return splittable_source.next_int(100);
+    }
+
+    @Benchmark
+    public int xoroshiro_source()
+    {
+        return xoroshiro_source.next_int(100);
+    }
+
+    @Benchmark
+    public int thread_local_source()
+    {
+        return thread_local_source.next_int(100);
+    }
+
+    @Benchmark
+    public double xoroshiro_next_double()
+    {
+        return xoroshiro_source.next_double();
+    }
+
+    @Benchmark
+    public double splittable_next_double()
+    {
+        return splittable_source.next_double();
+    }
+}
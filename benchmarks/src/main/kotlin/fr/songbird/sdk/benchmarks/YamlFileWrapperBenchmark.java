@@ -0,0 +1,122 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.benchmarks;
+
+import fr.songbird.sdk.stringparser.YamlFileWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le chargement ({@link YamlFileWrapper#loadHim()}), le chargement paresseux suivi de la
+ * lecture d'une seule section ({@link YamlFileWrapper#loadLazily()}), le rechargement d'un fichier
+ * inchangé ({@link YamlFileWrapper#reload()}) et l'écriture
+ * ({@link YamlFileWrapper#writeThisFile()}) d'un petit et d'un gros fichier de configuration.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YamlFileWrapperBenchmark {
+
+    /**
+     * Le nombre de sections du fichier, chacune contenant quelques clés.
+     */
+    @Param({"10", "10000"})
+    public int section_count;
+
+    private File directory;
+    private YamlFileWrapper wrapper;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        final Map<String, Object> skeleton = new LinkedHashMap<>();
+        for(int i = 0; i < section_count; i++)
+        {
+            final Map<String, Object> section = new LinkedHashMap<>();
+            section.put("name", "section " + i);
+            section.put("weight", i);
+            section.put("enabled", i % 2 == 0);
+            skeleton.put("section_" + i, section);
+        }
+        directory = Files.createTempDirectory("sdk-yaml-benchmark").toFile();
+        wrapper = new YamlFileWrapper(new Yaml(), new File(directory, "config.yml"), skeleton);
+        wrapper.writeThisFile();
+    }
+
+    @TearDown
+    public void tear_down()
+    {
+        final File[] files = directory.listFiles();
+        if(files != null)
+            for(File file : files)
+                file.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public boolean load_him()
+    {
+        return wrapper.loadHim();
+    }
+
+    @Benchmark
+    public Object load_lazily_and_read_one_section() throws Exception
+    {
+        wrapper.loadLazily();
+        return wrapper.getMap().get("section_0");
+    }
+
+    @Benchmark
+    public Map<String, Object> reload_unchanged() throws Exception
+    {
+        return wrapper.reload();
+    }
+
+    @Benchmark
+    public YamlFileWrapper write_this_file()
+    {
+        wrapper.writeThisFile();
+        return wrapper;
+    }
+}
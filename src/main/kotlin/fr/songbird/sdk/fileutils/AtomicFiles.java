@@ -0,0 +1,125 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+package fr.songbird.sdk.fileutils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * La classe AtomicFiles permet de remplacer le contenu d'un fichier d'un seul coup.
+ * <p>
+ * Le contenu est d'abord écrit dans un fichier temporaire du même répertoire, qui remplace
+ * ensuite le fichier par un renommage atomique. Un plantage en pleine écriture laisse donc
+ * l'ancien fichier intact.
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class AtomicFiles {
+
+    private static final Logger LOGGER = Logger.getLogger(AtomicFiles.class.getSimpleName());
+
+
+    private AtomicFiles(){}
+
+
+    /**
+     * Écrit le contenu d'un fichier.
+     */
+    public interface ContentWriter {
+
+        /**
+         * Écrit le contenu dans le fichier temporaire.
+         * @param channel Le fichier temporaire, vide, ouvert en écriture.
+         * @throws IOException Si le contenu ne peut pas être écrit.
+         */
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Remplace atomiquement le contenu d'un fichier, en le créant au besoin.
+     * Le fichier garde ses droits d'accès.
+     * @param path Le chemin du fichier.
+     * @param sync {@code true} pour forcer l'écriture des données sur le disque avant de remplacer
+     *             le fichier (fsync), ce qui garantit qu'il survive à une coupure de courant,
+     *             au prix d'une écriture plus lente.
+     * @param content_writer Écrit le contenu du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit. L'ancien fichier est alors intact.
+     */
+    public static void write(Path path, boolean sync, ContentWriter content_writer) throws IOException
+    {
+        if(path == null)
+            throw new RuntimeException("La référence path est nulle.");
+        if(content_writer == null)
+            throw new RuntimeException("La référence content_writer est nulle.");
+        final Path target = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try
+        {
+            // Le fichier temporaire n'est lisible que par son propriétaire: on reprend les droits du fichier remplacé.
+            if(Files.exists(target) && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class))
+                Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(target));
+            try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE))
+            {
+                content_writer.write(channel);
+                if(sync)
+                    channel.force(true);
+            }
+            try
+            {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }catch(AtomicMoveNotSupportedException amnse0)
+            {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporary = null;
+            if(sync)
+                sync_directory(target.getParent());
+        }finally
+        {
+            if(temporary != null)
+                Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Force l'écriture du répertoire sur le disque, pour que le renommage du fichier survive
+     * à une coupure de courant. Certains systèmes (Windows) ne permettent pas d'ouvrir un
+     * répertoire: le renommage y est alors laissé au bon soin du système.
+     * @param directory Le répertoire.
+     */
+    private static void sync_directory(Path directory)
+    {
+        try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }catch(IOException ioe0)
+        {
+            LOGGER.log(Level.FINE, "Le répertoire " + directory + " ne peut pas être forcé sur le disque.", ioe0);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+/**
+ * Table d'alias (méthode de Walker, construction de Vose) permettant de tirer au sort
+ * un indice proportionnellement à son poids en temps constant.
+ * <p>
+ * La table est construite une seule fois à partir des poids de chaque item, puis chaque tirage
+ * ne coûte plus qu'un entier aléatoire (la colonne), un réel aléatoire (la pièce) et une lecture
+ * dans les tableaux, sans la moindre allocation.
+ * <p>
+ * Chaque item n'occupe qu'une colonne, quel que soit son poids: la mémoire dépend du nombre d'items
+ * et non d'une échelle de cas potentiels. Jusqu'à {@value #COMPACT_LIMIT} colonnes, les alias sont
+ * rangés sur 16 bits au lieu de 32, soit 10 octets par item au lieu de 12.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+final class AliasTable {
+
+    /**
+     * Probabilité, pour chaque colonne, de conserver l'indice de la colonne
+     * plutôt que de basculer sur son alias.
+     */
+    private final double[] probability;
+    /**
+     * L'alias de chaque colonne, {@code null} si la table est assez petite pour {@link #compact_alias}.
+     */
+    private final int[] alias;
+    /**
+     * L'alias de chaque colonne sur 16 bits non signés, {@code null} au-delà de {@value #COMPACT_LIMIT} colonnes.
+     */
+    private final char[] compact_alias;
+
+    /**
+     * Le nombre maximal de colonnes dont les alias sont rangés sur 16 bits.
+     */
+    static final int COMPACT_LIMIT = 1 << 16;
+
+    /**
+     * Construit la table à partir des poids de chaque indice.
+     * Les poids n'ont pas besoin d'être normalisés, seule leur proportion compte.
+     * @param weights Les poids de chaque indice. Un poids nul rend l'indice impossible à tirer.
+     * @throws RuntimeException Si la liste des poids est vide, si l'un des poids est négatif
+     * ou invalide, ou si leur somme est nulle.
+     */
+    AliasTable(double[] weights)
+    {
+        if(weights == null)
+            throw new RuntimeException("La référence weights est nulle.");
+        final int size = weights.length;
+        if(size == 0)
+            throw new RuntimeException("La liste des poids est vide.");
+
+        double weight_sum = 0;
+        for(int i = 0; i < size; i++)
+        {
+            final double weight = weights[i];
+            if(!(weight >= 0) || Double.isInfinite(weight))
+                throw new RuntimeException("Le poids N°" + i + " est négatif ou invalide (" + weight + ").");
+            weight_sum += weight;
+        }
+        if(weight_sum <= 0 || Double.isInfinite(weight_sum))
+            throw new RuntimeException("La somme des poids est nulle ou invalide (" + weight_sum + ").");
+
+        this.probability = new double[size];
+        final int[] alias = new int[size];
+
+        // Chaque poids est ramené à l'échelle d'une colonne (la moyenne vaut 1).
+        final double[] scaled = new double[size];
+        // Les deux piles de travail: les colonnes sous-remplies et les colonnes débordantes.
+        final int[] small = new int[size];
+        final int[] large = new int[size];
+        int small_size = 0;
+        int large_size = 0;
+        for(int i = 0; i < size; i++)
+        {
+            scaled[i] = weights[i] * size / weight_sum;
+            if(scaled[i] < 1.0)
+                small[small_size++] = i;
+            else
+                large[large_size++] = i;
+        }
+
+        // Chaque colonne sous-remplie est complétée par une colonne débordante,
+        // qui devient son alias.
+        while(small_size > 0 && large_size > 0)
+        {
+            final int less = small[--small_size];
+            final int more = large[--large_size];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if(scaled[more] < 1.0)
+                small[small_size++] = more;
+            else
+                large[large_size++] = more;
+        }
+        // Ce qu'il reste est plein, aux erreurs d'arrondi près.
+        while(large_size > 0)
+        {
+            final int more = large[--large_size];
+            probability[more] = 1.0;
+            alias[more] = more;
+        }
+        while(small_size > 0)
+        {
+            final int less = small[--small_size];
+            probability[less] = 1.0;
+            alias[less] = less;
+        }
+        this.compact_alias = compact(alias);
+        this.alias = compact_alias == null ? alias : null;
+    }
+
+    /**
+     * Reconstruit une table déjà calculée, par exemple relue depuis un fichier
+     * (voir {@link CompiledDistributionCodec}), sans refaire la construction de Vose.
+     * @param probability La probabilité de conserver chaque colonne, copiée par le constructeur.
+     * @param alias L'alias de chaque colonne, copié par le constructeur.
+     * @throws RuntimeException Si les tableaux n'ont pas la même taille ou contiennent des valeurs hors bornes.
+     */
+    AliasTable(double[] probability, int[] alias)
+    {
+        if(probability == null || alias == null)
+            throw new RuntimeException("La référence probability ou alias est nulle.");
+        final int size = probability.length;
+        if(size == 0 || alias.length != size)
+            throw new RuntimeException("La table est vide ou ses colonnes sont incomplètes.");
+        for(int i = 0; i < size; i++)
+        {
+            if(!(probability[i] >= 0 && probability[i] <= 1.0))
+                throw new RuntimeException("La probabilité de la colonne N°" + i + " est invalide (" + probability[i] + ").");
+            if(alias[i] < 0 || alias[i] >= size)
+                throw new RuntimeException("L'alias de la colonne N°" + i + " est hors bornes (" + alias[i] + ").");
+        }
+        this.probability = probability.clone();
+        this.compact_alias = compact(alias);
+        this.alias = compact_alias == null ? alias.clone() : null;
+    }
+
+    /**
+     * Range les alias sur 16 bits si la table est assez petite.
+     * @param alias Les alias de chaque colonne.
+     * @return Les alias sur 16 bits, ou {@code null} si la table dépasse {@value #COMPACT_LIMIT} colonnes.
+     */
+    private static char[] compact(int[] alias)
+    {
+        if(alias.length > COMPACT_LIMIT)
+            return null;
+        final char[] compact_alias = new char[alias.length];
+        for(int i = 0; i < alias.length; i++)
+            compact_alias[i] = (char) alias[i];
+        return compact_alias;
+    }
+
+    /**
+     * Renvoie le nombre d'indices gérés par la table.
+     * @return Le nombre d'indices.
+     */
+    int size()
+    {
+        return probability.length;
+    }
+
+    /**
+     * Renvoie la probabilité de conserver l'indice de la colonne plutôt que son alias.
+     * @param column La colonne.
+     * @return La probabilité, comprise entre 0 et 1.
+     */
+    double get_column_probability(int column)
+    {
+        return probability[column];
+    }
+
+    /**
+     * Renvoie l'alias de la colonne.
+     * @param column La colonne.
+     * @return L'indice vers lequel bascule la colonne.
+     */
+    int get_alias(int column)
+    {
+        return compact_alias != null ? compact_alias[column] : alias[column];
+    }
+
+    /**
+     * Résout un tirage à partir de ses deux composantes aléatoires.
+     * @param column La colonne tirée uniformément dans {@code [0, size())}.
+     * @param coin Un réel tiré uniformément dans {@code [0, 1)}.
+     * @return L'indice tiré au sort.
+     */
+    int sample(int column, double coin)
+    {
+        return coin < probability[column] ? column : get_alias(column);
+    }
+
+    /**
+     * Tire au sort un indice proportionnellement à son poids.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     * @return L'indice tiré au sort.
+     */
+    int sample(RandomSource random)
+    {
+        return sample(random.next_int(probability.length), random.next_double());
+    }
+
+    /**
+     * Remplit une portion de tableau avec des indices tirés au sort.
+     * @param destination Le tableau à remplir.
+     * @param offset L'indice de la première case à remplir.
+     * @param length Le nombre de tirages à effectuer.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     */
+    void sample(int[] destination, int offset, int length, RandomSource random)
+    {
+        final int size = probability.length;
+        final int end = offset + length;
+        for(int i = offset; i < end; i++)
+        {
+            destination[i] = sample(random.next_int(size), random.next_double());
+        }
+    }
+
+    /**
+     * Effectue plusieurs tirages au sort et ajoute le nombre d'occurrences
+     * de chaque indice à l'histogramme.
+     * @param histogram L'histogramme, indexé comme les poids de la table.
+     * @param draws Le nombre de tirages à effectuer.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     */
+    void sample(long[] histogram, long draws, RandomSource random)
+    {
+        final int size = probability.length;
+        for(long i = 0; i < draws; i++)
+        {
+            histogram[sample(random.next_int(size), random.next_double())]++;
+        }
+    }
+}
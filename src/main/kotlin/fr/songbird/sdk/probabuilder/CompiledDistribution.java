@@ -0,0 +1,309 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Une distribution compilée est l'image figée d'une liste de {@link FavorableCase}:
+ * les items et leurs poids sont copiés une bonne fois pour toutes dans des tableaux
+ * et la table d'alias est construite à la compilation.
+ * <p>
+ * Rien n'est modifiable après la construction, une même instance peut donc être partagée
+ * et sollicitée par autant de threads que nécessaire, sans verrou.
+ * Par défaut, chaque tirage utilise le générateur du thread appelant ({@link RandomSource#thread_local()});
+ * vous pouvez aussi fournir votre propre {@link RandomSource} (une par thread, voir {@link RandomSource#split()}).
+ * <pre>
+ *     final{@literal CompiledDistribution<String>} distribution = new{@literal ProbabilityManager<>}(fav_case_list).compile();
+ *     final{@literal FavorableCase<String>} item = distribution.fire_random_item();
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <T> Le type des items tirés au sort.
+ * @see ProbabilityManager#compile()
+ */
+public final class CompiledDistribution<T> {
+
+    /**
+     * Les items, dans l'ordre de la liste compilée.
+     */
+    private final FavorableCase<T>[] items;
+    /**
+     * La probabilité de chaque item d'être tiré au sort.
+     */
+    private final double[] probabilities;
+    /**
+     * La table d'alias utilisée pour les tirages au sort.
+     */
+    private final AliasTable alias_table;
+
+    /**
+     * Compile la liste d'items avec les poids qui leur sont associés.
+     * @param fav_case La liste des items, copiée par le constructeur.
+     * @param weights Le poids de chaque item, dans le même ordre que la liste.
+     * @throws RuntimeException Si les poids ne correspondent pas aux items ou ne forment pas une distribution valide.
+     */
+    CompiledDistribution(List<FavorableCase<T>> fav_case, double[] weights)
+    {
+        if(fav_case == null)
+            throw new RuntimeException("La référence fav_case est nulle.");
+        if(weights == null || weights.length != fav_case.size())
+            throw new RuntimeException("Le nombre de poids ne correspond pas au nombre d'items.");
+        this.items = fav_case.toArray(FavorableCase.<T>new_array(fav_case.size()));
+        this.alias_table = new AliasTable(weights);
+
+        double weight_sum = 0;
+        for(double weight : weights)
+            weight_sum += weight;
+        this.probabilities = new double[weights.length];
+        for(int i = 0; i < weights.length; i++)
+            probabilities[i] = weights[i] / weight_sum;
+    }
+
+    /**
+     * Reprend une distribution déjà compilée, par exemple relue depuis un fichier.
+     * @param items Les items, conservés tels quels.
+     * @param probabilities La probabilité de chaque item, conservée telle quelle.
+     * @param alias_table La table d'alias correspondante.
+     * @see CompiledDistributionCodec
+     */
+    CompiledDistribution(FavorableCase<T>[] items, double[] probabilities, AliasTable alias_table)
+    {
+        if(items.length != probabilities.length || items.length != alias_table.size())
+            throw new RuntimeException("Les items, leurs probabilités et la table d'alias n'ont pas la même taille.");
+        this.items = items;
+        this.probabilities = probabilities;
+        this.alias_table = alias_table;
+    }
+
+    /**
+     * Compile une liste d'items directement à partir de leurs poids, sans passer par
+     * l'échelle des cas potentiels d'un {@link ProbabilityManager}.
+     * <p>
+     * Le tirage est exact: chaque item sort avec une probabilité égale à son poids divisé par
+     * la somme des poids, aussi faible soit-elle, et la mémoire occupée ne dépend que du nombre d'items.
+     * Les items exprimés en pourcentage pèsent leur pourcentage, ils peuvent donc être mêlés
+     * aux items créés avec {@link FavorableCase#weighted(String, Object, double)}.
+     * @param fav_case La liste des items, copiée par la méthode.
+     * @param <T> Le type des items.
+     * @return La distribution compilée.
+     * @throws RuntimeException Si la liste est nulle ou vide.
+     */
+    public static <T> CompiledDistribution<T> of(List<FavorableCase<T>> fav_case)
+    {
+        if(fav_case == null)
+            throw new RuntimeException("La référence fav_case est nulle.");
+        if(fav_case.isEmpty())
+            throw new RuntimeException("La liste est vide.");
+        final double[] weights = new double[fav_case.size()];
+        for(int i = 0; i < weights.length; i++)
+            weights[i] = fav_case.get(i).get_weight();
+        return new CompiledDistribution<>(fav_case, weights);
+    }
+
+    /**
+     * Tire au sort un item en utilisant le générateur du thread appelant.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item()
+    {
+        return items[fire_random_index()];
+    }
+
+    /**
+     * Tire au sort un item avec le générateur fourni.
+     * @param random Le générateur à utiliser. Une {@link RandomSource} n'étant en général pas thread-safe,
+     *               chaque thread doit disposer de la sienne (voir {@link RandomSource#split()}).
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(RandomSource random)
+    {
+        return items[fire_random_index(random)];
+    }
+
+    /**
+     * Tire au sort l'indice d'un item en utilisant le générateur du thread appelant.
+     * @return L'indice de l'item tiré au sort.
+     */
+    public int fire_random_index()
+    {
+        return alias_table.sample(RandomSource.thread_local());
+    }
+
+    /**
+     * Tire au sort l'indice d'un item avec le générateur fourni.
+     * @param random Le générateur à utiliser.
+     * @return L'indice de l'item tiré au sort.
+     */
+    public int fire_random_index(RandomSource random)
+    {
+        return alias_table.sample(random);
+    }
+
+    /**
+     * Remplit le tableau avec les indices d'items tirés au sort, en utilisant
+     * le générateur du thread appelant.
+     * <p>
+     * Contrairement à une boucle sur {@link #fire_random_item()}, aucun objet n'est
+     * manipulé: seuls les indices sont écrits, {@link #get(int)} permet de retrouver les items.
+     * @param destination Le tableau à remplir, chaque case recevant un tirage.
+     */
+    public void fire_random_indexes(int[] destination)
+    {
+        if(destination == null)
+            throw new RuntimeException("La référence destination est nulle.");
+        alias_table.sample(destination, 0, destination.length, RandomSource.thread_local());
+    }
+
+    /**
+     * Remplit une portion du tableau avec les indices d'items tirés au sort.
+     * @param destination Le tableau à remplir.
+     * @param offset L'indice de la première case à remplir.
+     * @param length Le nombre de tirages à effectuer.
+     * @param random Le générateur à utiliser.
+     * @throws RuntimeException Si la portion désignée dépasse les bornes du tableau.
+     */
+    public void fire_random_indexes(int[] destination, int offset, int length, RandomSource random)
+    {
+        if(destination == null)
+            throw new RuntimeException("La référence destination est nulle.");
+        if(offset < 0 || length < 0 || offset > destination.length - length)
+            throw new RuntimeException("La portion [" + offset + ", " + offset + " + " + length + ") dépasse les bornes du tableau"
+                    + " (taille " + destination.length + ").");
+        alias_table.sample(destination, offset, length, random);
+    }
+
+    /**
+     * Effectue plusieurs tirages au sort avec le générateur du thread appelant
+     * et ajoute le nombre d'occurrences de chaque item à l'histogramme.
+     * @param histogram L'histogramme, dont la case {@code i} compte les tirages de l'item {@code i}.
+     *                  Il doit contenir au moins {@link #size()} cases.
+     * @param draws Le nombre de tirages à effectuer.
+     */
+    public void fire_histogram(long[] histogram, long draws)
+    {
+        check_histogram(histogram, draws);
+        alias_table.sample(histogram, draws, RandomSource.thread_local());
+    }
+
+    /**
+     * Effectue plusieurs tirages au sort avec le générateur fourni
+     * et ajoute le nombre d'occurrences de chaque item à l'histogramme.
+     * @param histogram L'histogramme, dont la case {@code i} compte les tirages de l'item {@code i}.
+     *                  Il doit contenir au moins {@link #size()} cases.
+     * @param draws Le nombre de tirages à effectuer.
+     * @param random Le générateur à utiliser.
+     */
+    public void fire_histogram(long[] histogram, long draws, RandomSource random)
+    {
+        check_histogram(histogram, draws);
+        alias_table.sample(histogram, draws, random);
+    }
+
+    /**
+     * Vérifie que l'histogramme peut recevoir les tirages.
+     * @param histogram L'histogramme.
+     * @param draws Le nombre de tirages à effectuer.
+     */
+    private void check_histogram(long[] histogram, long draws)
+    {
+        if(histogram == null)
+            throw new RuntimeException("La référence histogram est nulle.");
+        if(histogram.length < items.length)
+            throw new RuntimeException("L'histogramme contient " + histogram.length + " cases alors qu'il y a " + items.length + " items.");
+        if(draws < 0)
+            throw new RuntimeException("Le nombre de tirages est négatif.");
+    }
+
+    /**
+     * Tire au sort {@code k} items distincts (sans remise) avec le générateur du thread appelant.
+     * @param k Le nombre d'items à tirer. S'il dépasse le nombre d'items, tous sont renvoyés.
+     * @return Les items tirés, dans l'ordre où ils sont sortis.
+     * @see WeightedReservoir
+     */
+    public List<FavorableCase<T>> fire_distinct_items(int k)
+    {
+        return fire_distinct_items(k, RandomSource.thread_local());
+    }
+
+    /**
+     * Tire au sort {@code k} items distincts (sans remise) avec le générateur fourni:
+     * chaque tirage se fait proportionnellement aux poids des items qui ne sont pas encore sortis.
+     * @param k Le nombre d'items à tirer. S'il dépasse le nombre d'items, tous sont renvoyés.
+     * @param random Le générateur à utiliser.
+     * @return Les items tirés, dans l'ordre où ils sont sortis.
+     * @throws RuntimeException Si {@code k} est négatif.
+     * @see WeightedReservoir
+     */
+    public List<FavorableCase<T>> fire_distinct_items(int k, RandomSource random)
+    {
+        if(k < 0)
+            throw new RuntimeException("Le nombre d'items à tirer est négatif.");
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+        if(k == 0)
+            return new ArrayList<>();
+        final WeightedReservoir<T> reservoir = new WeightedReservoir<>(Math.min(k, items.length), random);
+        for(int i = 0; i < items.length; i++)
+            reservoir.offer(items[i], probabilities[i]);
+        return reservoir.get_sample();
+    }
+
+    /**
+     * Renvoie le nombre d'items de la distribution.
+     * @return Le nombre d'items.
+     */
+    public int size()
+    {
+        return items.length;
+    }
+
+    /**
+     * Renvoie l'item se trouvant à l'indice donné.
+     * @param index L'indice de l'item, tel que renvoyé par {@link #fire_random_index()}.
+     * @return L'item.
+     */
+    public FavorableCase<T> get(int index)
+    {
+        return items[index];
+    }
+
+    /**
+     * Renvoie la table d'alias, pour la sérialisation.
+     * @return La table d'alias.
+     */
+    AliasTable get_alias_table()
+    {
+        return alias_table;
+    }
+
+    /**
+     * Renvoie la probabilité de l'item se trouvant à l'indice donné d'être tiré au sort.
+     * @param index L'indice de l'item.
+     * @return La probabilité de l'item, comprise entre 0 et 1.
+     */
+    public double get_probability(int index)
+    {
+        return probabilities[index];
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import fr.songbird.sdk.fileutils.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Sérialise une {@link CompiledDistribution} dans un format binaire compact, afin qu'un redémarrage
+ * puisse relire les tables d'alias déjà calculées au lieu de revalider et recompiler chaque gestionnaire.
+ * <p>
+ * Le fichier commence par un en-tête de {@value #HEADER_SIZE} octets (big-endian):
+ * <pre>
+ *     int   magic            0x53444B43 ("SDKC")
+ *     short version          {@value #VERSION}
+ *     short flags            0
+ *     int   count            le nombre d'items
+ *     int   payload_length   la taille du contenu qui suit l'en-tête
+ *     int   crc32            la somme de contrôle CRC32 du contenu
+ * </pre>
+ * Le contenu aligne d'abord {@code count} enregistrements de taille fixe (poids, pourcentage,
+ * probabilité, colonne de la table d'alias), puis la table des noms d'items encodés en UTF-8.
+ * <p>
+ * Les items eux-mêmes ne sont pas sérialisés: seul leur nom est écrit, et c'est au chargement
+ * que chaque nom est résolu vers l'item correspondant. Chaque item doit donc être nommé.
+ * <pre>
+ *     CompiledDistributionCodec.write(distribution, path);
+ *     final{@literal CompiledDistribution<Item>} reloaded = CompiledDistributionCodec.read(path, registry::get);
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class CompiledDistributionCodec {
+
+    /**
+     * Les quatre premiers octets de chaque fichier.
+     */
+    static final int MAGIC = 0x53444B43;
+    /**
+     * La version du format écrite par ce codec.
+     */
+    public static final short VERSION = 1;
+    /**
+     * La taille de l'en-tête, en octets.
+     */
+    static final int HEADER_SIZE = 20;
+    /**
+     * La taille d'un enregistrement d'item, en octets.
+     */
+    private static final int RECORD_SIZE = 8 + 4 + 8 + 8 + 4;
+
+    private CompiledDistributionCodec()
+    {
+    }
+
+    /**
+     * Encode la distribution dans un tampon prêt à être écrit.
+     * @param distribution La distribution à encoder.
+     * @return Le tampon, positionné au début des données.
+     * @throws RuntimeException Si la distribution est nulle, ou si l'un de ses items n'est pas nommé,
+     * porte un nom vide ou le même nom qu'un autre item: chaque item est retrouvé par son nom au chargement.
+     */
+    public static ByteBuffer encode(CompiledDistribution<?> distribution)
+    {
+        if(distribution == null)
+            throw new RuntimeException("La référence distribution est nulle.");
+        final int count = distribution.size();
+        final byte[][] names = new byte[count][];
+        final Set<String> item_names = new HashSet<>();
+        int payload_length = count * RECORD_SIZE;
+        for(int i = 0; i < count; i++)
+        {
+            final String item_name = distribution.get(i).get_item_name();
+            if(item_name == null || item_name.trim().isEmpty())
+                throw new RuntimeException("L'item N°" + i + " n'est pas nommé, son nom est nécessaire pour le retrouver au chargement.");
+            if(!item_names.add(item_name))
+                throw new RuntimeException("L'item N°" + i + " porte le même nom qu'un autre item (" + item_name + "), il ne pourrait pas être distingué au chargement.");
+            names[i] = item_name.getBytes(StandardCharsets.UTF_8);
+            payload_length += 4 + names[i].length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload_length);
+        buffer.position(HEADER_SIZE);
+        final AliasTable alias_table = distribution.get_alias_table();
+        for(int i = 0; i < count; i++)
+        {
+            final FavorableCase<?> item = distribution.get(i);
+            buffer.putDouble(item.get_weight());
+            buffer.putInt(item.get_favorable_case_percentage());
+            buffer.putDouble(distribution.get_probability(i));
+            buffer.putDouble(alias_table.get_column_probability(i));
+            buffer.putInt(alias_table.get_alias(i));
+        }
+        for(byte[] name : names)
+        {
+            buffer.putInt(name.length);
+            buffer.put(name);
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payload_length);
+        buffer.position(0);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(count);
+        buffer.putInt(payload_length);
+        buffer.putInt((int) crc.getValue());
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * Écrit la distribution dans un fichier, en remplaçant son éventuel contenu.
+     * Le remplacement est atomique et forcé sur le disque (voir {@link AtomicFiles}): un plantage
+     * en pleine écriture laisse la table précédente intacte.
+     * @param distribution La distribution à écrire.
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static void write(CompiledDistribution<?> distribution, Path path) throws IOException
+    {
+        final ByteBuffer buffer = encode(distribution);
+        AtomicFiles.write(path, true, channel -> {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        });
+    }
+
+    /**
+     * Relit une distribution depuis un fichier projeté en mémoire.
+     * @param path Le chemin du fichier.
+     * @param resolver Associe chaque nom d'item à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return La distribution, prête à l'emploi.
+     * @throws IOException Si le fichier ne peut pas être lu, s'il est corrompu ou d'une version inconnue.
+     */
+    public static <T> CompiledDistribution<T> read(Path path, Function<String, ? extends T> resolver) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer, resolver);
+        }
+    }
+
+    /**
+     * Décode une distribution à partir des données comprises entre la position et la limite du tampon,
+     * qui doivent correspondre exactement à la taille annoncée par l'en-tête.
+     * La position du tampon n'est pas modifiée.
+     * @param buffer Le tampon contenant la distribution encodée.
+     * @param resolver Associe chaque nom d'item à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return La distribution, prête à l'emploi.
+     * @throws IOException Si les données sont corrompues ou d'une version inconnue.
+     */
+    public static <T> CompiledDistribution<T> decode(ByteBuffer buffer, Function<String, ? extends T> resolver) throws IOException
+    {
+        if(buffer == null)
+            throw new RuntimeException("La référence buffer est nulle.");
+        if(resolver == null)
+            throw new RuntimeException("La référence resolver est nulle.");
+        final ByteBuffer data = buffer.slice();
+        if(data.remaining() < HEADER_SIZE)
+            throw new IOException("Les données sont trop courtes pour contenir un en-tête (" + data.remaining() + " octets).");
+        if(data.getInt() != MAGIC)
+            throw new IOException("Les données ne contiennent pas une distribution compilée.");
+        final short version = data.getShort();
+        if(version != VERSION)
+            throw new IOException("La version " + version + " du format n'est pas prise en charge (version attendue: " + VERSION + ").");
+        data.getShort();
+        final int count = data.getInt();
+        final int payload_length = data.getInt();
+        final int checksum = data.getInt();
+        if(count <= 0 || payload_length < 0 || payload_length != data.remaining()
+                || (long) count * RECORD_SIZE > payload_length)
+            throw new IOException("L'en-tête est incohérent (" + count + " items, " + payload_length + " octets annoncés, "
+                    + data.remaining() + " présents).");
+
+        final CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        if((int) crc.getValue() != checksum)
+            throw new IOException("La somme de contrôle ne correspond pas, les données sont corrompues.");
+
+        final double[] weights = new double[count];
+        final int[] percentages = new int[count];
+        final double[] probabilities = new double[count];
+        final double[] column_probabilities = new double[count];
+        final int[] aliases = new int[count];
+        for(int i = 0; i < count; i++)
+        {
+            weights[i] = data.getDouble();
+            percentages[i] = data.getInt();
+            probabilities[i] = data.getDouble();
+            column_probabilities[i] = data.getDouble();
+            aliases[i] = data.getInt();
+        }
+
+        final FavorableCase<T>[] items = FavorableCase.new_array(count);
+        for(int i = 0; i < count; i++)
+        {
+            if(data.remaining() < 4)
+                throw new IOException("La table des noms est tronquée.");
+            final int length = data.getInt();
+            if(length <= 0 || length > data.remaining())
+                throw new IOException("Le nom de l'item N°" + i + " est tronqué.");
+            final byte[] name = new byte[length];
+            data.get(name);
+            final String item_name = new String(name, StandardCharsets.UTF_8);
+            try {
+                items[i] = FavorableCase.restore(item_name, resolver.apply(item_name), percentages[i], weights[i]);
+            } catch (Exception e) {
+                throw new IOException("L'item N°" + i + " (" + item_name + ") est invalide.", e);
+            }
+        }
+        if(data.hasRemaining())
+            throw new IOException(data.remaining() + " octets inattendus suivent la table des noms.");
+
+        try {
+            return new CompiledDistribution<>(items, probabilities, new AliasTable(column_probabilities, aliases));
+        } catch (RuntimeException e) {
+            throw new IOException("La table d'alias est invalide.", e);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Distribution dont les poids dépendent d'un contexte (niveau du joueur, région, bonus de chance...).
+ * Chaque item est associé à une fonction qui calcule son poids à partir du contexte:
+ * <pre>
+ *     final{@literal ConditionalDistribution<Integer, String>} loot = new{@literal ConditionalDistribution<Integer, String>}(64)
+ *             .add_item(stick)
+ *             .add_item(sword, level -&gt; level &gt;= 10 ? 5 : 0);
+ *     final{@literal FavorableCase<String>} item = loot.fire_random_item(player_level);
+ * </pre>
+ * <p>
+ * La table compilée pour un contexte est conservée dans un cache de taille bornée: tant qu'un contexte
+ * y figure, ses tirages réutilisent la même table d'alias au lieu de recalculer les poids, sans prendre
+ * aucun verrou. Lorsque le cache est plein, un des contextes utilisés le moins récemment est oublié: la
+ * date d'utilisation n'est mesurée qu'à la précision des compilations (LRU approché), et le cache entier
+ * est parcouru pour trouver ce contexte, ce qui ajoute un coût proportionnel à sa capacité à chaque
+ * compilation. Les contextes servent de clés, ils doivent
+ * donc implémenter {@code equals()} et {@code hashCode()}, et les fonctions de poids ne doivent dépendre
+ * que du contexte.
+ * <p>
+ * La liste des items ne peut plus être modifiée après la première compilation.
+ * Une instance peut être partagée entre plusieurs threads.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <C> Le type des contextes.
+ * @param <T> Le type des items tirés au sort.
+ */
+public final class ConditionalDistribution<C, T> {
+
+    /**
+     * Les items de la distribution.
+     */
+    private final List<FavorableCase<T>> items = new ArrayList<>();
+    /**
+     * La fonction de poids de chaque item.
+     */
+    private final List<ToDoubleFunction<? super C>> weight_functions = new ArrayList<>();
+    /**
+     * Les tables compilées. Elles sont lues sans verrou, mais ajoutées et évincées sous le verrou de l'instance.
+     */
+    private final ConcurrentHashMap<C, CacheEntry<T>> cache = new ConcurrentHashMap<>();
+    /**
+     * Le nombre maximal de contextes conservés.
+     */
+    private final int cache_capacity;
+    /**
+     * L'horloge du cache, avancée à chaque insertion. Chaque accès y date l'entrée utilisée.
+     * Écrite sous le verrou de l'instance seulement.
+     */
+    private volatile long clock;
+    /**
+     * Incrémentée par {@link #invalidate()}: une table compilée avant l'invalidation n'est pas mise en cache.
+     * Écrite sous le verrou de l'instance seulement.
+     */
+    private volatile long generation;
+    /**
+     * {@code true} une fois la première compilation commencée. Protégé par le verrou de l'instance.
+     */
+    private boolean frozen;
+    /**
+     * Le nombre de tirages ayant trouvé leur table dans le cache.
+     */
+    private final LongAdder cache_hits = new LongAdder();
+    /**
+     * Le nombre de tables compilées.
+     */
+    private final LongAdder compilations = new LongAdder();
+
+    /**
+     * Créé une distribution conditionnelle vide.
+     * @param cache_capacity Le nombre maximal de contextes dont la table compilée est conservée.
+     * @throws RuntimeException Si la capacité n'est pas strictement positive.
+     */
+    public ConditionalDistribution(final int cache_capacity)
+    {
+        if(cache_capacity <= 0)
+            throw new RuntimeException("La capacité du cache doit être strictement positive.");
+        this.cache_capacity = cache_capacity;
+    }
+
+    /**
+     * Ajoute un item dont le poids ne dépend pas du contexte.
+     * @param item L'item, pondéré par son poids.
+     * @return La distribution, pour enchaîner les appels.
+     */
+    public ConditionalDistribution<C, T> add_item(FavorableCase<T> item)
+    {
+        if(item == null)
+            throw new RuntimeException("La référence item est nulle.");
+        final double weight = item.get_weight();
+        return add_item(item, context -> weight);
+    }
+
+    /**
+     * Ajoute un item dont le poids est calculé à partir du contexte.
+     * @param item L'item.
+     * @param weight_function Calcule le poids de l'item pour un contexte donné. Un poids nul rend l'item
+     *                        impossible à tirer dans ce contexte.
+     * @return La distribution, pour enchaîner les appels.
+     */
+    public synchronized ConditionalDistribution<C, T> add_item(FavorableCase<T> item, ToDoubleFunction<? super C> weight_function)
+    {
+        if(item == null)
+            throw new RuntimeException("La référence item est nulle.");
+        if(weight_function == null)
+            throw new RuntimeException("La référence weight_function est nulle.");
+        if(frozen)
+            throw new RuntimeException("La distribution a déjà été compilée, elle ne peut plus être modifiée.");
+        items.add(item);
+        weight_functions.add(weight_function);
+        return this;
+    }
+
+    /**
+     * Tire au sort un item dans le contexte donné, avec le générateur du thread appelant.
+     * @param context Le contexte.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(C context)
+    {
+        return compile(context).fire_random_item();
+    }
+
+    /**
+     * Tire au sort un item dans le contexte donné, avec le générateur fourni.
+     * @param context Le contexte.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(C context, RandomSource random)
+    {
+        return compile(context).fire_random_item(random);
+    }
+
+    /**
+     * Renvoie la table compilée pour le contexte donné, en la compilant si elle ne figure pas dans le cache.
+     * @param context Le contexte.
+     * @return La distribution compilée.
+     * @throws RuntimeException Si le contexte est nul, si la distribution est vide ou si les poids calculés
+     * ne forment pas une distribution valide.
+     */
+    public CompiledDistribution<T> compile(C context)
+    {
+        if(context == null)
+            throw new RuntimeException("La référence context est nulle.");
+        final CacheEntry<T> cached = cache.get(context);
+        if(cached != null)
+        {
+            // Utilisée après la dernière insertion, l'entrée est plus récente que celle-ci.
+            cached.last_access = clock + 1;
+            cache_hits.increment();
+            return cached.distribution;
+        }
+        final FavorableCase<T>[] snapshot_items;
+        final Object[] snapshot_functions;
+        final long compiled_generation;
+        synchronized(this)
+        {
+            if(items.isEmpty())
+                throw new RuntimeException("La distribution est vide.");
+            frozen = true;
+            compiled_generation = generation;
+            compilations.increment();
+            snapshot_items = items.toArray(FavorableCase.<T>new_array(items.size()));
+            snapshot_functions = weight_functions.toArray();
+        }
+
+        // Les poids sont calculés hors du verrou: une compilation lente ne bloque pas les autres contextes.
+        final double[] weights = new double[snapshot_items.length];
+        for(int i = 0; i < weights.length; i++)
+        {
+            @SuppressWarnings("unchecked")
+            final ToDoubleFunction<? super C> weight_function = (ToDoubleFunction<? super C>) snapshot_functions[i];
+            weights[i] = weight_function.applyAsDouble(context);
+            if(!(weights[i] >= 0) || Double.isInfinite(weights[i]))
+                throw new RuntimeException("Le poids de l'item N°" + i + " est négatif ou invalide (" + weights[i]
+                        + ") dans le contexte " + context + ".");
+        }
+        final CompiledDistribution<T> distribution = new CompiledDistribution<>(Arrays.asList(snapshot_items), weights);
+        synchronized(this)
+        {
+            // Un autre thread a pu compiler le même contexte entre-temps: sa table est conservée.
+            final CacheEntry<T> concurrent = cache.get(context);
+            if(concurrent != null)
+                return concurrent.distribution;
+            // Le cache a été invalidé pendant la compilation: la table est peut-être déjà périmée.
+            if(generation != compiled_generation)
+                return distribution;
+            final long now = ++clock;
+            cache.put(context, new CacheEntry<>(distribution, now));
+            if(cache.size() > cache_capacity)
+                evict_eldest(context);
+        }
+        return distribution;
+    }
+
+    /**
+     * Oublie le contexte utilisé le moins récemment, en parcourant tout le cache.
+     * Appelée sous le verrou de l'instance.
+     * @param inserted Le contexte qui vient d'être ajouté, jamais oublié.
+     */
+    private void evict_eldest(C inserted)
+    {
+        C eldest = null;
+        long eldest_access = Long.MAX_VALUE;
+        for(Map.Entry<C, CacheEntry<T>> entry : cache.entrySet())
+        {
+            if(entry.getValue().last_access < eldest_access && !entry.getKey().equals(inserted))
+            {
+                eldest = entry.getKey();
+                eldest_access = entry.getValue().last_access;
+            }
+        }
+        if(eldest != null)
+            cache.remove(eldest);
+    }
+
+    /**
+     * Oublie toutes les tables compilées, par exemple si les fonctions de poids dépendent d'une
+     * configuration qui vient d'être rechargée. Les compilations en cours ne mettent pas leur table en cache.
+     */
+    public synchronized void invalidate()
+    {
+        generation++;
+        cache.clear();
+    }
+
+    /**
+     * Renvoie le nombre de contextes dont la table compilée est en cache.
+     * @return Le nombre de contextes.
+     */
+    public int get_cache_size()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Renvoie le nombre de demandes ayant trouvé leur table dans le cache.
+     * @return Le nombre de succès du cache.
+     */
+    public long get_cache_hits()
+    {
+        return cache_hits.sum();
+    }
+
+    /**
+     * Renvoie le nombre de tables compilées depuis la création de la distribution.
+     * @return Le nombre de compilations.
+     */
+    public long get_compilations()
+    {
+        return compilations.sum();
+    }
+
+    /**
+     * Une table compilée du cache.
+     * @param <T> Le type des items.
+     */
+    private static final class CacheEntry<T> {
+
+        /**
+         * La table compilée.
+         */
+        private final CompiledDistribution<T> distribution;
+        /**
+         * L'horloge du cache lors du dernier accès.
+         */
+        private volatile long last_access;
+
+        private CacheEntry(CompiledDistribution<T> distribution, long last_access)
+        {
+            this.distribution = distribution;
+            this.last_access = last_access;
+        }
+    }
+}
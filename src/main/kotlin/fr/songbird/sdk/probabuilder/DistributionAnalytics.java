@@ -0,0 +1,560 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Analyse d'une distribution dont les issues sont des nombres: moments, fonction de répartition,
+ * quantiles et loi de la somme de plusieurs tirages indépendants.
+ * <p>
+ * Les issues sont triées et rangées, avec leurs probabilités, dans des tableaux primitifs: tous les
+ * calculs sont de simples boucles sur ces tableaux, sans le moindre objet intermédiaire.
+ * <pre>
+ *     final DistributionAnalytics roll = DistributionAnalytics.of(die);
+ *     final double mean = roll.get_mean();
+ *     // La loi de la somme de 10 lancers.
+ *     final DistributionAnalytics ten_rolls = roll.sum_of(10);
+ *     final double p = 1 - ten_rolls.get_cdf(50);
+ * </pre>
+ * <p>
+ * La somme de plusieurs tirages n'est calculée que pour des issues entières: la loi de la somme est
+ * alors la convolution des lois des tirages, calculée directement pour les petits supports et par
+ * transformée de Fourier rapide (FFT) au-delà de {@value #DIRECT_CONVOLUTION_LIMIT} produits. Dans ce cas,
+ * les probabilités inférieures à 10<sup>-14</sup>, du même ordre que les erreurs d'arrondi, sont ignorées.
+ * Une instance est immuable.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class DistributionAnalytics {
+
+    /**
+     * Au-delà de ce nombre de produits (taille d'un support multipliée par la taille de l'autre),
+     * une convolution est calculée par FFT.
+     */
+    static final int DIRECT_CONVOLUTION_LIMIT = 1 << 14;
+    /**
+     * En dessous de cette probabilité, le résultat d'une convolution par FFT est considéré
+     * comme du bruit d'arrondi et ramené à zéro.
+     */
+    private static final double FFT_NOISE = 1e-14;
+    /**
+     * La taille maximale du support d'une convolution.
+     */
+    private static final int MAX_CONVOLUTION_SUPPORT = 1 << 26;
+
+    /**
+     * Les issues distinctes, par ordre croissant.
+     */
+    private final double[] values;
+    /**
+     * La probabilité de chaque issue.
+     */
+    private final double[] probabilities;
+    /**
+     * La probabilité cumulée jusqu'à chaque issue incluse.
+     */
+    private final double[] cumulative;
+
+    /**
+     * @param values Les issues distinctes, par ordre croissant (conservées telles quelles).
+     * @param probabilities La probabilité de chaque issue, de somme 1 (conservées telles quelles).
+     */
+    private DistributionAnalytics(double[] values, double[] probabilities)
+    {
+        this.values = values;
+        this.probabilities = probabilities;
+        this.cumulative = new double[probabilities.length];
+        double sum = 0;
+        for(int i = 0; i < probabilities.length; i++)
+        {
+            sum += probabilities[i];
+            cumulative[i] = sum;
+        }
+        // Les erreurs d'arrondi ne doivent pas empêcher d'atteindre le dernier quantile.
+        cumulative[cumulative.length - 1] = 1.0;
+    }
+
+    /**
+     * Analyse une distribution à partir des issues et de leurs poids.
+     * Une même issue peut apparaître plusieurs fois, ses poids s'additionnent alors.
+     * @param values Les issues.
+     * @param weights Le poids de chaque issue, dans le même ordre.
+     * @return L'analyse de la distribution.
+     * @throws RuntimeException Si les tableaux n'ont pas la même taille, si une issue n'est pas un nombre fini
+     * ou si les poids ne forment pas une distribution valide.
+     */
+    public static DistributionAnalytics of(double[] values, double[] weights)
+    {
+        if(values == null || weights == null)
+            throw new RuntimeException("La référence values ou weights est nulle.");
+        if(values.length != weights.length || values.length == 0)
+            throw new RuntimeException("Le nombre de poids ne correspond pas au nombre d'issues, ou il n'y a aucune issue.");
+        double weight_sum = 0;
+        for(int i = 0; i < values.length; i++)
+        {
+            if(Double.isNaN(values[i]) || Double.isInfinite(values[i]))
+                throw new RuntimeException("L'issue N°" + i + " n'est pas un nombre fini (" + values[i] + ").");
+            if(!(weights[i] >= 0) || Double.isInfinite(weights[i]))
+                throw new RuntimeException("Le poids N°" + i + " est négatif ou invalide (" + weights[i] + ").");
+            weight_sum += weights[i];
+        }
+        if(!(weight_sum > 0) || Double.isInfinite(weight_sum))
+            throw new RuntimeException("La somme des poids est nulle ou invalide (" + weight_sum + ").");
+
+        final Integer[] order = new Integer[values.length];
+        for(int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (left, right) -> Double.compare(values[left], values[right]));
+
+        final double[] sorted_values = new double[values.length];
+        final double[] sorted_probabilities = new double[values.length];
+        int size = 0;
+        for(int i : order)
+        {
+            if(weights[i] == 0)
+                continue;
+            if(size > 0 && sorted_values[size - 1] == values[i])
+                sorted_probabilities[size - 1] += weights[i] / weight_sum;
+            else
+            {
+                sorted_values[size] = values[i];
+                sorted_probabilities[size] = weights[i] / weight_sum;
+                size++;
+            }
+        }
+        return new DistributionAnalytics(Arrays.copyOf(sorted_values, size), Arrays.copyOf(sorted_probabilities, size));
+    }
+
+    /**
+     * Analyse une distribution d'entiers.
+     * @param distribution La distribution.
+     * @return L'analyse de la distribution.
+     */
+    public static DistributionAnalytics of(IntDistribution distribution)
+    {
+        final double[] values = new double[distribution.size()];
+        final double[] weights = new double[values.length];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = distribution.get_value(i);
+            weights[i] = distribution.get_probability(i);
+        }
+        return of(values, weights);
+    }
+
+    /**
+     * Analyse une distribution d'entiers longs. Les issues au-delà de 2<sup>53</sup> sont arrondies.
+     * @param distribution La distribution.
+     * @return L'analyse de la distribution.
+     */
+    public static DistributionAnalytics of(LongDistribution distribution)
+    {
+        final double[] values = new double[distribution.size()];
+        final double[] weights = new double[values.length];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = distribution.get_value(i);
+            weights[i] = distribution.get_probability(i);
+        }
+        return of(values, weights);
+    }
+
+    /**
+     * Analyse une distribution de réels.
+     * @param distribution La distribution.
+     * @return L'analyse de la distribution.
+     */
+    public static DistributionAnalytics of(DoubleDistribution distribution)
+    {
+        final double[] values = new double[distribution.size()];
+        final double[] weights = new double[values.length];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = distribution.get_value(i);
+            weights[i] = distribution.get_probability(i);
+        }
+        return of(values, weights);
+    }
+
+    /**
+     * Analyse une distribution d'items en associant une valeur numérique à chaque item
+     * (sa valeur marchande, une quantité...).
+     * @param distribution La distribution.
+     * @param value Calcule la valeur d'un item.
+     * @param <T> Le type des items.
+     * @return L'analyse de la distribution des valeurs.
+     */
+    public static <T> DistributionAnalytics of(CompiledDistribution<T> distribution, ToDoubleFunction<? super T> value)
+    {
+        if(distribution == null || value == null)
+            throw new RuntimeException("La référence distribution ou value est nulle.");
+        final double[] values = new double[distribution.size()];
+        final double[] weights = new double[values.length];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = value.applyAsDouble(distribution.get(i).getItemRef());
+            weights[i] = distribution.get_probability(i);
+        }
+        return of(values, weights);
+    }
+
+    /**
+     * Renvoie l'espérance des issues.
+     * @return L'espérance.
+     */
+    public double get_mean()
+    {
+        return get_moment(1);
+    }
+
+    /**
+     * Renvoie la variance des issues.
+     * @return La variance.
+     */
+    public double get_variance()
+    {
+        final double mean = get_mean();
+        double variance = 0;
+        for(int i = 0; i < values.length; i++)
+        {
+            final double deviation = values[i] - mean;
+            variance += deviation * deviation * probabilities[i];
+        }
+        return variance;
+    }
+
+    /**
+     * Renvoie l'écart type des issues.
+     * @return L'écart type.
+     */
+    public double get_standard_deviation()
+    {
+        return Math.sqrt(get_variance());
+    }
+
+    /**
+     * Renvoie le moment d'ordre {@code k}, c'est-à-dire l'espérance de X<sup>k</sup>.
+     * @param k L'ordre du moment, positif.
+     * @return Le moment.
+     */
+    public double get_moment(int k)
+    {
+        if(k < 0)
+            throw new RuntimeException("L'ordre du moment est négatif.");
+        double moment = 0;
+        for(int i = 0; i < values.length; i++)
+        {
+            double power = 1;
+            for(int j = 0; j < k; j++)
+                power *= values[i];
+            moment += power * probabilities[i];
+        }
+        return moment;
+    }
+
+    /**
+     * Renvoie la fonction de répartition: la probabilité que l'issue soit inférieure ou égale à {@code x}.
+     * @param x La borne.
+     * @return La probabilité, comprise entre 0 et 1.
+     */
+    public double get_cdf(double x)
+    {
+        int low = 0;
+        int high = values.length;
+        // Recherche du nombre d'issues inférieures ou égales à x.
+        while(low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if(values[middle] <= x)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low == 0 ? 0 : cumulative[low - 1];
+    }
+
+    /**
+     * Renvoie le quantile d'ordre {@code q}: la plus petite issue dont la probabilité cumulée atteint {@code q}.
+     * @param q L'ordre du quantile, compris entre 0 et 1 (0.5 pour la médiane).
+     * @return Le quantile.
+     */
+    public double get_quantile(double q)
+    {
+        if(!(q >= 0 && q <= 1))
+            throw new RuntimeException("L'ordre du quantile doit être compris entre 0 et 1 (" + q + ").");
+        int low = 0;
+        int high = values.length - 1;
+        while(low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if(cumulative[middle] >= q)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        return values[low];
+    }
+
+    /**
+     * Renvoie le nombre d'issues distinctes de probabilité non nulle.
+     * @return Le nombre d'issues.
+     */
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * Renvoie l'issue de rang donné, les issues étant triées par ordre croissant.
+     * @param index Le rang de l'issue.
+     * @return L'issue.
+     */
+    public double get_value(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Renvoie la probabilité de l'issue de rang donné.
+     * @param index Le rang de l'issue.
+     * @return La probabilité.
+     */
+    public double get_probability(int index)
+    {
+        return probabilities[index];
+    }
+
+    /**
+     * Calcule la loi de la somme de cette issue et d'une issue indépendante tirée selon l'autre distribution.
+     * @param other L'autre distribution.
+     * @return La loi de la somme.
+     * @throws RuntimeException Si l'une des distributions a des issues non entières, ou si le support
+     * de la somme est trop grand.
+     */
+    public DistributionAnalytics convolve(DistributionAnalytics other)
+    {
+        if(other == null)
+            throw new RuntimeException("La référence other est nulle.");
+        final long offset = (long) values[0] + (long) other.values[0];
+        return from_lattice(offset, convolve(to_lattice(), other.to_lattice()));
+    }
+
+    /**
+     * Calcule la loi de la somme de {@code n} tirages indépendants, par exemple de 10 lancers d'un dé.
+     * La loi est obtenue par exponentiation rapide: O(log n) convolutions.
+     * @param n Le nombre de tirages, strictement positif.
+     * @return La loi de la somme.
+     * @throws RuntimeException Si les issues ne sont pas entières, ou si le support de la somme est trop grand.
+     */
+    public DistributionAnalytics sum_of(int n)
+    {
+        if(n <= 0)
+            throw new RuntimeException("Le nombre de tirages doit être strictement positif.");
+        final double[] base_lattice = to_lattice();
+        if((long) (base_lattice.length - 1) * n + 1 > MAX_CONVOLUTION_SUPPORT)
+            throw new RuntimeException("Le support de la somme est trop grand (" + ((long) (base_lattice.length - 1) * n + 1) + " issues).");
+        double[] result = null;
+        double[] power = base_lattice;
+        for(int remaining = n; remaining > 0; remaining >>>= 1)
+        {
+            if((remaining & 1) != 0)
+                result = result == null ? power : convolve(result, power);
+            if(remaining > 1)
+                power = convolve(power, power);
+        }
+        return from_lattice((long) values[0] * n, result);
+    }
+
+    /**
+     * Range les probabilités sur la grille des entiers allant de la plus petite à la plus grande issue.
+     * @return Les probabilités, la case {@code i} correspondant à l'issue {@code values[0] + i}.
+     */
+    private double[] to_lattice()
+    {
+        final double min = values[0];
+        final double max = values[values.length - 1];
+        for(double value : values)
+            if(value != Math.rint(value) || Math.abs(value) > (1L << 53))
+                throw new RuntimeException("L'issue " + value + " n'est pas entière, la somme de tirages ne peut pas être calculée.");
+        if(max - min + 1 > MAX_CONVOLUTION_SUPPORT)
+            throw new RuntimeException("Le support de la distribution est trop grand (" + (max - min + 1) + " issues).");
+        final double[] lattice = new double[(int) (max - min) + 1];
+        for(int i = 0; i < values.length; i++)
+            lattice[(int) (values[i] - min)] = probabilities[i];
+        return lattice;
+    }
+
+    /**
+     * Construit l'analyse d'une distribution rangée sur une grille d'entiers, en ignorant les issues impossibles.
+     * @param offset L'issue correspondant à la première case.
+     * @param lattice Les probabilités.
+     * @return L'analyse de la distribution.
+     */
+    private static DistributionAnalytics from_lattice(long offset, double[] lattice)
+    {
+        int size = 0;
+        double sum = 0;
+        for(double probability : lattice)
+        {
+            if(probability > 0)
+            {
+                size++;
+                sum += probability;
+            }
+        }
+        final double[] values = new double[size];
+        final double[] probabilities = new double[size];
+        for(int i = 0, j = 0; i < lattice.length; i++)
+        {
+            if(lattice[i] > 0)
+            {
+                values[j] = offset + i;
+                probabilities[j] = lattice[i] / sum;
+                j++;
+            }
+        }
+        return new DistributionAnalytics(values, probabilities);
+    }
+
+    /**
+     * Calcule la convolution de deux suites, directement ou par FFT selon leur taille.
+     * @param left La première suite.
+     * @param right La seconde suite.
+     * @return La convolution, de taille {@code left.length + right.length - 1}.
+     */
+    static double[] convolve(double[] left, double[] right)
+    {
+        final int size = left.length + right.length - 1;
+        if(size > MAX_CONVOLUTION_SUPPORT)
+            throw new RuntimeException("Le support de la convolution est trop grand (" + size + " issues).");
+        final double[] result;
+        if((long) left.length * right.length <= DIRECT_CONVOLUTION_LIMIT)
+        {
+            result = new double[size];
+            for(int i = 0; i < left.length; i++)
+            {
+                final double factor = left[i];
+                if(factor == 0)
+                    continue;
+                for(int j = 0; j < right.length; j++)
+                    result[i + j] += factor * right[j];
+            }
+            return result;
+        }
+
+        final int length = Integer.highestOneBit(size - 1) << 1;
+        // Les deux suites réelles sont transformées ensemble: l'une en partie réelle, l'autre en partie imaginaire.
+        final double[] real = Arrays.copyOf(left, length);
+        final double[] imaginary = Arrays.copyOf(right, length);
+        fft(real, imaginary, false);
+        // Si Z = FFT(a + ib), alors FFT(a)·FFT(b) = (Z[k]² - conj(Z[n-k])²) / 4i.
+        final double[] product_real = new double[length];
+        final double[] product_imaginary = new double[length];
+        for(int k = 0; k < length; k++)
+        {
+            final int mirror = (length - k) & (length - 1);
+            final double zr = real[k];
+            final double zi = imaginary[k];
+            final double mr = real[mirror];
+            final double mi = -imaginary[mirror];
+            // Z[k]² - conj(Z[n-k])²
+            final double dr = (zr * zr - zi * zi) - (mr * mr - mi * mi);
+            final double di = 2 * zr * zi - 2 * mr * mi;
+            // Division par 4i.
+            product_real[k] = di / 4;
+            product_imaginary[k] = -dr / 4;
+        }
+        fft(product_real, product_imaginary, true);
+        result = Arrays.copyOf(product_real, size);
+        for(int i = 0; i < size; i++)
+            if(result[i] < FFT_NOISE)
+                result[i] = 0;
+        return result;
+    }
+
+    /**
+     * Transformée de Fourier rapide itérative (radix 2), en place.
+     * @param real La partie réelle, de taille puissance de deux.
+     * @param imaginary La partie imaginaire, de même taille.
+     * @param inverse {@code true} pour la transformée inverse (normalisée).
+     */
+    private static void fft(double[] real, double[] imaginary, boolean inverse)
+    {
+        final int n = real.length;
+        for(int i = 1, j = 0; i < n; i++)
+        {
+            int bit = n >>> 1;
+            for(; (j & bit) != 0; bit >>>= 1)
+                j ^= bit;
+            j ^= bit;
+            if(i < j)
+            {
+                double swap = real[i];
+                real[i] = real[j];
+                real[j] = swap;
+                swap = imaginary[i];
+                imaginary[i] = imaginary[j];
+                imaginary[j] = swap;
+            }
+        }
+        // Les racines de l'unité sont calculées une fois pour toutes, sans accumuler d'erreurs d'arrondi.
+        final double[] cosines = new double[n >>> 1];
+        final double[] sines = new double[n >>> 1];
+        for(int k = 0; k < cosines.length; k++)
+        {
+            final double angle = 2 * Math.PI * k / n;
+            cosines[k] = Math.cos(angle);
+            sines[k] = inverse ? Math.sin(angle) : -Math.sin(angle);
+        }
+        for(int length = 2; length <= n; length <<= 1)
+        {
+            final int half = length >>> 1;
+            final int stride = n / length;
+            for(int start = 0; start < n; start += length)
+            {
+                for(int k = 0; k < half; k++)
+                {
+                    final double w_real = cosines[k * stride];
+                    final double w_imaginary = sines[k * stride];
+                    final int even = start + k;
+                    final int odd = even + half;
+                    final double odd_real = real[odd] * w_real - imaginary[odd] * w_imaginary;
+                    final double odd_imaginary = real[odd] * w_imaginary + imaginary[odd] * w_real;
+                    real[odd] = real[even] - odd_real;
+                    imaginary[odd] = imaginary[even] - odd_imaginary;
+                    real[even] += odd_real;
+                    imaginary[even] += odd_imaginary;
+                }
+            }
+        }
+        if(inverse)
+        {
+            for(int i = 0; i < n; i++)
+            {
+                real[i] /= n;
+                imaginary[i] /= n;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+/**
+ * Reçoit chaque tirage effectué par un {@link ProbabilityManager}, pour compter les tirages,
+ * mesurer leur durée ou vérifier que les fréquences observées correspondent aux poids configurés.
+ * <p>
+ * Par défaut, un gestionnaire utilise {@link #none()}, qui ignore tout: le chemin d'un tirage
+ * non instrumenté ne lit pas l'horloge et n'alloue rien.
+ * Une implémentation est appelée depuis tous les threads qui tirent au sort, elle doit donc être thread-safe.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @see DrawStatistics
+ * @see ProbabilityManager#set_metrics(DrawMetrics)
+ */
+public interface DrawMetrics {
+
+    /**
+     * Indique si le gestionnaire doit mesurer la durée de chaque tirage.
+     * @return {@code true} pour recevoir la durée des tirages, sinon {@code false}.
+     */
+    boolean is_timed();
+
+    /**
+     * Enregistre un tirage.
+     * @param index L'indice de l'item tiré au sort, dans la distribution compilée.
+     * @param latency_nanos La durée du tirage en nanosecondes, 0 si {@link #is_timed()} renvoie {@code false}.
+     */
+    void record(int index, long latency_nanos);
+
+    /**
+     * Renvoie l'instrumentation qui ignore tous les tirages.
+     * @return L'instrumentation partagée.
+     */
+    static DrawMetrics none()
+    {
+        return NoDrawMetrics.INSTANCE;
+    }
+}
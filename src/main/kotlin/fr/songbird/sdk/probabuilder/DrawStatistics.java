@@ -0,0 +1,340 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation comptant les tirages de chaque item et, si demandé, la durée des tirages.
+ * <p>
+ * Chaque compteur est un {@link LongAdder}: les threads qui tirent au sort en même temps incrémentent
+ * des cellules distinctes au lieu de se disputer une même variable, et les cellules ne sont additionnées
+ * qu'à la lecture. Les durées sont rangées dans un histogramme à échelle logarithmique, dont la case
+ * {@code b} compte les tirages ayant duré entre 2<sup>b-1</sup> et 2<sup>b</sup> - 1 nanosecondes.
+ * <pre>
+ *     final DrawStatistics statistics = new DrawStatistics(proba_manager.get_compiled().size(), true);
+ *     proba_manager.set_metrics(statistics);
+ *     // ...
+ *     if(statistics.get_drift_p_value(proba_manager.get_compiled()) {@literal <} 0.001)
+ *         LOGGER.warning("Les tirages ne suivent plus les poids configurés.");
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class DrawStatistics implements DrawMetrics {
+
+    /**
+     * Le nombre de cases de l'histogramme des durées, une par puissance de deux.
+     */
+    public static final int LATENCY_BUCKETS = 64;
+
+    /**
+     * Le nombre de tirages de chaque item.
+     */
+    private final LongAdder[] hits;
+    /**
+     * L'histogramme des durées, vide si les durées ne sont pas mesurées.
+     */
+    private final LongAdder[] latencies;
+    /**
+     * Les tirages dont l'indice dépasse le nombre d'items suivis.
+     */
+    private final LongAdder ignored = new LongAdder();
+    /**
+     * Indique si la durée des tirages est mesurée.
+     */
+    private final boolean timed;
+
+    /**
+     * Créé une instrumentation qui compte les tirages sans mesurer leur durée.
+     * @param item_count Le nombre d'items de la distribution observée.
+     */
+    public DrawStatistics(int item_count)
+    {
+        this(item_count, false);
+    }
+
+    /**
+     * Créé une instrumentation.
+     * @param item_count Le nombre d'items de la distribution observée. Les tirages d'indices supérieurs
+     *                   (après une recompilation qui aurait ajouté des items) sont comptés à part.
+     * @param timed {@code true} pour mesurer la durée de chaque tirage.
+     * @throws RuntimeException Si le nombre d'items n'est pas strictement positif.
+     */
+    public DrawStatistics(int item_count, boolean timed)
+    {
+        if(item_count <= 0)
+            throw new RuntimeException("Le nombre d'items doit être strictement positif.");
+        this.hits = new_adders(item_count);
+        this.latencies = new_adders(timed ? LATENCY_BUCKETS : 0);
+        this.timed = timed;
+    }
+
+    /**
+     * Créé des compteurs remis à zéro.
+     * @param count Le nombre de compteurs.
+     * @return Les compteurs.
+     */
+    private static LongAdder[] new_adders(int count)
+    {
+        final LongAdder[] adders = new LongAdder[count];
+        for(int i = 0; i < count; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    @Override
+    public boolean is_timed()
+    {
+        return timed;
+    }
+
+    @Override
+    public void record(int index, long latency_nanos)
+    {
+        if(index >= 0 && index < hits.length)
+            hits[index].increment();
+        else
+            ignored.increment();
+        if(timed)
+            latencies[LATENCY_BUCKETS - Long.numberOfLeadingZeros(Math.max(latency_nanos, 0))].increment();
+    }
+
+    /**
+     * Remet tous les compteurs à zéro. Les tirages effectués pendant la remise à zéro
+     * peuvent être comptés ou non.
+     */
+    public void reset()
+    {
+        for(LongAdder adder : hits)
+            adder.reset();
+        for(LongAdder adder : latencies)
+            adder.reset();
+        ignored.reset();
+    }
+
+    /**
+     * Renvoie le nombre total de tirages enregistrés.
+     * @return Le nombre de tirages.
+     */
+    public long get_draws()
+    {
+        long draws = ignored.sum();
+        for(LongAdder adder : hits)
+            draws += adder.sum();
+        return draws;
+    }
+
+    /**
+     * Renvoie le nombre de tirages de l'item donné.
+     * @param index L'indice de l'item.
+     * @return Le nombre de tirages.
+     */
+    public long get_hits(int index)
+    {
+        return hits[index].sum();
+    }
+
+    /**
+     * Renvoie le nombre de tirages de chaque item.
+     * @return Un nouveau tableau, indexé comme la distribution.
+     */
+    public long[] get_hit_histogram()
+    {
+        final long[] histogram = new long[hits.length];
+        for(int i = 0; i < histogram.length; i++)
+            histogram[i] = hits[i].sum();
+        return histogram;
+    }
+
+    /**
+     * Renvoie l'histogramme des durées de tirage.
+     * @return Un nouveau tableau de {@link #LATENCY_BUCKETS} cases (vides si les durées ne sont pas mesurées).
+     */
+    public long[] get_latency_histogram()
+    {
+        final long[] histogram = new long[LATENCY_BUCKETS];
+        for(int i = 0; i < latencies.length; i++)
+            histogram[i] = latencies[i].sum();
+        return histogram;
+    }
+
+    /**
+     * Renvoie une borne supérieure du quantile donné des durées de tirage,
+     * à la précision de l'histogramme (une puissance de deux).
+     * @param quantile Le quantile, compris entre 0 et 1 (0.99 pour le 99<sup>e</sup> centile).
+     * @return La borne supérieure en nanosecondes, 0 si aucune durée n'a été mesurée.
+     */
+    public long get_latency_quantile(double quantile)
+    {
+        if(!(quantile >= 0 && quantile <= 1))
+            throw new RuntimeException("Le quantile doit être compris entre 0 et 1 (" + quantile + ").");
+        final long[] histogram = get_latency_histogram();
+        long total = 0;
+        for(long count : histogram)
+            total += count;
+        if(total == 0)
+            return 0;
+        final long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulated = 0;
+        for(int bucket = 0; bucket < LATENCY_BUCKETS; bucket++)
+        {
+            cumulated += histogram[bucket];
+            if(cumulated >= rank)
+                return (1L << bucket) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Calcule la statistique du χ² des tirages enregistrés par rapport aux probabilités de la distribution.
+     * @param expected La distribution dont les tirages sont censés suivre les probabilités.
+     * @return La statistique du χ², infinie si un item de probabilité nulle a été tiré.
+     */
+    public double get_chi_square(CompiledDistribution<?> expected)
+    {
+        check_distribution(expected);
+        final long[] observed = get_hit_histogram();
+        long draws = 0;
+        for(long count : observed)
+            draws += count;
+        double chi_square = 0;
+        for(int i = 0; i < observed.length; i++)
+        {
+            final double expected_count = draws * expected.get_probability(i);
+            if(expected_count == 0)
+            {
+                if(observed[i] > 0)
+                    return Double.POSITIVE_INFINITY;
+                continue;
+            }
+            final double deviation = observed[i] - expected_count;
+            chi_square += deviation * deviation / expected_count;
+        }
+        return chi_square;
+    }
+
+    /**
+     * Teste si les tirages enregistrés s'écartent des probabilités de la distribution (test du χ² d'adéquation).
+     * <p>
+     * La valeur renvoyée est la probabilité d'observer un écart au moins aussi grand si les tirages suivaient
+     * bien la distribution: une valeur très faible (inférieure à 0.001, par exemple) signale une dérive.
+     * Le test n'est fiable que si chaque item possible a été tiré en moyenne au moins cinq fois.
+     * @param expected La distribution dont les tirages sont censés suivre les probabilités.
+     * @return La p-valeur du test, comprise entre 0 et 1.
+     */
+    public double get_drift_p_value(CompiledDistribution<?> expected)
+    {
+        final double chi_square = get_chi_square(expected);
+        int degrees_of_freedom = -1;
+        for(int i = 0; i < hits.length; i++)
+            if(expected.get_probability(i) > 0)
+                degrees_of_freedom++;
+        if(Double.isInfinite(chi_square))
+            return 0;
+        if(degrees_of_freedom <= 0)
+            return 1;
+        return regularized_gamma_q(degrees_of_freedom / 2.0, chi_square / 2.0);
+    }
+
+    /**
+     * Vérifie que la distribution correspond aux compteurs.
+     * @param expected La distribution.
+     */
+    private void check_distribution(CompiledDistribution<?> expected)
+    {
+        if(expected == null)
+            throw new RuntimeException("La référence expected est nulle.");
+        if(expected.size() != hits.length)
+            throw new RuntimeException("La distribution contient " + expected.size() + " items alors que "
+                    + hits.length + " sont suivis.");
+    }
+
+    /**
+     * Calcule la fonction gamma incomplète supérieure régularisée Q(a, x), par son développement en série
+     * si {@code x < a + 1}, par sa fraction continue (méthode de Lentz) sinon.
+     * @param a Le paramètre de forme, strictement positif.
+     * @param x La borne, positive.
+     * @return Q(a, x), compris entre 0 et 1.
+     */
+    static double regularized_gamma_q(double a, double x)
+    {
+        if(x <= 0)
+            return 1;
+        final double log_prefactor = a * Math.log(x) - x - log_gamma(a);
+        if(x < a + 1)
+        {
+            double term = 1 / a;
+            double sum = term;
+            for(int n = 1; n < 1000 && Math.abs(term) > Math.abs(sum) * 1e-15; n++)
+            {
+                term *= x / (a + n);
+                sum += term;
+            }
+            return Math.max(0, 1 - sum * Math.exp(log_prefactor));
+        }
+        final double tiny = 1e-300;
+        double b = x + 1 - a;
+        double c = 1 / tiny;
+        double d = 1 / b;
+        double fraction = d;
+        for(int n = 1; n < 1000; n++)
+        {
+            final double an = -n * (n - a);
+            b += 2;
+            d = an * d + b;
+            if(Math.abs(d) < tiny)
+                d = tiny;
+            c = b + an / c;
+            if(Math.abs(c) < tiny)
+                c = tiny;
+            d = 1 / d;
+            final double delta = d * c;
+            fraction *= delta;
+            if(Math.abs(delta - 1) < 1e-15)
+                break;
+        }
+        return Math.min(1, fraction * Math.exp(log_prefactor));
+    }
+
+    /**
+     * Calcule le logarithme de la fonction gamma (approximation de Lanczos, g = 7).
+     * @param x Un réel strictement positif.
+     * @return ln Γ(x).
+     */
+    static double log_gamma(double x)
+    {
+        if(x < 0.5)
+            return Math.log(Math.PI / Math.sin(Math.PI * x)) - log_gamma(1 - x);
+        final double[] coefficients = {
+                0.99999999999980993, 676.5203681218851, -1259.1392167224028, 771.32342877765313,
+                -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6,
+                1.5056327351493116e-7
+        };
+        x -= 1;
+        double sum = coefficients[0];
+        for(int i = 1; i < coefficients.length; i++)
+            sum += coefficients[i] / (x + i);
+        final double t = x + 7.5;
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+    }
+}
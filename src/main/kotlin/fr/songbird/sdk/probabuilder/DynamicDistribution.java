@@ -0,0 +1,461 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Distribution modifiable à chaud: des items peuvent être ajoutés, retirés ou
+ * voir leur poids modifié sans reconstruire la distribution.
+ * <p>
+ * Les poids sont entiers et rangés dans un arbre de Fenwick, si bien que chaque
+ * modification comme chaque tirage au sort coûte {@code O(log n)}, même avec des centaines
+ * de milliers d'items. Les tirages peuvent être effectués depuis plusieurs threads en même temps;
+ * les modifications, elles, sont sérialisées entre elles et avec les tirages.
+ * <pre>
+ *     final{@literal DynamicDistribution<String>} drops = new{@literal DynamicDistribution<>}();
+ *     final int common = drops.add(new{@literal FavorableCase<>}("common", "sword", 90), 90);
+ *     final int rare = drops.add(new{@literal FavorableCase<>}("rare", "shield", 10), 10);
+ *     drops.reweight(rare, 20); // événement: le bouclier tombe deux fois plus souvent
+ * </pre>
+ * <p>
+ * L'indice renvoyé par {@link #add(FavorableCase, long)} identifie l'item tant qu'il n'a pas été retiré;
+ * il peut ensuite être réattribué à un nouvel item.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <T> Le type des items tirés au sort.
+ */
+public final class DynamicDistribution<T> {
+
+    /**
+     * Capacité initiale par défaut.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Verrou protégeant l'arbre: lecture pour les tirages, écriture pour les modifications.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Les items, {@code null} pour un emplacement libre.
+     */
+    private FavorableCase<T>[] items;
+    /**
+     * Le poids de chaque emplacement.
+     */
+    private long[] weights;
+    /**
+     * L'arbre de Fenwick (indexé à partir de 1) des poids.
+     */
+    private long[] tree;
+    /**
+     * La pile des emplacements libérés, réutilisés en priorité.
+     */
+    private int[] free_slots;
+    /**
+     * Le nombre d'emplacements libérés.
+     */
+    private int free_slot_count;
+    /**
+     * Le nombre d'emplacements déjà utilisés au moins une fois.
+     */
+    private int used_slots;
+    /**
+     * Le nombre d'items présents.
+     */
+    private int size;
+    /**
+     * La somme des poids.
+     */
+    private long total_weight;
+
+    /**
+     * Créé une distribution vide.
+     */
+    public DynamicDistribution()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Créé une distribution vide, dimensionnée pour le nombre d'items attendu.
+     * @param capacity Le nombre d'items attendu. La distribution s'agrandit au besoin.
+     */
+    public DynamicDistribution(int capacity)
+    {
+        if(capacity <= 0)
+            throw new RuntimeException("La capacité doit être strictement positive.");
+        this.items = FavorableCase.new_array(capacity);
+        this.weights = new long[capacity];
+        this.tree = new long[capacity + 1];
+        this.free_slots = new int[capacity];
+    }
+
+    /**
+     * Créé une distribution à partir d'une liste d'items, chacun pesant
+     * son poids (son pourcentage de cas favorables pour un item exprimé en pourcentage).
+     * L'item N°{@code i} de la liste obtient l'indice {@code i}.
+     * @param fav_case La liste des items.
+     * @throws RuntimeException Si l'un des items est nul ou a un poids non entier ou négatif,
+     * ou si la somme des poids dépasse {@link Long#MAX_VALUE}.
+     */
+    public DynamicDistribution(List<FavorableCase<T>> fav_case)
+    {
+        this(capacity_of(fav_case));
+        for(int i = 0; i < fav_case.size(); i++)
+        {
+            final FavorableCase<T> favorableCase = fav_case.get(i);
+            if(favorableCase == null)
+                throw new RuntimeException("L'item N°" + i + " est nul.");
+            items[i] = favorableCase;
+            final double weight = favorableCase.get_weight();
+            if(weight != Math.rint(weight) || weight >= Long.MAX_VALUE)
+                throw new RuntimeException("L'item N°" + i + " a un poids non entier (" + weight + ").");
+            weights[i] = (long) weight;
+            check_weight(weights[i]);
+            try
+            {
+                total_weight = Math.addExact(total_weight, weights[i]);
+            }catch(ArithmeticException overflow)
+            {
+                throw new RuntimeException("La somme des poids dépasse " + Long.MAX_VALUE + ".");
+            }
+        }
+        used_slots = fav_case.size();
+        size = fav_case.size();
+        rebuild_tree();
+    }
+
+    /**
+     * Ajoute un item à la distribution.
+     * @param item L'item.
+     * @param weight Le poids de l'item, relatif aux poids des autres items.
+     * @return L'indice attribué à l'item.
+     */
+    public int add(FavorableCase<T> item, long weight)
+    {
+        if(item == null)
+            throw new RuntimeException("La référence item est nulle.");
+        check_weight(weight);
+        lock.writeLock().lock();
+        try
+        {
+            // Vérifié avant de réserver un emplacement: un échec ne laisse aucun item fantôme.
+            checked_total_weight(weight);
+            final int index;
+            if(free_slot_count > 0)
+                index = free_slots[--free_slot_count];
+            else
+            {
+                if(used_slots == items.length)
+                    grow();
+                index = used_slots++;
+            }
+            items[index] = item;
+            size++;
+            update(index, weight);
+            return index;
+        }finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire l'item se trouvant à l'indice donné. Son indice pourra être réattribué.
+     * @param index L'indice de l'item.
+     * @return L'item retiré.
+     */
+    public FavorableCase<T> remove(int index)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            check_index(index);
+            final FavorableCase<T> removed = items[index];
+            update(index, 0);
+            items[index] = null;
+            free_slots[free_slot_count++] = index;
+            size--;
+            return removed;
+        }finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modifie le poids de l'item se trouvant à l'indice donné.
+     * Un poids nul conserve l'item dans la distribution sans qu'il puisse être tiré.
+     * @param index L'indice de l'item.
+     * @param weight Le nouveau poids.
+     */
+    public void reweight(int index, long weight)
+    {
+        check_weight(weight);
+        lock.writeLock().lock();
+        try
+        {
+            check_index(index);
+            update(index, weight);
+        }finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tire au sort un item avec le générateur du thread appelant.
+     * @return L'item tiré au sort.
+     * @throws RuntimeException Si la somme des poids est nulle.
+     */
+    public FavorableCase<T> fire_random_item()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return items[find(RandomSource.thread_local().next_long(checked_total_weight()))];
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tire au sort l'indice d'un item avec le générateur fourni.
+     * @param random Le générateur à utiliser.
+     * @return L'indice de l'item tiré au sort.
+     * @throws RuntimeException Si la somme des poids est nulle.
+     */
+    public int fire_random_index(RandomSource random)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return find(random.next_long(checked_total_weight()));
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renvoie l'item se trouvant à l'indice donné.
+     * @param index L'indice de l'item.
+     * @return L'item, ou {@code null} si l'emplacement est libre.
+     */
+    public FavorableCase<T> get(int index)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return index >= 0 && index < used_slots ? items[index] : null;
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renvoie le poids de l'item se trouvant à l'indice donné.
+     * @param index L'indice de l'item.
+     * @return Le poids de l'item, 0 si l'emplacement est libre.
+     */
+    public long get_weight(int index)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return index >= 0 && index < used_slots ? weights[index] : 0;
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renvoie la somme des poids de tous les items.
+     * @return La somme des poids.
+     */
+    public long get_total_weight()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return total_weight;
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renvoie le nombre d'items présents dans la distribution.
+     * @return Le nombre d'items.
+     */
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return size;
+        }finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Modifie le poids d'un emplacement et propage la différence dans l'arbre.
+     * @param index L'indice de l'emplacement.
+     * @param weight Le nouveau poids.
+     */
+    private void update(int index, long weight)
+    {
+        final long delta = weight - weights[index];
+        if(delta == 0)
+            return;
+        final long new_total_weight = checked_total_weight(delta);
+        weights[index] = weight;
+        total_weight = new_total_weight;
+        for(int i = index + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+    /**
+     * Recherche l'emplacement dont l'intervalle de poids cumulés contient la valeur donnée.
+     * @param target Une valeur comprise dans {@code [0, total_weight)}.
+     * @return L'indice de l'emplacement.
+     */
+    private int find(long target)
+    {
+        final long[] tree = this.tree;
+        final int capacity = tree.length - 1;
+        int position = 0;
+        long remaining = target;
+        for(int step = Integer.highestOneBit(capacity); step > 0; step >>= 1)
+        {
+            final int next = position + step;
+            if(next <= capacity && tree[next] <= remaining)
+            {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Double la capacité de la distribution et reconstruit l'arbre.
+     */
+    private void grow()
+    {
+        final int capacity = items.length * 2;
+        final FavorableCase<T>[] new_items = FavorableCase.new_array(capacity);
+        System.arraycopy(items, 0, new_items, 0, items.length);
+        final int[] new_free_slots = new int[capacity];
+        System.arraycopy(free_slots, 0, new_free_slots, 0, free_slot_count);
+        items = new_items;
+        free_slots = new_free_slots;
+        weights = Arrays.copyOf(weights, capacity);
+        tree = new long[capacity + 1];
+        rebuild_tree();
+    }
+
+    /**
+     * Reconstruit l'arbre de Fenwick à partir des poids, en {@code O(n)}.
+     */
+    private void rebuild_tree()
+    {
+        final int capacity = tree.length - 1;
+        for(int i = 1; i <= capacity; i++)
+            tree[i] = weights[i - 1];
+        for(int i = 1; i <= capacity; i++)
+        {
+            final int parent = i + (i & -i);
+            if(parent <= capacity)
+                tree[parent] += tree[i];
+        }
+    }
+
+    /**
+     * Renvoie la somme des poids, après s'être assuré qu'un tirage est possible.
+     * @return La somme des poids.
+     */
+    private long checked_total_weight()
+    {
+        if(total_weight <= 0)
+            throw new RuntimeException("La somme des poids est nulle, aucun item ne peut être tiré au sort.");
+        return total_weight;
+    }
+
+    /**
+     * Renvoie la somme des poids après l'ajout d'une différence, sans la modifier.
+     * @param delta La différence.
+     * @return La nouvelle somme des poids.
+     * @throws RuntimeException Si la somme dépasse {@link Long#MAX_VALUE}.
+     */
+    private long checked_total_weight(long delta)
+    {
+        try
+        {
+            return Math.addExact(total_weight, delta);
+        }catch(ArithmeticException overflow)
+        {
+            throw new RuntimeException("La somme des poids dépasse " + Long.MAX_VALUE + ".");
+        }
+    }
+
+    /**
+     * Vérifie que l'indice désigne un item présent.
+     * @param index L'indice à vérifier.
+     */
+    private void check_index(int index)
+    {
+        if(index < 0 || index >= used_slots || items[index] == null)
+            throw new RuntimeException("Aucun item ne se trouve à l'indice " + index + ".");
+    }
+
+    /**
+     * Renvoie la capacité initiale d'une distribution construite à partir d'une liste.
+     * @param fav_case La liste des items.
+     * @return La capacité nécessaire pour accueillir la liste.
+     */
+    private static int capacity_of(List<?> fav_case)
+    {
+        if(fav_case == null)
+            throw new RuntimeException("La référence fav_case est nulle.");
+        return Math.max(fav_case.size(), 1);
+    }
+
+    /**
+     * Vérifie que le poids est positif ou nul.
+     * @param weight Le poids à vérifier.
+     */
+    private static void check_weight(long weight)
+    {
+        if(weight < 0)
+            throw new RuntimeException("Le poids est négatif.");
+    }
+}
@@ -35,14 +35,25 @@ import java.util.logging.Logger;
  * de la classe {@link ProbabilityManager}.
  */
 public final class FavorableCase<T> {
+    /**
+     * Le plus grand poids entier accepté par {@link #weighted(String, Object, long)}: 2<sup>53</sup>,
+     * au-delà duquel les doubles ne représentent plus tous les entiers.
+     */
+    public static final long MAX_EXACT_WEIGHT = 1L << 53;
     /**
      * Le logger de la classe.
      */
     private static final Logger LOGGER = Logger.getLogger(FavorableCase.class.getSimpleName());
     /**
      * Les chances de l'instance d'être tirée au sort en pourcentage.
+     * Vaut 0 lorsque l'instance a été créée avec un poids brut (voir {@link #weighted(String, Object, double)}).
      */
     private final int favorable_case_percentage;
+    /**
+     * Le poids de l'instance, relatif aux poids des autres items.
+     * Pour un item exprimé en pourcentage, le poids est égal au pourcentage.
+     */
+    private final double weight;
     /**
      * Le label de l'item.
      * Ce label permet au système de probabilités de différencier deux ressources
@@ -79,6 +90,34 @@ public final class FavorableCase<T> {
      * @see ProbabilityManager
      */
     public FavorableCase(String item_name, T item, int favorable_case_percentage) throws Exception {
+        this(item_name, item, checked_percentage(favorable_case_percentage), favorable_case_percentage);
+    }
+
+    /**
+     * Vérifie le pourcentage de cas favorables passé au constructeur.
+     * @param favorable_case_percentage Le pourcentage de cas favorables.
+     * @return Le pourcentage, s'il est valide.
+     * @throws Exception Si le pourcentage est négatif ou nul.
+     */
+    private static int checked_percentage(int favorable_case_percentage) throws Exception {
+        if(favorable_case_percentage < 0)
+            throw new Exception("Le pourcentage de cas favorables est négatif. " +
+                    "\nFixez le problème pour voir l'erreur disparaître.");
+        if(favorable_case_percentage == 0)
+            throw new Exception("Le pourcentage de cas favorables est nul. " +
+                    "\nFixez le problème pour voir l'erreur disparaître.");
+        return favorable_case_percentage;
+    }
+
+    /**
+     * Constructeur commun aux items exprimés en pourcentage et aux items pondérés.
+     * @param item_name Le nom de l'item.
+     * @param item L'instance de l'item lui-même.
+     * @param favorable_case_percentage Le pourcentage de cas favorables, 0 pour un item pondéré.
+     * @param weight Le poids de l'item.
+     * @throws Exception Si les paramètres ne respectent pas les contrats des constructeurs publics.
+     */
+    private FavorableCase(String item_name, T item, int favorable_case_percentage, double weight) throws Exception {
         this.item = item;
         LOGGER.log(Level.FINEST, "Construction de l'item.");
         Boolean is_empty = null;
@@ -91,18 +130,91 @@ public final class FavorableCase<T> {
                 throw new Exception("Vous avez renommé votre item, mais la chaîne de caractères est vide. " +
                         "\nRéglez le problème pour faire disparaître cette erreur.");
             }
-            LOGGER.log(Level.FINEST, "L'item a été renommé " + item_name+ ".");
+            if(LOGGER.isLoggable(Level.FINEST))
+                LOGGER.log(Level.FINEST, "L'item a été renommé " + item_name+ ".");
             this.item_name = item_name;
         }
 
-        if(favorable_case_percentage < 0)
-            throw new Exception("Le pourcentage de cas favorables est négatif. " +
-                    "\nFixez le problème pour voir l'erreur disparaître.");
-        if(favorable_case_percentage == 0)
-            throw new Exception("Le pourcentage de cas favorables est nul. " +
+        if(!(weight > 0) || Double.isInfinite(weight))
+            throw new Exception("Le poids de l'item doit être un nombre strictement positif (" + weight + "). " +
                     "\nFixez le problème pour voir l'erreur disparaître.");
         this.favorable_case_percentage = favorable_case_percentage;
-        LOGGER.log(Level.FINEST, "Aucun problème détecté lors de la construction de l'item " + item_name +".");
+        this.weight = weight;
+        if(LOGGER.isLoggable(Level.FINEST))
+            LOGGER.log(Level.FINEST, "Aucun problème détecté lors de la construction de l'item " + item_name +".");
+    }
+
+    /**
+     * Créé un item dont les chances d'être tiré au sort sont exprimées par un poids entier
+     * plutôt que par un pourcentage. Seule la proportion entre les poids compte:
+     * un item de poids 1 face à un item de poids 9999 sort une fois sur 10000.
+     * <pre>
+     *     final{@literal FavorableCase<String>} rare = FavorableCase.weighted("rare", "legendary sword", 1L);
+     * </pre>
+     * Le poids ne peut pas dépasser {@value #MAX_EXACT_WEIGHT} (2<sup>53</sup>), au-delà duquel
+     * il ne serait plus représenté exactement lors du tirage.
+     * @param item_name Le nom de l'item (voir {@link #FavorableCase(String, Object, int)}).
+     * @param item L'instance de l'item lui-même.
+     * @param weight Le poids de l'item, strictement positif.
+     * @param <V> Le type de l'item.
+     * @return L'item pondéré.
+     * @throws Exception Si les paramètres ne respectent pas les contrats du constructeur.
+     * @throws RuntimeException Si le poids dépasse {@value #MAX_EXACT_WEIGHT}.
+     * @see CompiledDistribution#of(List)
+     */
+    public static <V> FavorableCase<V> weighted(String item_name, V item, long weight) throws Exception {
+        if(weight > MAX_EXACT_WEIGHT)
+            throw new RuntimeException("Le poids de l'item " + item_name + " dépasse " + MAX_EXACT_WEIGHT
+                    + " (" + weight + "), il ne peut pas être représenté exactement.");
+        return new FavorableCase<>(item_name, item, 0, (double) weight);
+    }
+
+    /**
+     * Créé un item dont les chances d'être tiré au sort sont exprimées par un poids réel
+     * plutôt que par un pourcentage, ce qui permet d'exprimer des chances aussi faibles que nécessaire:
+     * <pre>
+     *     final{@literal FavorableCase<String>} rare = FavorableCase.weighted("rare", "legendary sword", 0.01);
+     *     final{@literal FavorableCase<String>} common = FavorableCase.weighted("common", "stick", 99.99);
+     * </pre>
+     * @param item_name Le nom de l'item (voir {@link #FavorableCase(String, Object, int)}).
+     * @param item L'instance de l'item lui-même.
+     * @param weight Le poids de l'item, strictement positif et fini.
+     * @param <V> Le type de l'item.
+     * @return L'item pondéré.
+     * @throws Exception Si les paramètres ne respectent pas les contrats du constructeur.
+     * @see CompiledDistribution#of(List)
+     */
+    public static <V> FavorableCase<V> weighted(String item_name, V item, double weight) throws Exception {
+        return new FavorableCase<>(item_name, item, 0, weight);
+    }
+
+    /**
+     * Recréé un item à partir de ses caractéristiques brutes, telles que relues depuis un fichier.
+     * @param item_name Le nom de l'item.
+     * @param item L'instance de l'item lui-même.
+     * @param favorable_case_percentage Le pourcentage de cas favorables, 0 pour un item pondéré.
+     * @param weight Le poids de l'item.
+     * @param <V> Le type de l'item.
+     * @return L'item.
+     * @throws Exception Si les caractéristiques ne respectent pas les contrats des constructeurs publics.
+     * @see CompiledDistributionCodec
+     */
+    static <V> FavorableCase<V> restore(String item_name, V item, int favorable_case_percentage, double weight) throws Exception {
+        if(favorable_case_percentage != 0)
+            checked_percentage(favorable_case_percentage);
+        return new FavorableCase<>(item_name, item, favorable_case_percentage, weight);
+    }
+
+    /**
+     * Créé un tableau d'items vide. Java ne sait pas créer un tableau de type générique,
+     * le tableau est donc créé brut, puis converti.
+     * @param length La taille du tableau.
+     * @param <V> Le type des items.
+     * @return Le tableau, rempli de {@code null}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <V> FavorableCase<V>[] new_array(int length) {
+        return new FavorableCase[length];
     }
 
     /**
@@ -118,6 +230,8 @@ public final class FavorableCase<T> {
      * @return Le nombre de cas favorables sous sa forme entière.
      */
     public final Integer get_favorable_case_to_int(int potential_case) throws Exception{
+        if(!is_percentage())
+            throw new Exception("L'item est pondéré par un poids brut, il n'occupe aucun cas favorable exprimé en pourcentage.");
         if(potential_case == favorable_case_percentage)
             throw new Exception("Le nombre de cas favorables est équivalent au nombre de cas potentiels." +
                     "\nSi le nombre de cas favorables est équivalent au nombre de cas potentiels " +
@@ -129,6 +243,17 @@ public final class FavorableCase<T> {
         if(potential_case == 1)
             throw new Exception("Le nombre de cas potentiels offre un tirage au sort certain(égal à 1), cette valeur appartient-elle vraiment au système de probabilités ?");
 
+        return favorable_case_count(potential_case);
+    }
+
+    /**
+     * Calcule le nombre de cas favorables dédiés à cet item, sans les vérifications
+     * de {@link #get_favorable_case_to_int(int)}: le gestionnaire de probabilités a déjà validé
+     * le nombre de cas potentiels lors de sa construction.
+     * @param potential_case Le nombre de cas potentiels.
+     * @return Le nombre de cas favorables, 0 pour un item pondéré.
+     */
+    int favorable_case_count(int potential_case) {
         return potential_case * this.favorable_case_percentage/100;
     }
 
@@ -140,7 +265,7 @@ public final class FavorableCase<T> {
      * caractéristiques que l'instance courante.
      */
     public FavorableCase<T> copy() throws Exception{
-        return new FavorableCase<T>(this.item_name, this.item, this.favorable_case_percentage);
+        return new FavorableCase<T>(this.item_name, this.item, this.favorable_case_percentage, this.weight);
     }
 
     /**
@@ -170,6 +295,41 @@ public final class FavorableCase<T> {
         return this.item;
     }
 
+    /**
+     * Renvoie le nom de l'item.
+     * @return Le nom de l'item, {@code null} s'il n'a pas été renommé.
+     */
+    public String get_item_name() {
+        return this.item_name;
+    }
+
+    /**
+     * Renvoie les chances de l'instance d'être tirée au sort, en pourcentage,
+     * telles qu'elles ont été passées au constructeur.
+     * @return Le pourcentage de cas favorables, 0 pour un item pondéré.
+     */
+    public int get_favorable_case_percentage() {
+        return this.favorable_case_percentage;
+    }
+
+    /**
+     * Indique si les chances de l'instance sont exprimées en pourcentage
+     * ou par un poids brut.
+     * @return {@code true} si l'instance a été créée avec un pourcentage, sinon {@code false}.
+     */
+    public boolean is_percentage() {
+        return this.favorable_case_percentage > 0;
+    }
+
+    /**
+     * Renvoie le poids de l'instance, relatif aux poids des autres items.
+     * Pour un item exprimé en pourcentage, le poids est égal au pourcentage.
+     * @return Le poids de l'instance.
+     */
+    public double get_weight() {
+        return this.weight;
+    }
+
     /**
      * Récupère vos objets pour les wrapper dans des instances
      * de la classe {@link FavorableCase}, les préparant ainsi à
@@ -0,0 +1,364 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Table de tirage hiérarchique: chaque entrée est soit un item, soit une sous-table
+ * pondérée, dans laquelle on tire à son tour. Typiquement, on tire d'abord une rareté,
+ * puis un item de cette rareté:
+ * <pre>
+ *     final{@literal HierarchicalDistribution<String>} loot = new{@literal HierarchicalDistribution<String>}()
+ *             .add_table("common", 90, common_table)
+ *             .add_table("legendary", 1, () -&gt; load_legendary_table());
+ *     final{@literal FavorableCase<String>} item = loot.fire_random_item();
+ * </pre>
+ * <p>
+ * La table est compilée lors du premier tirage et ne peut plus être modifiée ensuite.
+ * Si aucune sous-table n'est chargée à la demande (l'arbre est statique), l'arbre entier est aplati
+ * en une seule table d'alias, dont chaque item a pour poids le produit des probabilités le long de son
+ * chemin: un tirage coûte alors autant qu'un tirage dans une table plate. Sinon, chaque niveau est compilé
+ * séparément et chaque sous-table chargée à la demande n'est construite que la première fois qu'un tirage
+ * l'atteint, puis conservée.
+ * <p>
+ * Une instance compilée peut être partagée entre plusieurs threads.
+ * Une table ne doit pas se contenir elle-même.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <T> Le type des items tirés au sort.
+ */
+public final class HierarchicalDistribution<T> {
+
+    /**
+     * Les entrées de la table, des {@link FavorableCase} ou des {@link SubTable}.
+     */
+    private final List<Object> entries = new ArrayList<>();
+    /**
+     * Le poids de chaque entrée.
+     */
+    private final List<Double> weights = new ArrayList<>();
+    /**
+     * La table compilée, {@code null} tant qu'aucun tirage n'a eu lieu.
+     */
+    private volatile Compiled<T> compiled;
+    /**
+     * {@code true} une fois la table aplatie dans la table compilée d'une table parente:
+     * la modifier rendrait le tirage de la parente incohérent. Protégé par le verrou de {@link #entries}.
+     */
+    private boolean frozen;
+
+    /**
+     * Ajoute un item à la table, pondéré par son poids.
+     * @param item L'item.
+     * @return La table, pour enchaîner les appels.
+     */
+    public HierarchicalDistribution<T> add_item(FavorableCase<T> item)
+    {
+        if(item == null)
+            throw new RuntimeException("La référence item est nulle.");
+        return add(item, item.get_weight());
+    }
+
+    /**
+     * Ajoute une sous-table déjà construite.
+     * @param name Le nom de la sous-table, utilisé dans les messages d'erreur.
+     * @param weight Le poids de la sous-table face aux autres entrées.
+     * @param table La sous-table.
+     * @return La table, pour enchaîner les appels.
+     */
+    public HierarchicalDistribution<T> add_table(String name, double weight, HierarchicalDistribution<T> table)
+    {
+        if(table == null)
+            throw new RuntimeException("La référence table est nulle.");
+        return add(new SubTable<>(name, table, null), weight);
+    }
+
+    /**
+     * Ajoute une sous-table construite à la demande, la première fois qu'un tirage l'atteint.
+     * @param name Le nom de la sous-table, utilisé dans les messages d'erreur.
+     * @param weight Le poids de la sous-table face aux autres entrées.
+     * @param table_supplier Le constructeur de la sous-table, appelé au plus une fois.
+     * @return La table, pour enchaîner les appels.
+     */
+    public HierarchicalDistribution<T> add_table(String name, double weight, Supplier<HierarchicalDistribution<T>> table_supplier)
+    {
+        if(table_supplier == null)
+            throw new RuntimeException("La référence table_supplier est nulle.");
+        return add(new SubTable<>(name, null, table_supplier), weight);
+    }
+
+    /**
+     * Tire au sort un item avec le générateur du thread appelant.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item()
+    {
+        return fire_random_item(RandomSource.thread_local());
+    }
+
+    /**
+     * Tire au sort un item avec le générateur fourni.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(RandomSource random)
+    {
+        HierarchicalDistribution<T> table = this;
+        while(true)
+        {
+            final Compiled<T> table_compiled = table.get_compiled();
+            if(table_compiled.flat != null)
+                return table_compiled.flat.fire_random_item(random);
+            final Object entry = table_compiled.entries[table_compiled.alias_table.sample(random)];
+            if(entry instanceof FavorableCase)
+            {
+                @SuppressWarnings("unchecked")
+                final FavorableCase<T> item = (FavorableCase<T>) entry;
+                return item;
+            }
+            @SuppressWarnings("unchecked")
+            final SubTable<T> sub_table = (SubTable<T>) entry;
+            table = sub_table.resolve();
+        }
+    }
+
+    /**
+     * Aplatit l'arbre entier en une seule distribution, en construisant au passage
+     * toutes les sous-tables qui ne l'ont pas encore été.
+     * @return La distribution aplatie.
+     */
+    public CompiledDistribution<T> flatten()
+    {
+        return flatten(false);
+    }
+
+    /**
+     * Aplatit l'arbre entier en une seule distribution.
+     * @param freeze {@code true} pour figer au passage toutes les sous-tables, dont la distribution
+     *               aplatie devient la seule source de tirage.
+     * @return La distribution aplatie.
+     */
+    private CompiledDistribution<T> flatten(boolean freeze)
+    {
+        final List<FavorableCase<T>> items = new ArrayList<>();
+        final List<Double> item_probabilities = new ArrayList<>();
+        collect(1.0, items, item_probabilities, freeze);
+        final double[] probabilities = new double[item_probabilities.size()];
+        for(int i = 0; i < probabilities.length; i++)
+            probabilities[i] = item_probabilities.get(i);
+        return new CompiledDistribution<>(items, probabilities);
+    }
+
+    /**
+     * Indique si l'arbre ne contient que des sous-tables déjà construites.
+     * @return {@code true} si l'arbre est statique.
+     */
+    public boolean is_static()
+    {
+        synchronized(entries)
+        {
+            for(Object entry : entries)
+            {
+                if(entry instanceof SubTable)
+                {
+                    final SubTable<?> sub_table = (SubTable<?>) entry;
+                    if(sub_table.supplier != null || !sub_table.table.is_static())
+                        return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Ajoute une entrée à la table.
+     * @param entry L'entrée.
+     * @param weight Son poids.
+     * @return La table.
+     */
+    private HierarchicalDistribution<T> add(Object entry, double weight)
+    {
+        if(!(weight > 0) || Double.isInfinite(weight))
+            throw new RuntimeException("Le poids de l'entrée doit être un nombre strictement positif (" + weight + ").");
+        synchronized(entries)
+        {
+            if(compiled != null)
+                throw new RuntimeException("La table a déjà servi à un tirage, elle ne peut plus être modifiée.");
+            if(frozen)
+                throw new RuntimeException("La table a été aplatie dans une table parente, elle ne peut plus être modifiée.");
+            entries.add(entry);
+            weights.add(weight);
+        }
+        return this;
+    }
+
+    /**
+     * Renvoie la table compilée, en la compilant lors du premier appel.
+     * @return La table compilée.
+     */
+    private Compiled<T> get_compiled()
+    {
+        Compiled<T> table_compiled = compiled;
+        if(table_compiled == null)
+        {
+            synchronized(entries)
+            {
+                table_compiled = compiled;
+                if(table_compiled == null)
+                {
+                    if(entries.isEmpty())
+                        throw new RuntimeException("La table est vide.");
+                    table_compiled = is_static() ? new Compiled<>(flatten(true)) : new Compiled<>(entries.toArray(), new AliasTable(level_weights()));
+                    compiled = table_compiled;
+                }
+            }
+        }
+        return table_compiled;
+    }
+
+    /**
+     * Renvoie les poids des entrées de ce niveau.
+     * @return Les poids.
+     */
+    private double[] level_weights()
+    {
+        final double[] level_weights = new double[weights.size()];
+        for(int i = 0; i < level_weights.length; i++)
+            level_weights[i] = weights.get(i);
+        return level_weights;
+    }
+
+    /**
+     * Ajoute les items de l'arbre aux listes, avec leur probabilité d'être tirés.
+     * @param probability La probabilité d'atteindre cette table.
+     * @param items Les items collectés.
+     * @param item_probabilities La probabilité de chaque item collecté.
+     * @param freeze {@code true} pour figer les sous-tables parcourues.
+     */
+    @SuppressWarnings("unchecked")
+    private void collect(double probability, List<FavorableCase<T>> items, List<Double> item_probabilities, boolean freeze)
+    {
+        final Object[] level_entries;
+        final double[] level_weights;
+        synchronized(entries)
+        {
+            if(entries.isEmpty())
+                throw new RuntimeException("La table est vide.");
+            level_entries = entries.toArray();
+            level_weights = level_weights();
+            if(freeze)
+                frozen = true;
+        }
+        double weight_sum = 0;
+        for(double weight : level_weights)
+            weight_sum += weight;
+        for(int i = 0; i < level_entries.length; i++)
+        {
+            final double entry_probability = probability * level_weights[i] / weight_sum;
+            if(level_entries[i] instanceof FavorableCase)
+            {
+                items.add((FavorableCase<T>) level_entries[i]);
+                item_probabilities.add(entry_probability);
+            }else
+                ((SubTable<T>) level_entries[i]).resolve().collect(entry_probability, items, item_probabilities, freeze);
+        }
+    }
+
+    /**
+     * Une sous-table, construite à l'avance ou à la demande.
+     * @param <T> Le type des items.
+     */
+    private static final class SubTable<T> {
+
+        /**
+         * Le nom de la sous-table.
+         */
+        private final String name;
+        /**
+         * Le constructeur de la sous-table, {@code null} si elle a été fournie directement.
+         */
+        private final Supplier<HierarchicalDistribution<T>> supplier;
+        /**
+         * La sous-table, {@code null} tant qu'elle n'a pas été construite.
+         */
+        private volatile HierarchicalDistribution<T> table;
+
+        private SubTable(String name, HierarchicalDistribution<T> table, Supplier<HierarchicalDistribution<T>> supplier)
+        {
+            this.name = name;
+            this.table = table;
+            this.supplier = supplier;
+        }
+
+        /**
+         * Renvoie la sous-table, en la construisant lors du premier appel.
+         * @return La sous-table.
+         */
+        private HierarchicalDistribution<T> resolve()
+        {
+            HierarchicalDistribution<T> resolved = table;
+            if(resolved == null)
+            {
+                synchronized(this)
+                {
+                    resolved = table;
+                    if(resolved == null)
+                    {
+                        resolved = supplier.get();
+                        if(resolved == null)
+                            throw new RuntimeException("La sous-table " + name + " n'a pas pu être construite.");
+                        table = resolved;
+                    }
+                }
+            }
+            return resolved;
+        }
+    }
+
+    /**
+     * Une table compilée: soit l'arbre aplati, soit les entrées d'un niveau et leur table d'alias.
+     * @param <T> Le type des items.
+     */
+    private static final class Compiled<T> {
+
+        private final CompiledDistribution<T> flat;
+        private final Object[] entries;
+        private final AliasTable alias_table;
+
+        private Compiled(CompiledDistribution<T> flat)
+        {
+            this.flat = flat;
+            this.entries = null;
+            this.alias_table = null;
+        }
+
+        private Compiled(Object[] entries, AliasTable alias_table)
+        {
+            this.flat = null;
+            this.entries = entries;
+            this.alias_table = alias_table;
+        }
+    }
+}
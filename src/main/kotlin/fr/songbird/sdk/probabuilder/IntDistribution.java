@@ -0,0 +1,144 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+/**
+ * Distribution dont les issues sont des {@code int}, rangés dans un tableau primitif:
+ * contrairement à un {@literal CompiledDistribution<Integer>}, aucun item n'est encapsulé dans un
+ * {@link FavorableCase} et les tirages renvoient directement la valeur, sans boxing.
+ * <pre>
+ *     // Un dé à six faces truqué: le 6 sort deux fois plus souvent.
+ *     final IntDistribution die = new IntDistribution(new int[]{1, 2, 3, 4, 5, 6}, new double[]{1, 1, 1, 1, 1, 2});
+ *     final int roll = die.fire_random_value();
+ * </pre>
+ * <p>
+ * Une instance est immuable et peut être partagée entre plusieurs threads.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class IntDistribution {
+
+    /**
+     * Les issues possibles.
+     */
+    private final int[] values;
+    /**
+     * La probabilité de chaque issue.
+     */
+    private final double[] probabilities;
+    /**
+     * La table d'alias utilisée pour les tirages au sort.
+     */
+    private final AliasTable alias_table;
+
+    /**
+     * Créé une distribution à partir des issues possibles et de leurs poids.
+     * Une même valeur peut apparaître plusieurs fois, ses poids s'additionnent alors.
+     * @param values Les issues possibles, copiées par le constructeur.
+     * @param weights Le poids de chaque issue, dans le même ordre.
+     * @throws RuntimeException Si les tableaux n'ont pas la même taille ou si les poids ne forment pas une distribution valide.
+     */
+    public IntDistribution(int[] values, double[] weights)
+    {
+        if(values == null)
+            throw new RuntimeException("La référence values est nulle.");
+        if(weights == null || weights.length != values.length)
+            throw new RuntimeException("Le nombre de poids ne correspond pas au nombre d'issues.");
+        this.alias_table = new AliasTable(weights);
+        this.values = values.clone();
+        double weight_sum = 0;
+        for(double weight : weights)
+            weight_sum += weight;
+        this.probabilities = new double[weights.length];
+        for(int i = 0; i < weights.length; i++)
+            probabilities[i] = weights[i] / weight_sum;
+    }
+
+    /**
+     * Tire au sort une issue avec le générateur du thread appelant.
+     * @return L'issue tirée au sort.
+     */
+    public int fire_random_value()
+    {
+        return values[alias_table.sample(RandomSource.thread_local())];
+    }
+
+    /**
+     * Tire au sort une issue avec le générateur fourni.
+     * @param random Le générateur à utiliser.
+     * @return L'issue tirée au sort.
+     */
+    public int fire_random_value(RandomSource random)
+    {
+        return values[alias_table.sample(random)];
+    }
+
+    /**
+     * Remplit une portion du tableau avec des issues tirées au sort.
+     * @param destination Le tableau à remplir.
+     * @param offset L'indice de la première case à remplir.
+     * @param length Le nombre de tirages à effectuer.
+     * @param random Le générateur à utiliser.
+     * @throws RuntimeException Si la portion désignée dépasse les bornes du tableau.
+     */
+    public void fire_random_values(int[] destination, int offset, int length, RandomSource random)
+    {
+        if(destination == null)
+            throw new RuntimeException("La référence destination est nulle.");
+        if(offset < 0 || length < 0 || offset > destination.length - length)
+            throw new RuntimeException("La portion [" + offset + ", " + offset + " + " + length + ") dépasse les bornes du tableau"
+                    + " (taille " + destination.length + ").");
+        final int[] values = this.values;
+        final int end = offset + length;
+        for(int i = offset; i < end; i++)
+            destination[i] = values[alias_table.sample(random)];
+    }
+
+    /**
+     * Renvoie le nombre d'issues de la distribution.
+     * @return Le nombre d'issues.
+     */
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * Renvoie l'issue se trouvant à l'indice donné.
+     * @param index L'indice de l'issue.
+     * @return L'issue.
+     */
+    public int get_value(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Renvoie la probabilité de l'issue se trouvant à l'indice donné.
+     * @param index L'indice de l'issue.
+     * @return La probabilité de l'issue, comprise entre 0 et 1.
+     */
+    public double get_probability(int index)
+    {
+        return probabilities[index];
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.Random;
+
+/**
+ * Source de nombres aléatoires déléguant à une instance de {@link Random}.
+ * Elle n'existe que pour réutiliser un générateur existant: {@link Random} synchronise
+ * chaque tirage sur sa graine, les autres implémentations sont nettement plus rapides.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @see RandomSource#of(Random)
+ */
+final class JdkRandomSource implements RandomSource {
+
+    /**
+     * Le générateur sous-jacent.
+     */
+    private final Random random;
+
+    /**
+     * @param random Le générateur sous-jacent.
+     */
+    JdkRandomSource(Random random)
+    {
+        this.random = random;
+    }
+
+    @Override
+    public long next_long()
+    {
+        return random.nextLong();
+    }
+
+    @Override
+    public int next_int(int bound)
+    {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double next_double()
+    {
+        return random.nextDouble();
+    }
+
+    @Override
+    public RandomSource split()
+    {
+        return new JdkRandomSource(new Random(random.nextLong()));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Moteur de simulation de Monte-Carlo répartissant des essais indépendants
+ * sur les threads d'un {@link ForkJoinPool}.
+ * <p>
+ * Un essai ({@link Trial}) renvoie une issue entière comprise entre 0 et {@code outcome_count - 1}
+ * (l'indice de l'item tiré, le nombre de tirages nécessaires pour obtenir un item, une récompense...).
+ * Chaque tâche dispose de son propre générateur, obtenu par {@link RandomSource#split()} à partir du
+ * générateur racine, et de son propre histogramme: les histogrammes ne sont fusionnés qu'une fois
+ * les tâches terminées, sans aucun verrou. Le découpage en tâches ne dépend que du nombre d'essais:
+ * à graine identique, le résultat est identique, quels que soient le pool et l'ordonnancement des threads.
+ * <pre>
+ *     final{@literal CompiledDistribution<String>} drops = ...;
+ *     final MonteCarloSimulation simulation = new MonteCarloSimulation(101,
+ *             MonteCarloSimulation.draws_until(drops, legendary_index, 100));
+ *     final SimulationResult result = simulation.run_until_converged(0.001, 100000000L, new XoroshiroRandomSource(117));
+ *     final double expected_draws = result.get_mean() + 1;
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @see SimulationResult
+ */
+public final class MonteCarloSimulation {
+
+    /**
+     * Un essai de la simulation.
+     */
+    public interface Trial {
+
+        /**
+         * Effectue un essai.
+         * @param random Le générateur propre à la tâche qui exécute l'essai.
+         * @return L'issue de l'essai, comprise entre 0 et {@code outcome_count - 1}.
+         */
+        int run(RandomSource random);
+    }
+
+    /**
+     * Le quantile de la loi normale utilisé pour les intervalles de confiance à 95%.
+     */
+    static final double Z_95 = 1.959963984540054;
+    /**
+     * Le nombre d'essais par tâche, au-delà duquel une série est découpée. Il ne dépend pas du pool,
+     * sans quoi le découpage du générateur, et donc le résultat, changerait avec le nombre de cœurs.
+     */
+    private static final long TRIALS_PER_TASK = 16384;
+    /**
+     * Le nombre d'essais de la première série de {@link #run_until_converged(double, long, RandomSource)}.
+     */
+    private static final long FIRST_ROUND_TRIALS = 16 * TRIALS_PER_TASK;
+
+    /**
+     * Le nombre d'issues possibles.
+     */
+    private final int outcome_count;
+    /**
+     * L'essai à répéter.
+     */
+    private final Trial trial;
+    /**
+     * Le pool exécutant les tâches.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Créé une simulation exécutée par le pool commun.
+     * @param outcome_count Le nombre d'issues possibles d'un essai.
+     * @param trial L'essai à répéter.
+     */
+    public MonteCarloSimulation(int outcome_count, Trial trial)
+    {
+        this(outcome_count, trial, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Créé une simulation exécutée par le pool fourni.
+     * @param outcome_count Le nombre d'issues possibles d'un essai.
+     * @param trial L'essai à répéter.
+     * @param pool Le pool exécutant les tâches.
+     */
+    public MonteCarloSimulation(int outcome_count, Trial trial, ForkJoinPool pool)
+    {
+        if(outcome_count <= 0)
+            throw new RuntimeException("Le nombre d'issues doit être strictement positif.");
+        if(trial == null)
+            throw new RuntimeException("La référence trial est nulle.");
+        if(pool == null)
+            throw new RuntimeException("La référence pool est nulle.");
+        this.outcome_count = outcome_count;
+        this.trial = trial;
+        this.pool = pool;
+    }
+
+    /**
+     * Effectue un nombre fixe d'essais.
+     * @param trials Le nombre d'essais.
+     * @param random Le générateur racine, divisé pour chaque tâche.
+     * @return Le résultat de la simulation.
+     */
+    public SimulationResult run(long trials, RandomSource random)
+    {
+        if(trials <= 0)
+            throw new RuntimeException("Le nombre d'essais doit être strictement positif.");
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+        final long[] histogram = new long[outcome_count];
+        run_round(trials, random, histogram);
+        return new SimulationResult(histogram, trials);
+    }
+
+    /**
+     * Effectue des séries d'essais jusqu'à ce que l'intervalle de confiance à 95% (de Wilson) de la
+     * probabilité de chaque issue ait une demi-largeur inférieure à celle demandée, ou que le nombre
+     * maximal d'essais soit atteint. Une issue encore jamais observée garde un intervalle non nul
+     * (voir {@link SimulationResult#get_probability_half_width(int)}).
+     * @param half_width La demi-largeur visée, par exemple {@code 0.001} pour ±0,1%.
+     * @param max_trials Le nombre maximal d'essais.
+     * @param random Le générateur racine, divisé pour chaque tâche.
+     * @return Le résultat de la simulation. {@link SimulationResult#get_trials()} indique le nombre d'essais effectués.
+     */
+    public SimulationResult run_until_converged(double half_width, long max_trials, RandomSource random)
+    {
+        if(!(half_width > 0))
+            throw new RuntimeException("La demi-largeur visée doit être strictement positive.");
+        if(max_trials <= 0)
+            throw new RuntimeException("Le nombre maximal d'essais doit être strictement positif.");
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+
+        final long[] histogram = new long[outcome_count];
+        // Première série: de quoi obtenir une estimation grossière des variances.
+        long round = Math.min(max_trials, FIRST_ROUND_TRIALS);
+        long trials = 0;
+        while(true)
+        {
+            run_round(round, random, histogram);
+            trials += round;
+            final SimulationResult result = new SimulationResult(histogram.clone(), trials);
+            final double current_half_width = result.get_max_probability_half_width();
+            if(current_half_width <= half_width || trials >= max_trials)
+                return result;
+            // La demi-largeur décroît au moins en 1/sqrt(n): on estime le nombre d'essais restant,
+            // sans dépasser un doublement pour ne pas surestimer sur une estimation bruitée.
+            final double ratio = current_half_width / half_width;
+            final long needed = (long) Math.ceil(trials * (ratio * ratio - 1));
+            round = Math.max(1, Math.min(Math.min(needed, trials), max_trials - trials));
+        }
+    }
+
+    /**
+     * Découpe une série d'essais en tâches de {@link #TRIALS_PER_TASK} essais, les fait exécuter par le pool
+     * et ajoute leurs histogrammes à celui fourni.
+     * @param trials Le nombre d'essais de la série.
+     * @param random Le générateur racine.
+     * @param histogram L'histogramme cumulé.
+     */
+    private void run_round(long trials, RandomSource random, long[] histogram)
+    {
+        final long task_count = (trials + TRIALS_PER_TASK - 1) / TRIALS_PER_TASK;
+        final List<Callable<long[]>> tasks = new ArrayList<>((int) task_count);
+        for(long task = 0; task < task_count; task++)
+        {
+            // Le découpage est fait ici, dans l'ordre, pour que le résultat soit reproductible.
+            final RandomSource task_random = random.split();
+            final long task_trials = Math.min(TRIALS_PER_TASK, trials - task * TRIALS_PER_TASK);
+            tasks.add(() -> {
+                final long[] task_histogram = new long[outcome_count];
+                for(long i = 0; i < task_trials; i++)
+                {
+                    final int outcome = trial.run(task_random);
+                    if(outcome < 0 || outcome >= outcome_count)
+                        throw new RuntimeException("L'issue " + outcome + " n'est pas comprise entre 0 et " + (outcome_count - 1) + ".");
+                    task_histogram[outcome]++;
+                }
+                return task_histogram;
+            });
+        }
+        try
+        {
+            for(Future<long[]> future : pool.invokeAll(tasks))
+            {
+                final long[] task_histogram = future.get();
+                for(int i = 0; i < outcome_count; i++)
+                    histogram[i] += task_histogram[i];
+            }
+        }catch(InterruptedException interrupted)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("La simulation a été interrompue.", interrupted);
+        }catch(ExecutionException failure)
+        {
+            throw new RuntimeException("Un essai de la simulation a échoué.", failure.getCause());
+        }
+    }
+
+    /**
+     * Essai consistant en un unique tirage: l'issue est l'indice de l'item tiré.
+     * La simulation doit compter {@code distribution.size()} issues.
+     * @param distribution La distribution.
+     * @return L'essai.
+     */
+    public static Trial single_draw(CompiledDistribution<?> distribution)
+    {
+        if(distribution == null)
+            throw new RuntimeException("La référence distribution est nulle.");
+        return distribution::fire_random_index;
+    }
+
+    /**
+     * Essai consistant à tirer au sort jusqu'à obtenir l'item voulu: l'issue est le nombre de tirages
+     * ratés avant de l'obtenir, ou {@code max_draws} s'il n'est pas sorti au bout de {@code max_draws} tirages.
+     * La simulation doit compter {@code max_draws + 1} issues.
+     * @param distribution La distribution.
+     * @param index L'indice de l'item voulu.
+     * @param max_draws Le nombre maximal de tirages par essai.
+     * @return L'essai.
+     */
+    public static Trial draws_until(CompiledDistribution<?> distribution, int index, int max_draws)
+    {
+        if(distribution == null)
+            throw new RuntimeException("La référence distribution est nulle.");
+        if(index < 0 || index >= distribution.size())
+            throw new RuntimeException("Aucun item ne se trouve à l'indice " + index + ".");
+        if(max_draws <= 0)
+            throw new RuntimeException("Le nombre maximal de tirages doit être strictement positif.");
+        return random -> {
+            for(int draw = 0; draw < max_draws; draw++)
+                if(distribution.fire_random_index(random) == index)
+                    return draw;
+            return max_draws;
+        };
+    }
+}
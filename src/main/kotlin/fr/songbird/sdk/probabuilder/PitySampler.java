@@ -0,0 +1,495 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Tirage au sort avec protection contre la malchance ("pity"): les chances d'obtenir certains items
+ * augmentent à chaque tirage raté, jusqu'à un tirage garanti.
+ * <p>
+ * Chaque règle vise un groupe d'items (les légendaires, par exemple) et compte les tirages consécutifs
+ * qui ne l'ont pas atteint. À partir du tirage {@code soft_pity}, les chances du groupe augmentent de
+ * {@code soft_pity_step} à chaque tirage; le tirage {@code hard_pity} atteint forcément le groupe.
+ * Les autres items se partagent les chances restantes, proportionnellement à leurs poids. Tant qu'aucune
+ * règle ne s'est déclenchée, les tirages suivent exactement la distribution de base.
+ * <pre>
+ *     final{@literal PitySampler<String>} gacha = new{@literal PitySampler<>}(distribution)
+ *             .add_rule(item -&gt; item.getItemRef().startsWith("legendary"), 74, 0.06, 90);
+ *     final AtomicLongArray states = new AtomicLongArray(user_count);
+ *     final{@literal FavorableCase<String>} item = gacha.fire_random_item(states, user_id, random);
+ * </pre>
+ * <p>
+ * L'état d'un joueur tient dans un {@code long}: jusqu'à {@value #MAX_RULES} compteurs de
+ * {@value #COUNTER_BITS} bits, un par règle. L'échantillonneur lui-même ne conserve aucun état par joueur,
+ * des millions d'états peuvent donc être rangés dans un simple tableau de {@code long}, ou dans un
+ * {@link AtomicLongArray} pour les mettre à jour sans verrou depuis plusieurs threads, ou hors du tas dans un
+ * {@link UserStateStore}. L'état initial vaut
+ * {@value #INITIAL_STATE}.
+ * <p>
+ * Les règles ne peuvent plus être ajoutées après le premier tirage.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <T> Le type des items tirés au sort.
+ */
+public final class PitySampler<T> {
+
+    /**
+     * Le nombre maximal de règles, c'est-à-dire de compteurs rangés dans l'état d'un joueur.
+     */
+    public static final int MAX_RULES = 4;
+    /**
+     * La taille d'un compteur, en bits.
+     */
+    public static final int COUNTER_BITS = 16;
+    /**
+     * L'état d'un joueur qui n'a encore effectué aucun tirage.
+     */
+    public static final long INITIAL_STATE = 0L;
+    /**
+     * La valeur maximale d'un compteur, qui cesse alors d'augmenter.
+     */
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+    /**
+     * La distribution de base.
+     */
+    private final CompiledDistribution<T> distribution;
+    /**
+     * Les tables de tirage, remplacées à chaque ajout de règle.
+     */
+    private volatile Tables tables;
+    /**
+     * Indique si un tirage a déjà eu lieu. Écrit sous le verrou de l'instance, comme {@link #tables}.
+     */
+    private volatile boolean frozen;
+
+    /**
+     * Créé un échantillonneur sans règle, qui tire au sort selon la distribution de base.
+     * @param distribution La distribution de base.
+     */
+    public PitySampler(CompiledDistribution<T> distribution)
+    {
+        if(distribution == null)
+            throw new RuntimeException("La référence distribution est nulle.");
+        this.distribution = distribution;
+        this.tables = new Tables(distribution, new Rule[0]);
+    }
+
+    /**
+     * Ajoute une règle de protection contre la malchance.
+     * @param targets Désigne les items visés par la règle. Ils ne doivent être visés par aucune autre règle.
+     * @param soft_pity Le premier tirage dont les chances sont augmentées, 0 pour ne jamais les augmenter.
+     * @param soft_pity_step L'augmentation des chances du groupe à chaque tirage à partir de {@code soft_pity}.
+     * @param hard_pity Le tirage qui atteint forcément le groupe, 0 pour aucune garantie.
+     *                  Il ne peut pas dépasser {@value #COUNTER_MAX} + 1.
+     * @return L'échantillonneur, pour enchaîner les appels.
+     * @throws RuntimeException Si la règle est invalide, si elle ne vise aucun item possible, si elle vise
+     * un item déjà visé ou si un tirage a déjà eu lieu.
+     */
+    public synchronized PitySampler<T> add_rule(Predicate<? super FavorableCase<T>> targets, int soft_pity, double soft_pity_step, int hard_pity)
+    {
+        if(targets == null)
+            throw new RuntimeException("La référence targets est nulle.");
+        if(soft_pity < 0 || hard_pity < 0 || hard_pity > COUNTER_MAX + 1)
+            throw new RuntimeException("Les seuils de la règle sont hors bornes (soft_pity = " + soft_pity + ", hard_pity = " + hard_pity + ").");
+        if(!(soft_pity_step >= 0 && soft_pity_step <= 1))
+            throw new RuntimeException("L'augmentation des chances doit être comprise entre 0 et 1 (" + soft_pity_step + ").");
+        if(frozen)
+            throw new RuntimeException("L'échantillonneur a déjà servi à un tirage, il ne peut plus être modifié.");
+        final Rule[] rules = tables.rules;
+        if(rules.length == MAX_RULES)
+            throw new RuntimeException("Un échantillonneur ne peut pas avoir plus de " + MAX_RULES + " règles.");
+
+        final List<Integer> indexes = new ArrayList<>();
+        for(int i = 0; i < distribution.size(); i++)
+        {
+            if(!targets.test(distribution.get(i)))
+                continue;
+            for(Rule rule : rules)
+                for(int target : rule.targets)
+                    if(target == i)
+                        throw new RuntimeException("L'item N°" + i + " est déjà visé par une autre règle.");
+            indexes.add(i);
+        }
+        final int[] target_indexes = new int[indexes.size()];
+        for(int i = 0; i < target_indexes.length; i++)
+            target_indexes[i] = indexes.get(i);
+        final AliasTable target_table = sub_table(distribution, target_indexes);
+        if(target_table == null)
+            throw new RuntimeException("La règle ne vise aucun item possible.");
+
+        final Rule[] new_rules = new Rule[rules.length + 1];
+        System.arraycopy(rules, 0, new_rules, 0, rules.length);
+        new_rules[rules.length] = new Rule(target_indexes, target_table, probability_of(distribution, target_indexes),
+                soft_pity, soft_pity_step, hard_pity);
+        tables = new Tables(distribution, new_rules);
+        return this;
+    }
+
+    /**
+     * Tire au sort un item pour un joueur dont l'état est rangé dans un tableau partagé,
+     * en mettant son état à jour sans verrou.
+     * @param states Les états des joueurs.
+     * @param user L'indice du joueur dans le tableau.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(AtomicLongArray states, int user, RandomSource random)
+    {
+        return distribution.get(fire_random_index(states, user, random));
+    }
+
+    /**
+     * Tire au sort l'indice d'un item pour un joueur dont l'état est rangé dans un tableau partagé,
+     * en mettant son état à jour sans verrou (compare-and-set).
+     * <p>
+     * Les nombres aléatoires sont tirés une seule fois: si un autre thread modifie l'état du joueur
+     * entre-temps, le tirage est simplement réévalué avec le nouvel état.
+     * @param states Les états des joueurs.
+     * @param user L'indice du joueur dans le tableau.
+     * @param random Le générateur à utiliser.
+     * @return L'indice de l'item tiré au sort.
+     */
+    public int fire_random_index(AtomicLongArray states, int user, RandomSource random)
+    {
+        final Tables tables = get_tables();
+        final double u = random.next_double();
+        final double v = random.next_double();
+        while(true)
+        {
+            final long state = states.get(user);
+            final int index = tables.resolve(state, u, v);
+            if(states.compareAndSet(user, state, tables.next_state(state, index)))
+                return index;
+        }
+    }
+
+    /**
+     * Tire au sort un item pour un joueur dont l'état est rangé hors du tas, et enregistre la date du tirage.
+     * @param states Le stockage des états.
+     * @param user L'indice du joueur dans le stockage.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(UserStateStore states, int user, RandomSource random)
+    {
+        return distribution.get(fire_random_index(states, user, random));
+    }
+
+    /**
+     * Tire au sort l'indice d'un item pour un joueur dont l'état est rangé hors du tas, et enregistre la date du tirage.
+     * Les nombres aléatoires sont tirés avant de prendre le verrou de l'enregistrement, qui n'est conservé
+     * que le temps de lire et d'écrire l'état.
+     * @param states Le stockage des états.
+     * @param user L'indice du joueur dans le stockage.
+     * @param random Le générateur à utiliser.
+     * @return L'indice de l'item tiré au sort.
+     */
+    public int fire_random_index(UserStateStore states, int user, RandomSource random)
+    {
+        states.check_user(user);
+        final Tables tables = get_tables();
+        final double u = random.next_double();
+        final double v = random.next_double();
+        final long now = System.currentTimeMillis();
+        synchronized(states.lock_for(user))
+        {
+            final long state = states.read(user, UserStateStore.PITY_STATE);
+            final int index = tables.resolve(state, u, v);
+            states.write(user, UserStateStore.PITY_STATE, tables.next_state(state, index));
+            states.write(user, UserStateStore.LAST_DRAW, now);
+            return index;
+        }
+    }
+
+    /**
+     * Tire au sort un item pour un joueur dont l'état est rangé dans un tableau,
+     * sans synchronisation: le tableau ne doit être modifié que par un seul thread à la fois.
+     * @param states Les états des joueurs.
+     * @param user L'indice du joueur dans le tableau.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     */
+    public FavorableCase<T> fire_random_item(long[] states, int user, RandomSource random)
+    {
+        final Tables tables = get_tables();
+        final long state = states[user];
+        final int index = tables.resolve(state, random.next_double(), random.next_double());
+        states[user] = tables.next_state(state, index);
+        return distribution.get(index);
+    }
+
+    /**
+     * Évalue un tirage à partir de l'état d'un joueur et de deux nombres aléatoires, sans rien modifier.
+     * Associée à {@link #next_state(long, int)}, cette méthode permet de ranger les états où bon vous semble.
+     * @param state L'état du joueur.
+     * @param u Un réel tiré uniformément dans {@code [0, 1)}, qui choisit le groupe.
+     * @param v Un réel tiré uniformément dans {@code [0, 1)}, qui choisit l'item dans le groupe.
+     * @return L'indice de l'item tiré au sort.
+     */
+    public int resolve(long state, double u, double v)
+    {
+        return get_tables().resolve(state, u, v);
+    }
+
+    /**
+     * Calcule l'état d'un joueur après le tirage de l'item donné: le compteur de la règle qui vise
+     * l'item est remis à zéro, les autres augmentent d'une unité.
+     * @param state L'état du joueur avant le tirage.
+     * @param index L'indice de l'item tiré au sort.
+     * @return Le nouvel état.
+     */
+    public long next_state(long state, int index)
+    {
+        return get_tables().next_state(state, index);
+    }
+
+    /**
+     * Renvoie le nombre de tirages consécutifs d'un joueur qui n'ont pas atteint le groupe de la règle.
+     * @param state L'état du joueur.
+     * @param rule L'indice de la règle, dans l'ordre d'ajout.
+     * @return Le compteur de la règle.
+     */
+    public static int get_misses(long state, int rule)
+    {
+        if(rule < 0 || rule >= MAX_RULES)
+            throw new RuntimeException("L'indice de la règle est hors bornes (" + rule + ").");
+        return (int) (state >>> (rule * COUNTER_BITS)) & COUNTER_MAX;
+    }
+
+    /**
+     * Renvoie la distribution de base.
+     * @return La distribution.
+     */
+    public CompiledDistribution<T> get_distribution()
+    {
+        return distribution;
+    }
+
+    /**
+     * Renvoie les tables de tirage et interdit tout nouvel ajout de règle.
+     * @return Les tables.
+     */
+    private Tables get_tables()
+    {
+        if(frozen)
+            return tables;
+        // Le gel se fait sous le verrou de add_rule(): un ajout en cours se termine avant,
+        // et aucun ajout ne peut plus suivre.
+        synchronized(this)
+        {
+            frozen = true;
+            return tables;
+        }
+    }
+
+    /**
+     * Construit la table d'alias des items donnés, avec leurs probabilités dans la distribution.
+     * @param distribution La distribution.
+     * @param indexes Les indices des items.
+     * @return La table, ou {@code null} si aucun de ces items n'est possible.
+     */
+    private static AliasTable sub_table(CompiledDistribution<?> distribution, int[] indexes)
+    {
+        if(probability_of(distribution, indexes) <= 0)
+            return null;
+        final double[] weights = new double[indexes.length];
+        for(int i = 0; i < indexes.length; i++)
+            weights[i] = distribution.get_probability(indexes[i]);
+        return new AliasTable(weights);
+    }
+
+    /**
+     * Additionne les probabilités des items donnés.
+     * @param distribution La distribution.
+     * @param indexes Les indices des items.
+     * @return La probabilité du groupe.
+     */
+    private static double probability_of(CompiledDistribution<?> distribution, int[] indexes)
+    {
+        double probability = 0;
+        for(int index : indexes)
+            probability += distribution.get_probability(index);
+        return probability;
+    }
+
+    /**
+     * Tire au sort un indice de la table avec un seul réel: sa partie entière (une fois multiplié
+     * par la taille de la table) choisit la colonne, sa partie fractionnaire sert de pièce.
+     * @param table La table.
+     * @param v Un réel tiré uniformément dans {@code [0, 1)}.
+     * @return L'indice tiré au sort dans la table.
+     */
+    private static int sample(AliasTable table, double v)
+    {
+        final double scaled = v * table.size();
+        final int column = Math.min((int) scaled, table.size() - 1);
+        return table.sample(column, scaled - column);
+    }
+
+    /**
+     * Une règle de protection contre la malchance.
+     */
+    private static final class Rule {
+
+        /**
+         * Les indices des items visés.
+         */
+        private final int[] targets;
+        /**
+         * La table d'alias des items visés.
+         */
+        private final AliasTable table;
+        /**
+         * La probabilité du groupe dans la distribution de base.
+         */
+        private final double base_probability;
+        /**
+         * Le premier tirage dont les chances sont augmentées, 0 si elles ne le sont jamais.
+         */
+        private final int soft_pity;
+        /**
+         * L'augmentation des chances à chaque tirage à partir de {@link #soft_pity}.
+         */
+        private final double soft_pity_step;
+        /**
+         * Le tirage garanti, 0 s'il n'y en a pas.
+         */
+        private final int hard_pity;
+
+        private Rule(int[] targets, AliasTable table, double base_probability, int soft_pity, double soft_pity_step, int hard_pity)
+        {
+            this.targets = targets;
+            this.table = table;
+            this.base_probability = base_probability;
+            this.soft_pity = soft_pity;
+            this.soft_pity_step = soft_pity_step;
+            this.hard_pity = hard_pity;
+        }
+
+        /**
+         * Calcule les chances du groupe pour le prochain tirage.
+         * @param misses Le nombre de tirages consécutifs qui n'ont pas atteint le groupe.
+         * @return La probabilité du groupe, 1 si le tirage est garanti.
+         */
+        private double probability(int misses)
+        {
+            final int draw = misses + 1;
+            if(hard_pity > 0 && draw >= hard_pity)
+                return 1;
+            if(soft_pity > 0 && draw >= soft_pity)
+                return Math.min(1, base_probability + (draw - soft_pity + 1) * soft_pity_step);
+            return base_probability;
+        }
+    }
+
+    /**
+     * Les tables de tirage, immuables: les règles et les items qu'aucune règle ne vise.
+     */
+    private static final class Tables {
+
+        /**
+         * Les règles, dans l'ordre d'ajout.
+         */
+        private final Rule[] rules;
+        /**
+         * La règle qui vise chaque item, -1 pour les items qu'aucune règle ne vise.
+         */
+        private final byte[] rule_of;
+        /**
+         * Les indices des items qu'aucune règle ne vise.
+         */
+        private final int[] rest;
+        /**
+         * La table d'alias de ces items, {@code null} s'ils sont tous impossibles.
+         */
+        private final AliasTable rest_table;
+
+        private Tables(CompiledDistribution<?> distribution, Rule[] rules)
+        {
+            this.rules = rules;
+            this.rule_of = new byte[distribution.size()];
+            Arrays.fill(rule_of, (byte) -1);
+            for(int r = 0; r < rules.length; r++)
+                for(int target : rules[r].targets)
+                    rule_of[target] = (byte) r;
+            int rest_size = 0;
+            for(byte rule : rule_of)
+                if(rule < 0)
+                    rest_size++;
+            this.rest = new int[rest_size];
+            for(int i = 0, j = 0; i < rule_of.length; i++)
+                if(rule_of[i] < 0)
+                    rest[j++] = i;
+            this.rest_table = sub_table(distribution, rest);
+        }
+
+        /**
+         * @see PitySampler#resolve(long, double, double)
+         */
+        private int resolve(long state, double u, double v)
+        {
+            final Rule[] rules = this.rules;
+            double total = 0;
+            for(int r = 0; r < rules.length; r++)
+            {
+                final double probability = rules[r].probability(get_misses(state, r));
+                if(probability >= 1)
+                    return rules[r].targets[sample(rules[r].table, v)];
+                total += probability;
+            }
+            // Si les chances cumulées des groupes dépassent 1, elles sont ramenées à 1.
+            double threshold = total > 1 ? u * total : u;
+            for(int r = 0; r < rules.length; r++)
+            {
+                threshold -= rules[r].probability(get_misses(state, r));
+                if(threshold < 0)
+                    return rules[r].targets[sample(rules[r].table, v)];
+            }
+            if(rest_table == null)
+                return rules[rules.length - 1].targets[sample(rules[rules.length - 1].table, v)];
+            return rest[sample(rest_table, v)];
+        }
+
+        /**
+         * @see PitySampler#next_state(long, int)
+         */
+        private long next_state(long state, int index)
+        {
+            final int hit_rule = rule_of[index];
+            long next = state;
+            for(int r = 0; r < rules.length; r++)
+            {
+                final int shift = r * COUNTER_BITS;
+                final int misses = (int) (state >>> shift) & COUNTER_MAX;
+                final int next_misses = r == hit_rule ? 0 : Math.min(misses + 1, COUNTER_MAX);
+                next = (next & ~((long) COUNTER_MAX << shift)) | ((long) next_misses << shift);
+            }
+            return next;
+        }
+    }
+}
@@ -20,9 +20,7 @@
 
 package fr.songbird.sdk.probabuilder;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -55,10 +53,24 @@ public final class ProbabilityManager<T> {
      */
     private final List<FavorableCase<T>> fav_case;
     /**
-     * Ce booléen permet de savoir si le nombre de cas favorables
-     * est inférieur au nombre de cas potentiels.
+     * La dernière distribution compilée à partir des cas favorables.
+     * Elle est initialisée par le constructeur puis à chaque appel de {@link #compile()}.
      */
-    private boolean favorable_case_sum_smaller_than_default_potential_case;
+    private volatile CompiledDistribution<T> compiled;
+    /**
+     * L'instrumentation qui reçoit chaque tirage.
+     */
+    private volatile DrawMetrics metrics = DrawMetrics.none();
+    /**
+     * La somme des cas favorables des items exprimés en pourcentage,
+     * calculée lors de la dernière compilation.
+     */
+    private int favorable_case_sum;
+    /**
+     * Ce booléen permet de ne signaler qu'une seule fois par gestionnaire
+     * que la somme des cas favorables ne correspond pas au nombre de cas potentiels.
+     */
+    private boolean semantic_warning_logged;
     /**
      * Le logger de la classe.
      */
@@ -76,6 +88,9 @@ public final class ProbabilityManager<T> {
      *                       par le système si le maximum renseigné ne convient pas.
      *                       Vous pouvez utiliser la surcharge de ce constructeur si vous ne souhaitez
      *                       pas utiliser le constructeur par défaut.
+     * <p>
+     * La liste est vérifiée et compilée une bonne fois pour toutes par le constructeur:
+     * les tirages au sort n'effectuent plus aucune vérification.
      * @throws Exception Si le nombre de cas potentiels est nul.
      * Si le nombre de cas potentiels est négatif.
      * Si le nombre de cas potentiels est égal à 1.
@@ -99,6 +114,7 @@ public final class ProbabilityManager<T> {
         if(potential_case == 1)
             throw new Exception("Le nombre de cas potentiels est égal à 1, la probabilité d'obtenir quelque chose est certaine.");
         this.potential_case = potential_case;
+        compile();
     }
 
     /**
@@ -143,115 +159,150 @@ public final class ProbabilityManager<T> {
     public void free()
     {
         this.fav_case.clear();
+        this.compiled = null;
     }
 
     /**
      * Tire au sort un item contenu par la liste passée en paramètre
      * au constructeur.
+     * <p>
+     * Le tirage est délégué à la dernière distribution compilée: il ne coûte que deux nombres
+     * aléatoires et une lecture de tableau, et peut être effectué depuis plusieurs threads.
      * @return L'instance d'un item wrappé par une instance
      * de la classe {@link FavorableCase} tirée au sort.
+     * @throws RuntimeException Si le gestionnaire a été libéré avec {@link #free()}.
      */
     public FavorableCase<T> fire_random_item() {
-        final List<FavorableCase<T>> items_list = init_items_list_content();
-        final Random random = new Random();
-        if(favorable_case_sum_smaller_than_default_potential_case)
-        {
-            /**
-             * Si la somme de tous les cas favorables n'est pas égale au nombre de cas
-             * potentiels prévus au départ, selon les conditions des tests imposées dans les autres
-             * méthodes, on récupère la somme puis on établi de nouveau la limite avant le tirage au sort.
-             */
-            final int favorable_case_sum = get_favorable_case_sum();
-            return items_list.get(random.nextInt(favorable_case_sum));
-        }
-        return items_list.get(random.nextInt(100));
+        return fire(RandomSource.thread_local());
     }
 
     /**
-     * Calcule la somme des cas favorables en additionnant
-     * les cas favorables de chaque item de la liste.
-     * @return La somme des cas favorables.
+     * Tire au sort un item avec le générateur fourni, par exemple pour rejouer
+     * une série de tirages à partir d'une graine.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
+     * @throws RuntimeException Si le gestionnaire a été libéré avec {@link #free()}.
+     * @see #fire_random_item()
      */
-    private int get_favorable_case_sum() {
-        Integer favorable_case_sum = 0;
-        for(FavorableCase<T> favorableCase : fav_case)
-            try {
-                favorable_case_sum += favorableCase.get_favorable_case_to_int(potential_case);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        return favorable_case_sum;
+    public FavorableCase<T> fire_random_item(RandomSource random) {
+        return fire(random);
     }
 
     /**
-     * Calcule et alloue l'espace dans une liste qui
-     * contiendra tous les clones des items.
-     * @return La liste contenant tous les clones des items, préparée
-     * à être sollicitée par le système de probabilité.
+     * Tire au sort un item et le signale à l'instrumentation.
+     * @param random Le générateur à utiliser.
+     * @return L'item tiré au sort.
      */
-    private List<FavorableCase<T>> init_items_list_content() {
-        final List<FavorableCase<T>> items_list = init_items_list_size();
-        final int favorable_case_sum = get_favorable_case_sum();
-        if(favorable_case_sum > potential_case)
-            try {
-                throw new Exception("Erreur sémantique: La somme des cas favorables est plus élevée que le nombre de cas potentiels." +
-                        "\nSomme de tous les cas favorables est égal à "+favorable_case_sum+" alors qu'il y a " + potential_case + " cas potentiels.");
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        if(favorable_case_sum < potential_case) {
-            LOGGER.log(Level.WARNING, "La somme des cas favorables n'est pas égal au nombre de cas potentiels, vous pouvez encore remplir votre liste." +
-                    "\nSomme de tous les cas favorables est égal à "+favorable_case_sum+" alors qu'il y a "+potential_case+" cas potentiels.");
-            favorable_case_sum_smaller_than_default_potential_case = true;
+    private FavorableCase<T> fire(RandomSource random) {
+        final CompiledDistribution<T> distribution = get_compiled();
+        final DrawMetrics metrics = this.metrics;
+        final int index;
+        if(metrics.is_timed())
+        {
+            final long start = System.nanoTime();
+            index = distribution.fire_random_index(random);
+            metrics.record(index, System.nanoTime() - start);
         }
-        /*
-         * Numérote les items pour les identifier
-         * dans les logs.
-         */
-        Integer favorable_case_object_id = 0;
-        for(FavorableCase<T> favorableCase : fav_case)
+        else
         {
-            try
-            {
-                /*
-                 * Numérote les itérations pour savoir
-                 * combien de fois l'item a été
-                 * cloné durant la phase de remplissage.
-                 */
-                Integer iterations = 0;
-                LOGGER.log(Level.FINER, "Calcul du nombre de cas favorables pour l'item N°" +favorable_case_object_id+".");
-                final Integer current_favorable_case_to_int = favorableCase.get_favorable_case_to_int(potential_case);
-                while(iterations < current_favorable_case_to_int)
-                {
-                    items_list.add(favorableCase.copy());
-                    iterations++;
-                }
-                LOGGER.log(Level.FINER, "N°" + favorable_case_object_id + " devait être cloné "+current_favorable_case_to_int+" fois et a été cloné "+iterations+" fois.");
-                favorable_case_object_id++;
-            }catch (Exception e)
-            {
-                e.printStackTrace();
-            }
+            index = distribution.fire_random_index(random);
+            metrics.record(index, 0);
         }
+        return distribution.get(index);
+    }
 
-        return items_list;
+    /**
+     * Définit l'instrumentation qui recevra chaque tirage de ce gestionnaire.
+     * <pre>
+     *     final DrawStatistics statistics = new DrawStatistics(proba_manager.get_compiled().size());
+     *     proba_manager.set_metrics(statistics);
+     * </pre>
+     * @param metrics L'instrumentation, {@link DrawMetrics#none()} pour ne plus rien enregistrer.
+     * @see DrawStatistics
+     */
+    public void set_metrics(DrawMetrics metrics) {
+        if(metrics == null)
+            throw new RuntimeException("La référence metrics est nulle, utilisez DrawMetrics.none().");
+        this.metrics = metrics;
     }
 
     /**
-     * Initialise la taille de la liste qui contiendra
-     * les clones des items.
-     * @return Une liste adaptée aux nombres de clones.
+     * Renvoie l'instrumentation qui reçoit chaque tirage de ce gestionnaire.
+     * @return L'instrumentation, {@link DrawMetrics#none()} par défaut.
      */
-    private List<FavorableCase<T>> init_items_list_size() {
-        return new ArrayList<>(get_items_list_size());
+    public DrawMetrics get_metrics() {
+        return metrics;
     }
 
     /**
-     * Renvoie la taille de la liste.
-     * @return La taille de la liste.
+     * Fige la liste des cas favorables dans une distribution immuable.
+     * <p>
+     * Le constructeur compile déjà la liste: cette méthode n'est utile que pour prendre en compte
+     * les modifications apportées à la liste depuis. La liste est de nouveau vérifiée, mais un même
+     * gestionnaire ne signale qu'une seule fois une somme de cas favorables incohérente.
+     * La distribution renvoyée peut être partagée entre plusieurs threads sans synchronisation.
+     * @return La distribution compilée.
+     * @see CompiledDistribution
      */
-    private int get_items_list_size()
-    {
-        return this.potential_case;
+    public CompiledDistribution<T> compile() {
+        validate();
+        final CompiledDistribution<T> distribution = CompiledDistribution.of(fav_case);
+        this.compiled = distribution;
+        return distribution;
+    }
+
+    /**
+     * Renvoie la somme des cas favorables des items exprimés en pourcentage,
+     * telle que calculée lors de la dernière compilation.
+     * @return La somme des cas favorables.
+     */
+    public int get_favorable_case_sum() {
+        return favorable_case_sum;
+    }
+
+    /**
+     * Renvoie la dernière distribution compilée, sans recompiler la liste, par exemple pour
+     * comparer les tirages enregistrés aux probabilités configurées.
+     * @return La distribution.
+     * @throws RuntimeException Si le gestionnaire a été libéré avec {@link #free()}.
+     * @see DrawStatistics#get_drift_p_value(CompiledDistribution)
+     */
+    public CompiledDistribution<T> get_compiled() {
+        final CompiledDistribution<T> distribution = compiled;
+        if(distribution == null)
+            throw new RuntimeException("Le gestionnaire de probabilités a été libéré.");
+        return distribution;
+    }
+
+    /**
+     * Calcule la somme des cas favorables et vérifie qu'elle tient dans les cas potentiels.
+     * <p>
+     * Le poids d'un item exprimé en pourcentage est son pourcentage: la distribution reste
+     * proportionnelle aux cas favorables, sans les arrondis de l'échelle des cas potentiels.
+     * Si la somme des cas favorables est inférieure au nombre de cas potentiels, le tirage
+     * s'effectue sur cette somme.
+     * Les items pondérés par un poids brut n'occupent aucun cas potentiel et ne sont donc pas vérifiés.
+     */
+    private void validate() {
+        int sum = 0;
+        boolean has_percentage = false;
+        for(FavorableCase<T> favorableCase : fav_case)
+        {
+            if(favorableCase.is_percentage())
+            {
+                has_percentage = true;
+                sum += favorableCase.favorable_case_count(potential_case);
+            }
+        }
+        this.favorable_case_sum = sum;
+        if(!has_percentage || sum == potential_case || semantic_warning_logged)
+            return;
+        semantic_warning_logged = true;
+        if(sum > potential_case)
+            LOGGER.log(Level.SEVERE, "Erreur sémantique: La somme des cas favorables est plus élevée que le nombre de cas potentiels." +
+                    "\nSomme de tous les cas favorables est égal à "+sum+" alors qu'il y a " + potential_case + " cas potentiels.");
+        else
+            LOGGER.log(Level.WARNING, "La somme des cas favorables n'est pas égal au nombre de cas potentiels, vous pouvez encore remplir votre liste." +
+                    "\nSomme de tous les cas favorables est égal à "+sum+" alors qu'il y a "+potential_case+" cas potentiels.");
     }
 }
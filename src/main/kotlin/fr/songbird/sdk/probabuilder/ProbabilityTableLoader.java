@@ -0,0 +1,344 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import com.jsoniter.JsonIterator;
+import com.jsoniter.ValueType;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Charge une table de probabilités depuis un document YAML ou JSON, directement à partir
+ * des événements du parseur: aucune {@code Map} intermédiaire n'est construite, chaque entrée
+ * devient un {@link FavorableCase} dès qu'elle a été lue.
+ * <p>
+ * La table est une liste d'entrées, chacune portant un nom et soit un poids, soit un pourcentage:
+ * <pre>
+ *     - name: sword
+ *       percentage: 10
+ *     - name: shield
+ *       weight: 0.5
+ * </pre>
+ * <pre>
+ *     [{"name": "sword", "percentage": 10}, {"name": "shield", "weight": 0.5}]
+ * </pre>
+ * Les autres clés d'une entrée sont ignorées. Le nom de chaque entrée est résolu vers l'item
+ * correspondant par la fonction fournie, comme au chargement d'une distribution sérialisée
+ * (voir {@link CompiledDistributionCodec}).
+ * <p>
+ * Les listes renvoyées peuvent être passées telles quelles à un {@link ProbabilityManager}
+ * (items en pourcentage) ou à {@link CompiledDistribution#of(List)}.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class ProbabilityTableLoader {
+
+    /**
+     * La taille du tampon de lecture des documents JSON.
+     */
+    private static final int JSON_BUFFER_SIZE = 8192;
+
+    private ProbabilityTableLoader()
+    {
+    }
+
+    /**
+     * Lit une table de probabilités au format YAML.
+     * @param reader Le flux à lire. Il n'est pas fermé par la méthode.
+     * @param resolver Associe chaque nom d'entrée à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return Les items, dans l'ordre du document.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne respecte pas le format attendu.
+     */
+    public static <T> List<FavorableCase<T>> read_yaml(Reader reader, Function<String, ? extends T> resolver) throws IOException
+    {
+        if(reader == null)
+            throw new RuntimeException("La référence reader est nulle.");
+        if(resolver == null)
+            throw new RuntimeException("La référence resolver est nulle.");
+        final List<FavorableCase<T>> fav_case = new ArrayList<>();
+        try {
+            final Parser parser = new ParserImpl(new StreamReader(reader));
+            expect(parser, Event.ID.StreamStart);
+            expect(parser, Event.ID.DocumentStart);
+            expect(parser, Event.ID.SequenceStart);
+            while(!parser.checkEvent(Event.ID.SequenceEnd))
+            {
+                final Mark entry_mark = expect(parser, Event.ID.MappingStart).getStartMark();
+                String name = null;
+                Double weight = null;
+                Integer percentage = null;
+                while(!parser.checkEvent(Event.ID.MappingEnd))
+                {
+                    final String key = scalar(parser);
+                    if("name".equals(key))
+                        name = scalar(parser);
+                    else if("weight".equals(key))
+                        weight = parse_weight(scalar(parser), entry_mark);
+                    else if("percentage".equals(key))
+                        percentage = parse_percentage(scalar(parser), entry_mark);
+                    else
+                        skip_node(parser);
+                }
+                parser.getEvent();
+                fav_case.add(to_fav_case(name, weight, percentage, resolver, where(entry_mark)));
+            }
+            parser.getEvent();
+            expect(parser, Event.ID.DocumentEnd);
+            expect(parser, Event.ID.StreamEnd);
+        } catch (YAMLException e) {
+            throw new IOException("Le document YAML est invalide.", e);
+        }
+        return fav_case;
+    }
+
+    /**
+     * Lit une table de probabilités au format YAML et la compile.
+     * @param reader Le flux à lire. Il n'est pas fermé par la méthode.
+     * @param resolver Associe chaque nom d'entrée à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return La distribution compilée.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne respecte pas le format attendu.
+     */
+    public static <T> CompiledDistribution<T> compile_yaml(Reader reader, Function<String, ? extends T> resolver) throws IOException
+    {
+        return compile(read_yaml(reader, resolver));
+    }
+
+    /**
+     * Lit une table de probabilités au format JSON.
+     * <p>
+     * Le document est parcouru avec l'itérateur de jsoniter, entrée par entrée, sans arbre intermédiaire.
+     * Ses octets sont toutefois lus en entier au préalable: le mode flux de jsoniter repose sur
+     * javassist, dont le projet ne dépend pas.
+     * @param input Le flux à lire. Il n'est pas fermé par la méthode.
+     * @param resolver Associe chaque nom d'entrée à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return Les items, dans l'ordre du document.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne respecte pas le format attendu.
+     */
+    public static <T> List<FavorableCase<T>> read_json(InputStream input, Function<String, ? extends T> resolver) throws IOException
+    {
+        if(input == null)
+            throw new RuntimeException("La référence input est nulle.");
+        if(resolver == null)
+            throw new RuntimeException("La référence resolver est nulle.");
+        final List<FavorableCase<T>> fav_case = new ArrayList<>();
+        final JsonIterator iterator = JsonIterator.parse(read_fully(input));
+        try {
+            if(iterator.whatIsNext() != ValueType.ARRAY)
+                throw new IOException("La table doit être une liste d'entrées.");
+            while(iterator.readArray())
+            {
+                final int entry = fav_case.size();
+                if(iterator.whatIsNext() != ValueType.OBJECT)
+                    throw new IOException("L'entrée N°" + entry + " n'est pas un objet.");
+                String name = null;
+                Double weight = null;
+                Integer percentage = null;
+                for(String field = iterator.readObject(); field != null; field = iterator.readObject())
+                {
+                    if("name".equals(field) && iterator.whatIsNext() == ValueType.STRING)
+                        name = iterator.readString();
+                    else if("weight".equals(field) && iterator.whatIsNext() == ValueType.NUMBER)
+                        weight = iterator.readDouble();
+                    else if("percentage".equals(field) && iterator.whatIsNext() == ValueType.NUMBER)
+                        percentage = iterator.readInt();
+                    else if("name".equals(field) || "weight".equals(field) || "percentage".equals(field))
+                        throw new IOException("La valeur \"" + field + "\" de l'entrée N°" + entry + " n'est pas du type attendu.");
+                    else
+                        iterator.skip();
+                }
+                fav_case.add(to_fav_case(name, weight, percentage, resolver, "l'entrée N°" + entry));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Le document JSON est invalide.", e);
+        }
+        return fav_case;
+    }
+
+    /**
+     * Lit une table de probabilités au format JSON et la compile.
+     * @param input Le flux à lire. Il n'est pas fermé par la méthode.
+     * @param resolver Associe chaque nom d'entrée à l'item lui-même.
+     * @param <T> Le type des items.
+     * @return La distribution compilée.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne respecte pas le format attendu.
+     */
+    public static <T> CompiledDistribution<T> compile_json(InputStream input, Function<String, ? extends T> resolver) throws IOException
+    {
+        return compile(read_json(input, resolver));
+    }
+
+    /**
+     * Lit le flux jusqu'à son terme.
+     * @param input Le flux à lire.
+     * @return Les octets lus.
+     * @throws IOException Si le flux ne peut pas être lu.
+     */
+    private static byte[] read_fully(InputStream input) throws IOException
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(JSON_BUFFER_SIZE);
+        final byte[] buffer = new byte[JSON_BUFFER_SIZE];
+        for(int read = input.read(buffer); read != -1; read = input.read(buffer))
+            output.write(buffer, 0, read);
+        return output.toByteArray();
+    }
+
+    /**
+     * Compile les items lus.
+     * @param fav_case Les items.
+     * @param <T> Le type des items.
+     * @return La distribution compilée.
+     * @throws IOException Si la table est vide.
+     */
+    private static <T> CompiledDistribution<T> compile(List<FavorableCase<T>> fav_case) throws IOException
+    {
+        if(fav_case.isEmpty())
+            throw new IOException("La table ne contient aucune entrée.");
+        return CompiledDistribution.of(fav_case);
+    }
+
+    /**
+     * Créé l'item correspondant à une entrée.
+     * @param name Le nom de l'entrée.
+     * @param weight Le poids de l'entrée, {@code null} s'il est absent.
+     * @param percentage Le pourcentage de l'entrée, {@code null} s'il est absent.
+     * @param resolver Associe le nom de l'entrée à l'item lui-même.
+     * @param where La position de l'entrée, pour les messages d'erreur.
+     * @param <T> Le type de l'item.
+     * @return L'item.
+     * @throws IOException Si l'entrée est incomplète ou invalide.
+     */
+    private static <T> FavorableCase<T> to_fav_case(String name, Double weight, Integer percentage,
+                                                    Function<String, ? extends T> resolver, String where) throws IOException
+    {
+        if(name == null)
+            throw new IOException("Le nom de " + where + " est absent.");
+        if((weight == null) == (percentage == null))
+            throw new IOException("Il faut soit un poids, soit un pourcentage pour " + where + " (" + name + ").");
+        try {
+            final T item = resolver.apply(name);
+            return weight != null ? FavorableCase.weighted(name, item, weight) : new FavorableCase<>(name, item, percentage);
+        } catch (Exception e) {
+            throw new IOException("Impossible de créer l'item de " + where + " (" + name + ").", e);
+        }
+    }
+
+    /**
+     * Consomme l'événement suivant, qui doit être du type attendu.
+     * @param parser Le parseur.
+     * @param id Le type attendu.
+     * @return L'événement.
+     * @throws IOException Si l'événement n'est pas du type attendu.
+     */
+    private static Event expect(Parser parser, Event.ID id) throws IOException
+    {
+        final Event event = parser.getEvent();
+        if(event == null || !event.is(id))
+            throw new IOException("Le document ne respecte pas le format d'une table de probabilités: " + id + " attendu, "
+                    + (event == null ? "fin du document" : event + " " + where(event.getStartMark())) + " trouvé.");
+        return event;
+    }
+
+    /**
+     * Consomme l'événement suivant, qui doit être un scalaire.
+     * @param parser Le parseur.
+     * @return La valeur du scalaire.
+     * @throws IOException Si l'événement n'est pas un scalaire.
+     */
+    private static String scalar(Parser parser) throws IOException
+    {
+        return ((ScalarEvent) expect(parser, Event.ID.Scalar)).getValue();
+    }
+
+    /**
+     * Consomme le nœud suivant, aussi profond soit-il.
+     * @param parser Le parseur.
+     */
+    private static void skip_node(Parser parser)
+    {
+        int depth = 0;
+        do {
+            final Event event = parser.getEvent();
+            if(event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart))
+                depth++;
+            else if(event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd))
+                depth--;
+        } while(depth > 0);
+    }
+
+    /**
+     * Convertit le poids lu dans le document.
+     * @param value La valeur lue.
+     * @param mark La position de l'entrée.
+     * @return Le poids.
+     * @throws IOException Si la valeur n'est pas un nombre.
+     */
+    private static double parse_weight(String value, Mark mark) throws IOException
+    {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Le poids de " + where(mark) + " n'est pas un nombre (" + value + ").", e);
+        }
+    }
+
+    /**
+     * Convertit le pourcentage lu dans le document.
+     * @param value La valeur lue.
+     * @param mark La position de l'entrée.
+     * @return Le pourcentage.
+     * @throws IOException Si la valeur n'est pas un entier.
+     */
+    private static int parse_percentage(String value, Mark mark) throws IOException
+    {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Le pourcentage de " + where(mark) + " n'est pas un entier (" + value + ").", e);
+        }
+    }
+
+    /**
+     * Décrit la position d'une entrée dans le document YAML.
+     * @param mark La position.
+     * @return La description de la position.
+     */
+    private static String where(Mark mark)
+    {
+        return "l'entrée de la ligne " + (mark.getLine() + 1);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.Random;
+
+/**
+ * Source de nombres aléatoires utilisée par les tirages au sort du package.
+ * <p>
+ * Une source est initialisée avec une graine pour rejouer une simulation à l'identique,
+ * et peut être divisée avec {@link #split()} pour fournir à chaque thread son propre flux,
+ * sans contention et de manière déterministe:
+ * <pre>
+ *     final RandomSource root = new XoroshiroRandomSource(117);
+ *     final RandomSource worker_1 = root.split();
+ *     final RandomSource worker_2 = root.split();
+ * </pre>
+ * <p>
+ * Sauf mention contraire, une source n'est pas thread-safe: chaque thread doit disposer de la sienne.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @see SplittableRandomSource
+ * @see XoroshiroRandomSource
+ */
+public interface RandomSource {
+
+    /**
+     * Renvoie un entier de 64 bits uniformément distribué.
+     * @return Un entier aléatoire.
+     */
+    long next_long();
+
+    /**
+     * Renvoie un entier uniformément distribué dans {@code [0, bound)}.
+     * L'implémentation par défaut utilise la méthode de Lemire (une multiplication, presque jamais de division).
+     * @param bound La borne exclusive, strictement positive.
+     * @return Un entier aléatoire.
+     */
+    default int next_int(int bound)
+    {
+        if(bound <= 0)
+            throw new RuntimeException("La borne doit être strictement positive.");
+        long product = (next_long() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if(low < bound)
+        {
+            final long threshold = (0x100000000L - bound) % bound;
+            while(low < threshold)
+            {
+                product = (next_long() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Renvoie un entier uniformément distribué dans {@code [0, bound)}.
+     * @param bound La borne exclusive, strictement positive.
+     * @return Un entier aléatoire.
+     */
+    default long next_long(long bound)
+    {
+        if(bound <= 0)
+            throw new RuntimeException("La borne doit être strictement positive.");
+        final long mask = bound - 1;
+        long random = next_long();
+        if((bound & mask) == 0)
+            return random & mask;
+        // Rejet des valeurs qui biaiseraient le modulo.
+        for(long unsigned = random >>> 1; unsigned + mask - (random = unsigned % bound) < 0; unsigned = next_long() >>> 1)
+            ;
+        return random;
+    }
+
+    /**
+     * Renvoie un réel uniformément distribué dans {@code [0, 1)}, avec 53 bits de précision.
+     * @return Un réel aléatoire.
+     */
+    default double next_double()
+    {
+        return (next_long() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Créé une nouvelle source, indépendante de celle-ci, destinée à un autre thread.
+     * Pour une source initialisée avec une graine, la suite de sources obtenue est elle aussi déterministe.
+     * @return Une nouvelle source.
+     */
+    RandomSource split();
+
+    /**
+     * Renvoie une source déléguant au {@link java.util.concurrent.ThreadLocalRandom} du thread appelant.
+     * Cette source est thread-safe mais ne peut pas être initialisée avec une graine.
+     * @return La source partagée.
+     */
+    static RandomSource thread_local()
+    {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * Adapte une instance de {@link Random} existante.
+     * @param random L'instance à adapter.
+     * @return Une source déléguant à l'instance.
+     */
+    static RandomSource of(Random random)
+    {
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+        return new JdkRandomSource(random);
+    }
+}
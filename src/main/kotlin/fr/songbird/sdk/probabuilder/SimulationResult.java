@@ -0,0 +1,157 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+/**
+ * Résultat d'une {@link MonteCarloSimulation}: l'histogramme des issues et
+ * les estimations qui en découlent. L'issue {@code i} est considérée comme valant {@code i}
+ * pour le calcul de la moyenne et de la variance.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class SimulationResult {
+
+    /**
+     * Le nombre d'essais ayant abouti à chaque issue.
+     */
+    private final long[] histogram;
+    /**
+     * Le nombre total d'essais.
+     */
+    private final long trials;
+
+    /**
+     * @param histogram Le nombre d'essais ayant abouti à chaque issue (conservé tel quel).
+     * @param trials Le nombre total d'essais.
+     */
+    SimulationResult(long[] histogram, long trials)
+    {
+        this.histogram = histogram;
+        this.trials = trials;
+    }
+
+    /**
+     * Renvoie le nombre total d'essais effectués.
+     * @return Le nombre d'essais.
+     */
+    public long get_trials()
+    {
+        return trials;
+    }
+
+    /**
+     * Renvoie le nombre d'essais ayant abouti à l'issue donnée.
+     * @param outcome L'issue.
+     * @return Le nombre d'essais.
+     */
+    public long get_count(int outcome)
+    {
+        return histogram[outcome];
+    }
+
+    /**
+     * Renvoie une copie de l'histogramme des issues.
+     * @return L'histogramme.
+     */
+    public long[] get_histogram()
+    {
+        return histogram.clone();
+    }
+
+    /**
+     * Renvoie la fréquence observée de l'issue donnée.
+     * @param outcome L'issue.
+     * @return La fréquence, estimation de la probabilité de l'issue.
+     */
+    public double get_probability(int outcome)
+    {
+        return histogram[outcome] / (double) trials;
+    }
+
+    /**
+     * Renvoie la demi-largeur de l'intervalle de confiance à 95% de la probabilité de l'issue donnée.
+     * <p>
+     * L'intervalle est celui de Wilson, et non celui de Wald ({@code z·sqrt(p(1-p)/n)}): ce dernier
+     * est nul pour une issue jamais observée, qui passerait alors pour parfaitement estimée.
+     * Celui de Wilson garde, pour une telle issue, une largeur de l'ordre de {@code z²/2n}.
+     * @param outcome L'issue.
+     * @return La demi-largeur de l'intervalle.
+     */
+    public double get_probability_half_width(int outcome)
+    {
+        final double probability = get_probability(outcome);
+        final double z2_n = MonteCarloSimulation.Z_95 * MonteCarloSimulation.Z_95 / trials;
+        return MonteCarloSimulation.Z_95 / (1 + z2_n)
+                * Math.sqrt(probability * (1 - probability) / trials + z2_n / (4 * trials));
+    }
+
+    /**
+     * Renvoie la plus grande demi-largeur des intervalles de confiance à 95% des probabilités des issues.
+     * @return La plus grande demi-largeur.
+     */
+    public double get_max_probability_half_width()
+    {
+        double max_half_width = 0;
+        for(int outcome = 0; outcome < histogram.length; outcome++)
+            max_half_width = Math.max(max_half_width, get_probability_half_width(outcome));
+        return max_half_width;
+    }
+
+    /**
+     * Renvoie la moyenne des issues.
+     * @return La moyenne.
+     */
+    public double get_mean()
+    {
+        double sum = 0;
+        for(int outcome = 0; outcome < histogram.length; outcome++)
+            sum += (double) outcome * histogram[outcome];
+        return sum / trials;
+    }
+
+    /**
+     * Renvoie la variance (non biaisée) des issues.
+     * @return La variance.
+     */
+    public double get_variance()
+    {
+        if(trials < 2)
+            return 0;
+        final double mean = get_mean();
+        double sum = 0;
+        for(int outcome = 0; outcome < histogram.length; outcome++)
+        {
+            final double deviation = outcome - mean;
+            sum += deviation * deviation * histogram[outcome];
+        }
+        return sum / (trials - 1);
+    }
+
+    /**
+     * Renvoie la demi-largeur de l'intervalle de confiance à 95% de la moyenne des issues.
+     * @return La demi-largeur de l'intervalle.
+     */
+    public double get_mean_half_width()
+    {
+        return MonteCarloSimulation.Z_95 * Math.sqrt(get_variance() / trials);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source de nombres aléatoires déléguant à un {@link SplittableRandom}.
+ * C'est l'implémentation à privilégier par défaut: rapide, initialisable avec une graine
+ * et divisible sans risque de corrélation entre les flux.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class SplittableRandomSource implements RandomSource {
+
+    /**
+     * Le générateur sous-jacent.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Créé une source initialisée avec la graine donnée.
+     * @param seed La graine.
+     */
+    public SplittableRandomSource(long seed)
+    {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Créé une source déléguant au générateur donné.
+     * @param random Le générateur.
+     */
+    public SplittableRandomSource(SplittableRandom random)
+    {
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+        this.random = random;
+    }
+
+    @Override
+    public long next_long()
+    {
+        return random.nextLong();
+    }
+
+    @Override
+    public int next_int(int bound)
+    {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long next_long(long bound)
+    {
+        return random.nextLong(bound);
+    }
+
+    @Override
+    public double next_double()
+    {
+        return random.nextDouble();
+    }
+
+    @Override
+    public RandomSource split()
+    {
+        return new SplittableRandomSource(random.split());
+    }
+}
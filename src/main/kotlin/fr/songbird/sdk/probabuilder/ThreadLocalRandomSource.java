@@ -0,0 +1,74 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source de nombres aléatoires déléguant au {@link ThreadLocalRandom} du thread appelant.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @see RandomSource#thread_local()
+ */
+final class ThreadLocalRandomSource implements RandomSource {
+
+    /**
+     * L'unique instance, partagée par tous les threads.
+     */
+    static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+    private ThreadLocalRandomSource(){}
+
+    @Override
+    public long next_long()
+    {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Override
+    public int next_int(int bound)
+    {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    @Override
+    public long next_long(long bound)
+    {
+        return ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    @Override
+    public double next_double()
+    {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+
+    /**
+     * Renvoie une source indépendante, initialisée à partir du générateur du thread appelant.
+     * @return Une nouvelle source.
+     */
+    @Override
+    public RandomSource split()
+    {
+        return new SplittableRandomSource(ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import fr.songbird.sdk.fileutils.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Stockage hors du tas (off-heap) de l'état des joueurs: chaque joueur occupe un enregistrement de
+ * {@value #RECORD_SIZE} octets dans des {@link ByteBuffer#allocateDirect(int) tampons directs}, que le
+ * ramasse-miettes n'a jamais à parcourir, même pour des dizaines de millions de joueurs.
+ * <p>
+ * Un enregistrement contient trois {@code long}:
+ * <ul>
+ *     <li>la graine du générateur propre au joueur (voir {@link #next_long(int)});</li>
+ *     <li>l'état de protection contre la malchance d'un {@link PitySampler};</li>
+ *     <li>la date du dernier tirage, en millisecondes depuis l'epoch.</li>
+ * </ul>
+ * Les joueurs sont désignés par un indice compris entre 0 et {@link #capacity()} exclus: c'est à
+ * l'application d'associer ses identifiants à des indices contigus.
+ * <p>
+ * Java 8 ne permettant pas de compare-and-set sur un tampon, chaque enregistrement est protégé par
+ * l'un des {@value #STRIPES} verrous de l'instance (le verrou {@code user % STRIPES}): deux joueurs ne
+ * se bloquent que s'ils partagent le même verrou, et jamais longtemps.
+ * <p>
+ * {@link #snapshot(Path)} et {@link #restore(Path)} permettent de conserver l'état entre deux redémarrages.
+ * <pre>
+ *     final UserStateStore states = Files.exists(path) ? UserStateStore.restore(path) : new UserStateStore(user_count);
+ *     final{@literal FavorableCase<String>} item = gacha.fire_random_item(states, user, random);
+ *     // ...
+ *     states.snapshot(path);
+ * </pre>
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class UserStateStore {
+
+    /**
+     * La taille d'un enregistrement, en octets.
+     */
+    public static final int RECORD_SIZE = 24;
+    /**
+     * La position de la graine dans un enregistrement.
+     */
+    static final int SEED = 0;
+    /**
+     * La position de l'état de protection contre la malchance dans un enregistrement.
+     */
+    static final int PITY_STATE = 8;
+    /**
+     * La position de la date du dernier tirage dans un enregistrement.
+     */
+    static final int LAST_DRAW = 16;
+    /**
+     * Le nombre de verrous protégeant les enregistrements.
+     */
+    static final int STRIPES = 256;
+    /**
+     * Chaque tampon contient 2<sup>{@value #SEGMENT_SHIFT}</sup> enregistrements, afin de ne jamais
+     * atteindre la limite de 2 Go d'un {@link ByteBuffer}.
+     */
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    /**
+     * Les quatre premiers octets d'une sauvegarde.
+     */
+    private static final int MAGIC = 0x53444B55;
+    /**
+     * La version du format des sauvegardes.
+     */
+    private static final short VERSION = 1;
+    /**
+     * La taille de l'en-tête d'une sauvegarde, en octets.
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * L'incrément de SplitMix64 (partie fractionnaire du nombre d'or).
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Les tampons contenant les enregistrements.
+     */
+    private final ByteBuffer[] segments;
+    /**
+     * Les verrous des enregistrements.
+     */
+    private final Object[] locks = new Object[STRIPES];
+    /**
+     * Le nombre d'enregistrements.
+     */
+    private final int capacity;
+
+    /**
+     * Réserve les enregistrements de {@code capacity} joueurs, tous à zéro.
+     * @param capacity Le nombre de joueurs.
+     * @throws RuntimeException Si la capacité n'est pas strictement positive.
+     */
+    public UserStateStore(int capacity)
+    {
+        if(capacity <= 0)
+            throw new RuntimeException("La capacité doit être strictement positive.");
+        this.capacity = capacity;
+        this.segments = new ByteBuffer[((capacity - 1) >>> SEGMENT_SHIFT) + 1];
+        for(int i = 0; i < segments.length; i++)
+        {
+            final int records = Math.min(1 << SEGMENT_SHIFT, capacity - (i << SEGMENT_SHIFT));
+            segments[i] = ByteBuffer.allocateDirect(records * RECORD_SIZE);
+        }
+        for(int i = 0; i < STRIPES; i++)
+            locks[i] = new Object();
+    }
+
+    /**
+     * Renvoie le nombre de joueurs que peut contenir le stockage.
+     * @return La capacité.
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Renvoie la graine du générateur propre au joueur.
+     * @param user L'indice du joueur.
+     * @return La graine.
+     */
+    public long get_seed(int user)
+    {
+        return get(user, SEED);
+    }
+
+    /**
+     * Définit la graine du générateur propre au joueur.
+     * @param user L'indice du joueur.
+     * @param seed La graine.
+     */
+    public void set_seed(int user, long seed)
+    {
+        set(user, SEED, seed);
+    }
+
+    /**
+     * Renvoie un entier aléatoire tiré du générateur propre au joueur (SplitMix64), dont l'état est
+     * la graine de l'enregistrement: une même graine produit toujours la même suite, même après une restauration.
+     * @param user L'indice du joueur.
+     * @return Un entier aléatoire.
+     */
+    public long next_long(int user)
+    {
+        check_user(user);
+        long seed;
+        synchronized(lock_for(user))
+        {
+            seed = read(user, SEED) + GOLDEN_GAMMA;
+            write(user, SEED, seed);
+        }
+        seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+        return seed ^ (seed >>> 31);
+    }
+
+    /**
+     * Renvoie l'état de protection contre la malchance du joueur.
+     * @param user L'indice du joueur.
+     * @return L'état, {@link PitySampler#INITIAL_STATE} si le joueur n'a jamais tiré.
+     */
+    public long get_pity_state(int user)
+    {
+        return get(user, PITY_STATE);
+    }
+
+    /**
+     * Définit l'état de protection contre la malchance du joueur.
+     * @param user L'indice du joueur.
+     * @param state L'état.
+     */
+    public void set_pity_state(int user, long state)
+    {
+        set(user, PITY_STATE, state);
+    }
+
+    /**
+     * Renvoie la date du dernier tirage du joueur.
+     * @param user L'indice du joueur.
+     * @return La date en millisecondes depuis l'epoch, 0 si le joueur n'a jamais tiré.
+     */
+    public long get_last_draw(int user)
+    {
+        return get(user, LAST_DRAW);
+    }
+
+    /**
+     * Définit la date du dernier tirage du joueur.
+     * @param user L'indice du joueur.
+     * @param millis La date en millisecondes depuis l'epoch.
+     */
+    public void set_last_draw(int user, long millis)
+    {
+        set(user, LAST_DRAW, millis);
+    }
+
+    /**
+     * Écrit tous les enregistrements dans un fichier, en remplaçant son éventuel contenu.
+     * <p>
+     * Les tirages peuvent continuer pendant la sauvegarde: chaque enregistrement est copié
+     * sous son verrou, il est donc cohérent, mais deux joueurs peuvent être sauvegardés
+     * à des instants différents.
+     * <p>
+     * La sauvegarde est atomique et forcée sur le disque (voir {@link AtomicFiles}): un plantage
+     * en pleine sauvegarde laisse la sauvegarde précédente intacte.
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public void snapshot(Path path) throws IOException
+    {
+        AtomicFiles.write(path, true, this::write_records);
+    }
+
+    /**
+     * Écrit l'en-tête et tous les enregistrements.
+     * @param channel Le fichier, vide.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    private void write_records(FileChannel channel) throws IOException
+    {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+        channel.position(HEADER_SIZE);
+        ByteBuffer record = null;
+        for(int user = 0; user < capacity; user++)
+        {
+            if((user & SEGMENT_MASK) == 0)
+                record = segments[user >>> SEGMENT_SHIFT].duplicate();
+            final int position = (user & SEGMENT_MASK) * RECORD_SIZE;
+            record.limit(position + RECORD_SIZE).position(position);
+            synchronized(lock_for(user))
+            {
+                chunk.put(record);
+            }
+            if(!chunk.hasRemaining() || user == capacity - 1)
+            {
+                chunk.flip();
+                crc.update(chunk.duplicate());
+                while(chunk.hasRemaining())
+                    channel.write(chunk);
+                chunk.clear();
+            }
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putInt(capacity).putInt((int) crc.getValue());
+        header.flip();
+        channel.position(0);
+        while(header.hasRemaining())
+            channel.write(header);
+    }
+
+    /**
+     * Recharge un stockage sauvegardé avec {@link #snapshot(Path)}.
+     * @param path Le chemin du fichier.
+     * @return Un nouveau stockage, contenant les enregistrements sauvegardés.
+     * @throws IOException Si le fichier ne peut pas être lu, s'il est corrompu ou d'une version inconnue.
+     */
+    public static UserStateStore restore(Path path) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining())
+                if(channel.read(header) < 0)
+                    throw new IOException("Le fichier est trop court pour contenir un en-tête.");
+            header.flip();
+            if(header.getInt() != MAGIC)
+                throw new IOException("Le fichier ne contient pas une sauvegarde de l'état des joueurs.");
+            final short version = header.getShort();
+            if(version != VERSION)
+                throw new IOException("La version " + version + " du format n'est pas prise en charge (version attendue: " + VERSION + ").");
+            final short record_size = header.getShort();
+            final int capacity = header.getInt();
+            final int checksum = header.getInt();
+            if(record_size != RECORD_SIZE || capacity <= 0 || channel.size() != HEADER_SIZE + (long) capacity * RECORD_SIZE)
+                throw new IOException("L'en-tête est incohérent (" + capacity + " enregistrements de " + record_size
+                        + " octets, " + channel.size() + " octets présents).");
+
+            final UserStateStore store = new UserStateStore(capacity);
+            final CRC32 crc = new CRC32();
+            for(ByteBuffer segment : store.segments)
+            {
+                final ByteBuffer target = segment.duplicate();
+                while(target.hasRemaining())
+                    if(channel.read(target) < 0)
+                        throw new IOException("Le fichier est tronqué.");
+                crc.update(segment.duplicate());
+            }
+            if((int) crc.getValue() != checksum)
+                throw new IOException("La somme de contrôle ne correspond pas, la sauvegarde est corrompue.");
+            return store;
+        }
+    }
+
+    /**
+     * Renvoie le verrou protégeant l'enregistrement du joueur.
+     * @param user L'indice du joueur.
+     * @return Le verrou.
+     */
+    Object lock_for(int user)
+    {
+        return locks[user & (STRIPES - 1)];
+    }
+
+    /**
+     * Lit un champ de l'enregistrement sans prendre son verrou.
+     * @param user L'indice du joueur.
+     * @param offset La position du champ.
+     * @return La valeur du champ.
+     */
+    long read(int user, int offset)
+    {
+        return segments[user >>> SEGMENT_SHIFT].getLong((user & SEGMENT_MASK) * RECORD_SIZE + offset);
+    }
+
+    /**
+     * Écrit un champ de l'enregistrement sans prendre son verrou.
+     * @param user L'indice du joueur.
+     * @param offset La position du champ.
+     * @param value La valeur du champ.
+     */
+    void write(int user, int offset, long value)
+    {
+        segments[user >>> SEGMENT_SHIFT].putLong((user & SEGMENT_MASK) * RECORD_SIZE + offset, value);
+    }
+
+    /**
+     * Lit un champ de l'enregistrement sous son verrou.
+     * @param user L'indice du joueur.
+     * @param offset La position du champ.
+     * @return La valeur du champ.
+     */
+    private long get(int user, int offset)
+    {
+        check_user(user);
+        synchronized(lock_for(user))
+        {
+            return read(user, offset);
+        }
+    }
+
+    /**
+     * Écrit un champ de l'enregistrement sous son verrou.
+     * @param user L'indice du joueur.
+     * @param offset La position du champ.
+     * @param value La valeur du champ.
+     */
+    private void set(int user, int offset, long value)
+    {
+        check_user(user);
+        synchronized(lock_for(user))
+        {
+            write(user, offset, value);
+        }
+    }
+
+    /**
+     * Vérifie que l'indice du joueur est dans les bornes.
+     * @param user L'indice du joueur.
+     */
+    void check_user(int user)
+    {
+        if(user < 0 || user >= capacity)
+            throw new RuntimeException("L'indice du joueur est hors bornes (" + user + ", capacité " + capacity + ").");
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Échantillonneur pondéré sans remise (algorithme A-Res d'Efraimidis et Spirakis) qui
+ * conserve au plus {@code k} items distincts parmi un flux de longueur inconnue.
+ * <p>
+ * Chaque item reçoit une clé {@code log(u) / poids}, {@code u} étant tiré uniformément, et seuls
+ * les {@code k} items de plus grande clé sont conservés dans un tas. Le flux est donc parcouru
+ * une seule fois, avec une mémoire en {@code O(k)}:
+ * <pre>
+ *     final{@literal WeightedReservoir<String>} reservoir = new{@literal WeightedReservoir<>}(3);
+ *     stream_of_fav_cases.forEach(reservoir);
+ *     final{@literal List<FavorableCase<String>>} picked = reservoir.get_sample();
+ * </pre>
+ * <p>
+ * Une instance n'est pas thread-safe: un flux parallèle doit être consommé par un réservoir par thread.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ * @param <T> Le type des items.
+ * @see CompiledDistribution#fire_distinct_items(int, RandomSource)
+ */
+public final class WeightedReservoir<T> implements Consumer<FavorableCase<T>> {
+
+    /**
+     * Le générateur utilisé pour calculer les clés.
+     */
+    private final RandomSource random;
+    /**
+     * Les clés des items conservés, rangées en tas (la plus petite en tête).
+     */
+    private final double[] keys;
+    /**
+     * Les items conservés, rangés comme leurs clés.
+     */
+    private final FavorableCase<T>[] items;
+    /**
+     * Le nombre d'items conservés.
+     */
+    private int size;
+    /**
+     * Le nombre d'items vus depuis la création du réservoir.
+     */
+    private long seen;
+
+    /**
+     * Créé un réservoir utilisant le générateur du thread appelant.
+     * @param k Le nombre maximal d'items à conserver.
+     */
+    public WeightedReservoir(int k)
+    {
+        this(k, RandomSource.thread_local());
+    }
+
+    /**
+     * Créé un réservoir utilisant le générateur fourni.
+     * @param k Le nombre maximal d'items à conserver.
+     * @param random Le générateur à utiliser.
+     */
+    public WeightedReservoir(int k, RandomSource random)
+    {
+        if(random == null)
+            throw new RuntimeException("La référence random est nulle.");
+        if(k <= 0)
+            throw new RuntimeException("La taille du réservoir doit être strictement positive.");
+        this.random = random;
+        this.keys = new double[k];
+        this.items = FavorableCase.new_array(k);
+    }
+
+    /**
+     * Soumet un item au réservoir, pondéré par son poids.
+     * @param item L'item.
+     */
+    public void offer(FavorableCase<T> item)
+    {
+        if(item == null)
+            throw new RuntimeException("La référence item est nulle.");
+        offer(item, item.get_weight());
+    }
+
+    /**
+     * Soumet un item au réservoir avec un poids donné.
+     * Un poids nul ou négatif n'est jamais retenu.
+     * @param item L'item.
+     * @param weight Le poids de l'item.
+     */
+    public void offer(FavorableCase<T> item, double weight)
+    {
+        seen++;
+        if(!(weight > 0))
+            return;
+        // 1 - u appartient à ]0, 1], son logarithme est donc fini.
+        final double uniform = 1.0 - random.next_double();
+        final double key = Math.log(uniform) / weight;
+        if(size < keys.length)
+        {
+            keys[size] = key;
+            items[size] = item;
+            sift_up(size++);
+        }else if(key > keys[0])
+        {
+            keys[0] = key;
+            items[0] = item;
+            sift_down(0);
+        }
+    }
+
+    /**
+     * Soumet au réservoir tous les items restants de l'itérateur.
+     * @param iterator L'itérateur.
+     */
+    public void offer_all(Iterator<FavorableCase<T>> iterator)
+    {
+        while(iterator.hasNext())
+            offer(iterator.next());
+    }
+
+    /**
+     * Permet de passer le réservoir à {@code Stream.forEach()}.
+     * @param item L'item.
+     */
+    @Override
+    public void accept(FavorableCase<T> item)
+    {
+        offer(item);
+    }
+
+    /**
+     * Renvoie les items conservés, du plus prioritaire au moins prioritaire:
+     * l'ordre obtenu est celui de tirages successifs sans remise.
+     * @return Une nouvelle liste contenant au plus {@code k} items distincts.
+     */
+    public List<FavorableCase<T>> get_sample()
+    {
+        final Integer[] order = new Integer[size];
+        for(int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> keys[i]).reversed());
+        final List<FavorableCase<T>> sample = new ArrayList<>(size);
+        for(Integer i : order)
+            sample.add(items[i]);
+        return sample;
+    }
+
+    /**
+     * Renvoie le nombre d'items soumis au réservoir.
+     * @return Le nombre d'items vus.
+     */
+    public long get_seen()
+    {
+        return seen;
+    }
+
+    /**
+     * Fait remonter un élément du tas jusqu'à sa place.
+     * @param index L'indice de l'élément.
+     */
+    private void sift_up(int index)
+    {
+        while(index > 0)
+        {
+            final int parent = (index - 1) >>> 1;
+            if(keys[parent] <= keys[index])
+                return;
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    /**
+     * Fait descendre un élément du tas jusqu'à sa place.
+     * @param index L'indice de l'élément.
+     */
+    private void sift_down(int index)
+    {
+        while(true)
+        {
+            final int left = 2 * index + 1;
+            if(left >= size)
+                return;
+            final int right = left + 1;
+            final int smallest = right < size && keys[right] < keys[left] ? right : left;
+            if(keys[index] <= keys[smallest])
+                return;
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    /**
+     * Échange deux éléments du tas.
+     * @param first L'indice du premier élément.
+     * @param second L'indice du second élément.
+     */
+    private void swap(int first, int second)
+    {
+        final double key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+        final FavorableCase<T> item = items[first];
+        items[first] = items[second];
+        items[second] = item;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.probabuilder;
+
+/**
+ * Source de nombres aléatoires basée sur l'algorithme xoroshiro128++ de Blackman et Vigna:
+ * 128 bits d'état, une période de 2<sup>128</sup> - 1 et quelques opérations par nombre tiré.
+ * <p>
+ * {@link #split()} renvoie une source reprenant l'état courant puis fait sauter celle-ci
+ * de 2<sup>64</sup> tirages: les flux obtenus ne se chevauchent jamais, ce qui rend
+ * les simulations parallèles reproductibles.
+ *
+ * @author songbird
+ * @since 18 oct., 2026
+ */
+public final class XoroshiroRandomSource implements RandomSource {
+
+    /**
+     * Le polynôme de saut de 2<sup>64</sup> tirages.
+     */
+    private static final long[] JUMP = { 0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L };
+
+    /**
+     * Première moitié de l'état.
+     */
+    private long state_0;
+    /**
+     * Seconde moitié de l'état.
+     */
+    private long state_1;
+
+    /**
+     * Créé une source initialisée avec la graine donnée.
+     * L'état est dérivé de la graine avec SplitMix64, comme le recommandent les auteurs de l'algorithme.
+     * @param seed La graine.
+     */
+    public XoroshiroRandomSource(long seed)
+    {
+        long mixer = seed;
+        mixer += 0x9e3779b97f4a7c15L;
+        this.state_0 = mix(mixer);
+        mixer += 0x9e3779b97f4a7c15L;
+        this.state_1 = mix(mixer);
+        if(state_0 == 0 && state_1 == 0)
+            state_1 = 1;
+    }
+
+    /**
+     * Créé une source à partir d'un état existant.
+     * @param state_0 Première moitié de l'état.
+     * @param state_1 Seconde moitié de l'état.
+     */
+    private XoroshiroRandomSource(long state_0, long state_1)
+    {
+        this.state_0 = state_0;
+        this.state_1 = state_1;
+    }
+
+    @Override
+    public long next_long()
+    {
+        final long s0 = state_0;
+        long s1 = state_1;
+        final long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        s1 ^= s0;
+        state_0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+        state_1 = Long.rotateLeft(s1, 28);
+        return result;
+    }
+
+    @Override
+    public RandomSource split()
+    {
+        final XoroshiroRandomSource child = new XoroshiroRandomSource(state_0, state_1);
+        jump();
+        return child;
+    }
+
+    /**
+     * Avance l'état de 2<sup>64</sup> tirages.
+     */
+    private void jump()
+    {
+        long s0 = 0;
+        long s1 = 0;
+        for(long jump : JUMP)
+        {
+            for(int bit = 0; bit < 64; bit++)
+            {
+                if((jump & (1L << bit)) != 0)
+                {
+                    s0 ^= state_0;
+                    s1 ^= state_1;
+                }
+                next_long();
+            }
+        }
+        state_0 = s0;
+        state_1 = s1;
+    }
+
+    /**
+     * Fonction de mélange de SplitMix64.
+     * @param z La valeur à mélanger.
+     * @return La valeur mélangée.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
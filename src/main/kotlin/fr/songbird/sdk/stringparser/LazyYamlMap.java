@@ -0,0 +1,289 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.stringparser;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.StringReader;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Le squelette d'un fichier YAML chargé paresseusement.
+ * <p>
+ * Seules les clés de premier niveau sont indexées, en parcourant les événements de l'analyseur
+ * syntaxique: aucun objet n'est construit pour les valeurs. Chaque valeur est construite lors de
+ * son premier accès, à partir du seul fragment de texte qui la décrit, puis conservée.
+ * {@link #keySet()}, {@link #containsKey(Object)} et {@link #size()} ne construisent rien.
+ * <p>
+ * La map est en lecture seule.
+ *
+ * @author songbird
+ */
+final class LazyYamlMap extends AbstractMap<String, Object> {
+
+    /**
+     * Sert à vérifier que les clés de premier niveau sont bien des chaînes de caractères.
+     */
+    private static final Resolver KEY_RESOLVER = new Resolver();
+
+    /**
+     * L'instance Yaml utilisée pour construire les valeurs, qui sert aussi de verrou.
+     */
+    private final Yaml yaml;
+    /**
+     * Le contenu du fichier.
+     */
+    private final String content;
+    /**
+     * Les emplacements des valeurs, dans l'ordre du fichier.
+     */
+    private final Map<String, Slot> slots;
+    /**
+     * La vue des entrées, créée au premier appel de {@link #entrySet()}.
+     */
+    private Set<Entry<String, Object>> entries = null;
+
+    private LazyYamlMap(Yaml yaml, String content, Map<String, Slot> slots) {
+        this.yaml = yaml;
+        this.content = content;
+        this.slots = slots;
+    }
+
+    /**
+     * Indexe les clés de premier niveau d'un document YAML.
+     * <p>
+     * Les documents dont les valeurs ne peuvent pas être construites indépendamment les unes des
+     * autres ne sont pas indexés: références (alias), directives de tags, clés complexes ou non
+     * textuelles, racine qui n'est pas une map en style bloc, ou plusieurs documents.
+     * <p>
+     * Le document est validé par le schéma au fil des événements: un fichier invalide est donc
+     * refusé sans qu'aucune valeur ne soit construite.
+     *
+     * @param yaml       L'instance Yaml qui construira les valeurs.
+     * @param content    Le contenu du fichier.
+     * @param schema     Le schéma que doit respecter le document.
+     * @param mismatches Les différences relevées par le schéma.
+     * @return Le squelette paresseux, ou {@code null} si le document doit être chargé d'un bloc.
+     */
+    static LazyYamlMap index(Yaml yaml, String content, YamlSchema schema, List<String> mismatches) {
+        final Iterator<Event> events = yaml.parse(new StringReader(content)).iterator();
+        if (!(events.next() instanceof StreamStartEvent)) {
+            return null;
+        }
+        final Event document = events.next();
+        if (!(document instanceof DocumentStartEvent) || has_tag_directives((DocumentStartEvent) document)) {
+            return null;
+        }
+        final Event root = events.next();
+        if (!(root instanceof MappingStartEvent) || Boolean.TRUE.equals(((MappingStartEvent) root).getFlowStyle())) {
+            return null;
+        }
+
+        final Map<String, Slot> slots = new LinkedHashMap<>();
+        Event event;
+        while (!((event = events.next()) instanceof MappingEndEvent)) {
+            if (!is_plain_key(event, content)) {
+                return null;
+            }
+            final String key = ((ScalarEvent) event).getValue();
+            final YamlSchema child = schema.get_child(key);
+            final Event last = (child == null ? YamlSchema.ANY : child).check(events, key, mismatches);
+            if (last == null) {
+                return null;
+            }
+            // Une clé en double écrase la précédente, comme lors d'un chargement complet.
+            slots.put(key, new Slot(event.getStartMark().getIndex(), event.getStartMark().getColumn(), last.getEndMark().getIndex()));
+        }
+        schema.check_missing(slots.keySet(), "", mismatches);
+        if (!(events.next() instanceof DocumentEndEvent) || !(events.next() instanceof StreamEndEvent)) {
+            return null;
+        }
+        return new LazyYamlMap(yaml, content, slots);
+    }
+
+    /**
+     * @param document L'événement de début de document.
+     * @return {@code true} si le document déclare ses propres raccourcis de tags.
+     */
+    private static boolean has_tag_directives(DocumentStartEvent document) {
+        if (document.getTags() == null) {
+            return false;
+        }
+        for (String handle : document.getTags().keySet()) {
+            if (!handle.equals("!") && !handle.equals("!!")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie qu'une clé est une simple chaîne de caractères, suivie sur sa ligne par ':'.
+     *
+     * @param event   L'événement de la clé.
+     * @param content Le contenu du fichier.
+     * @return {@code true} si la clé peut être indexée.
+     */
+    private static boolean is_plain_key(Event event, String content) {
+        if (!(event instanceof ScalarEvent)) {
+            return false;
+        }
+        final ScalarEvent key = (ScalarEvent) event;
+        if (key.getTag() != null || key.getAnchor() != null) {
+            return false;
+        }
+        if (key.getImplicit().canOmitTagInPlainScalar()
+                && !Tag.STR.equals(KEY_RESOLVER.resolve(NodeId.scalar, key.getValue(), true))) {
+            return false;
+        }
+        int i = key.getEndMark().getIndex();
+        while (i < content.length() && (content.charAt(i) == ' ' || content.charAt(i) == '\t')) {
+            i++;
+        }
+        return i < content.length() && content.charAt(i) == ':';
+    }
+
+    /**
+     * Construit la valeur d'un emplacement, si ce n'est pas déjà fait.
+     *
+     * @param slot L'emplacement.
+     * @return La valeur.
+     */
+    private Object materialize(Slot slot) {
+        if (!slot.materialized) {
+            synchronized (yaml) {
+                if (!slot.materialized) {
+                    // Le fragment "clé: valeur" est rechargé à son indentation d'origine.
+                    final StringBuilder fragment = new StringBuilder(slot.column + slot.end - slot.start);
+                    for (int i = 0; i < slot.column; i++) {
+                        fragment.append(' ');
+                    }
+                    fragment.append(content, slot.start, slot.end);
+                    final Map<?, ?> entry = (Map<?, ?>) yaml.load(fragment.toString());
+                    slot.value = entry.values().iterator().next();
+                    slot.materialized = true;
+                }
+            }
+        }
+        return slot.value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        final Slot slot = slots.get(key);
+        return slot == null ? null : materialize(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entries == null) {
+            entries = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    final Iterator<Entry<String, Slot>> iterator = slots.entrySet().iterator();
+                    return new Iterator<Entry<String, Object>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            final Entry<String, Slot> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), materialize(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+            };
+        }
+        return entries;
+    }
+
+    /**
+     * L'emplacement d'une valeur dans le contenu du fichier.
+     */
+    private static final class Slot {
+        /**
+         * Le début de la clé.
+         */
+        final int start;
+        /**
+         * La colonne de la clé.
+         */
+        final int column;
+        /**
+         * La fin de la valeur.
+         */
+        final int end;
+        /**
+         * La valeur, une fois construite.
+         */
+        volatile Object value = null;
+        /**
+         * {@code true} une fois la valeur construite.
+         */
+        volatile boolean materialized = false;
+
+        Slot(int start, int column, int end) {
+            this.start = start;
+            this.column = column;
+            this.end = end;
+        }
+    }
+}
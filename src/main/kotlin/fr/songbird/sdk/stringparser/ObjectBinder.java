@@ -0,0 +1,389 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.stringparser;
+
+import com.jsoniter.JsonIterator;
+import com.jsoniter.ValueType;
+import com.jsoniter.spi.JsoniterSpi;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lie un document YAML ou JSON directement à une classe Java, sans passer par un arbre de
+ * {@code Map} intermédiaire: chaque valeur est convertie et affectée à son champ dès qu'elle est lue.
+ * <p>
+ * Le lieur d'une classe est créé lors de son premier usage, puis conservé: la réflexion ne sert
+ * qu'à ce moment-là, pour obtenir le constructeur sans paramètre et un accesseur
+ * ({@link MethodHandle}) pour chaque champ. Chaque clé du document est liée au champ du même nom;
+ * les clés inconnues sont ignorées, les champs absents du document gardent leur valeur par défaut.
+ * Les champs statiques et {@code transient} ne sont pas liés.
+ * <pre>
+ *     public class Config {
+ *         public String name;
+ *         private int weight = 10;
+ *         public List&lt;Section&gt; sections;
+ *     }
+ *
+ *     final Config config = ObjectBinder.of(Config.class).read_yaml(reader);
+ * </pre>
+ * Les champs peuvent être de type primitif ou enveloppe, {@link String}, énumération, {@code List},
+ * {@code Map} indexée par des chaînes, {@link Object} (map, liste, chaîne, nombre ou booléen) ou de
+ * toute classe disposant d'un constructeur sans paramètre. Les scalaires YAML suivent les règles de
+ * YAML 1.1, comme SnakeYAML; les références (alias) ne sont pas supportées.
+ * <p>
+ * Les lieurs sont utilisables par plusieurs threads à la fois.
+ *
+ * @param <T> Le type lié.
+ * @author songbird
+ */
+public final class ObjectBinder<T> {
+
+    /**
+     * La taille du tampon de lecture des documents JSON.
+     */
+    private static final int JSON_BUFFER_SIZE = 8192;
+    /**
+     * Lit la position de jsoniter dans le document ({@code JsonIterator.head}), qu'il n'expose pas:
+     * c'est elle que {@code JsonIterator.deserialize} compare à la fin du document pour refuser
+     * les données qui suivent la valeur.
+     */
+    private static final MethodHandle JSON_HEAD = json_head();
+
+    /**
+     * Le lieur de chaque classe, créé à son premier usage.
+     */
+    private static final ClassValue<ObjectBinder<?>> BINDERS = new ClassValue<ObjectBinder<?>>() {
+        @Override
+        protected ObjectBinder<?> computeValue(Class<?> type) {
+            return new ObjectBinder<>(type);
+        }
+    };
+
+    /**
+     * La classe liée.
+     */
+    private final Class<T> type;
+    /**
+     * Le constructeur sans paramètre de la classe, de type {@code ()Object}.
+     */
+    private final MethodHandle constructor;
+    /**
+     * Les champs de la classe, par nom.
+     */
+    private final Map<String, FieldBinding> fields = new HashMap<>();
+
+    private ObjectBinder(Class<T> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isPrimitive() || type.isArray()) {
+            throw new RuntimeException("La classe " + type.getName() + " ne peut pas être instanciée.");
+        }
+        this.type = type;
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final Constructor<T> no_arg = type.getDeclaredConstructor();
+            no_arg.setAccessible(true);
+            constructor = lookup.unreflectConstructor(no_arg).asType(MethodType.methodType(Object.class));
+            for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                            || fields.containsKey(field.getName())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    final MethodHandle setter = lookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                    fields.put(field.getName(), new FieldBinding(ValueConverter.of(field.getGenericType()), field.getType().isPrimitive(), setter));
+                }
+            }
+        } catch (NoSuchMethodException nsme0) {
+            throw new RuntimeException("La classe " + type.getName() + " doit disposer d'un constructeur sans paramètre.", nsme0);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("La classe " + type.getName() + " ne peut pas être liée.", e);
+        }
+    }
+
+    private static MethodHandle json_head() {
+        try {
+            final Field head = JsonIterator.class.getDeclaredField("head");
+            head.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(head).asType(MethodType.methodType(int.class, JsonIterator.class));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("La position de jsoniter n'est pas accessible, sa version n'est pas prise en charge.", e);
+        }
+    }
+
+    /**
+     * Renvoie le lieur d'une classe, en le créant s'il n'existe pas encore.
+     *
+     * @param type La classe, qui doit disposer d'un constructeur sans paramètre.
+     * @param <T>  Le type lié.
+     * @return Le lieur.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectBinder<T> of(Class<T> type) {
+        if (type == null) {
+            throw new RuntimeException("La référence type est nulle.");
+        }
+        return (ObjectBinder<T>) BINDERS.get(type);
+    }
+
+    /**
+     * @return La classe liée.
+     */
+    public Class<T> get_type() {
+        return type;
+    }
+
+    /**
+     * Lit un document YAML.
+     *
+     * @param reader Le flux à lire. Il n'est pas fermé par la méthode.
+     * @return L'objet lu, {@code null} si le document est nul ou vide.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne correspond pas à la classe.
+     */
+    public T read_yaml(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new RuntimeException("La référence reader est nulle.");
+        }
+        try {
+            final Parser parser = new ParserImpl(new StreamReader(reader));
+            expect(parser, Event.ID.StreamStart);
+            if (parser.checkEvent(Event.ID.StreamEnd)) {
+                return null;
+            }
+            expect(parser, Event.ID.DocumentStart);
+            final T value = read_yaml_value(parser);
+            expect(parser, Event.ID.DocumentEnd);
+            expect(parser, Event.ID.StreamEnd);
+            return value;
+        } catch (YAMLException e) {
+            throw new IOException("Le document YAML est invalide.", e);
+        }
+    }
+
+    /**
+     * Lit un document JSON.
+     *
+     * @param json Le document.
+     * @return L'objet lu, {@code null} si le document est nul.
+     * @throws IOException Si le document ne correspond pas à la classe, ou si des données suivent l'objet.
+     */
+    public T read_json(byte[] json) throws IOException {
+        if (json == null) {
+            throw new RuntimeException("La référence json est nulle.");
+        }
+        final JsonIterator iterator = JsonIterator.parse(json);
+        final T value;
+        try {
+            value = read_json_value(iterator);
+        } catch (RuntimeException e) {
+            throw new IOException("Le document JSON est invalide.", e);
+        }
+        expect_end(iterator, json);
+        return value;
+    }
+
+    /**
+     * Lit un document JSON.
+     * <p>
+     * Ses octets sont lus en entier au préalable: le mode flux de jsoniter repose sur
+     * javassist, dont le projet ne dépend pas.
+     *
+     * @param input Le flux à lire. Il n'est pas fermé par la méthode.
+     * @return L'objet lu, {@code null} si le document est nul.
+     * @throws IOException Si le flux ne peut pas être lu ou si le document ne correspond pas à la classe.
+     */
+    public T read_json(InputStream input) throws IOException {
+        if (input == null) {
+            throw new RuntimeException("La référence input est nulle.");
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(JSON_BUFFER_SIZE);
+        final byte[] buffer = new byte[JSON_BUFFER_SIZE];
+        for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+            output.write(buffer, 0, read);
+        }
+        return read_json(output.toByteArray());
+    }
+
+    /**
+     * Inscrit ce lieur auprès de jsoniter: {@code JsonIterator.deserialize(json, type)} et
+     * {@code iterator.read(type)} l'utilisent alors pour la classe liée, y compris lorsqu'elle
+     * apparaît dans une autre classe, au lieu du décodeur que jsoniter générerait (javassist) ou
+     * construirait par réflexion.
+     *
+     * @return Ce lieur.
+     */
+    public ObjectBinder<T> register_json_decoder() {
+        JsoniterSpi.registerTypeDecoder(type, this::read_json_value);
+        return this;
+    }
+
+    /**
+     * Lit un objet YAML.
+     *
+     * @param parser Le parseur, positionné juste avant l'objet.
+     * @return L'objet, {@code null} si la valeur est nulle.
+     * @throws IOException Si la valeur ne correspond pas à la classe.
+     */
+    T read_yaml_value(Parser parser) throws IOException {
+        final Event event = ValueConverter.first_event(parser);
+        if (event == null) {
+            return null;
+        }
+        if (!(event instanceof MappingStartEvent)) {
+            throw ValueConverter.mismatch(event, "une map");
+        }
+        final T target = instantiate();
+        while (!(parser.peekEvent() instanceof MappingEndEvent)) {
+            final FieldBinding field = fields.get(ValueConverter.key(parser));
+            if (field == null) {
+                ValueConverter.skip_yaml(parser);
+            } else {
+                field.set(target, field.converter.read_yaml(parser));
+            }
+        }
+        parser.getEvent();
+        return target;
+    }
+
+    /**
+     * Lit un objet JSON.
+     *
+     * @param iterator L'itérateur, positionné juste avant l'objet.
+     * @return L'objet, {@code null} si la valeur est nulle.
+     * @throws IOException Si la valeur ne correspond pas à la classe.
+     */
+    T read_json_value(JsonIterator iterator) throws IOException {
+        final ValueType next = iterator.whatIsNext();
+        if (next == ValueType.NULL) {
+            iterator.readNull();
+            return null;
+        }
+        if (next != ValueType.OBJECT) {
+            throw ValueConverter.mismatch(iterator, "un objet");
+        }
+        final T target = instantiate();
+        for (String name = iterator.readObject(); name != null; name = iterator.readObject()) {
+            final FieldBinding field = fields.get(name);
+            if (field == null) {
+                iterator.skip();
+            } else {
+                field.set(target, field.converter.read_json(iterator));
+            }
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T instantiate() {
+        try {
+            return (T) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("La classe " + type.getName() + " n'a pas pu être instanciée.", t);
+        }
+    }
+
+    /**
+     * Vérifie que seuls des blancs suivent la valeur lue.
+     *
+     * @param iterator L'itérateur, positionné juste après la valeur.
+     * @param json     Le document.
+     * @throws IOException Si des données suivent la valeur.
+     */
+    private static void expect_end(JsonIterator iterator, byte[] json) throws IOException {
+        final int head;
+        try {
+            head = (int) JSON_HEAD.invokeExact(iterator);
+        } catch (Throwable t) {
+            throw new RuntimeException("La position de jsoniter n'a pas pu être lue.", t);
+        }
+        for (int i = head; i < json.length; i++) {
+            final byte b = json[i];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                throw new IOException("Le document JSON contient des données après l'objet (octet N°" + i + ").");
+            }
+        }
+    }
+
+    private static void expect(Parser parser, Event.ID id) throws IOException {
+        final Event event = parser.getEvent();
+        if (!event.is(id)) {
+            throw new IOException(ValueConverter.where(event) + ": " + id + " est attendu.");
+        }
+    }
+
+    /**
+     * Un champ lié.
+     */
+    private static final class FieldBinding {
+        /**
+         * Le convertisseur des valeurs du champ.
+         */
+        private final ValueConverter converter;
+        /**
+         * {@code true} si le champ est d'un type primitif, qui n'accepte pas {@code null}.
+         */
+        private final boolean primitive;
+        /**
+         * L'accesseur en écriture du champ, de type {@code (Object, Object)void}.
+         */
+        private final MethodHandle setter;
+
+        FieldBinding(ValueConverter converter, boolean primitive, MethodHandle setter) {
+            this.converter = converter;
+            this.primitive = primitive;
+            this.setter = setter;
+        }
+
+        void set(Object target, Object value) {
+            if (value == null && primitive) {
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,671 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.stringparser;
+
+import com.jsoniter.JsonIterator;
+import com.jsoniter.ValueType;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convertit une valeur YAML ou JSON vers un type Java, au fil des événements du parseur.
+ * <p>
+ * Un convertisseur est choisi une fois pour toutes pour chaque type, lors de la création d'un
+ * {@link ObjectBinder}: la lecture d'un document ne fait ensuite plus appel à la réflexion.
+ *
+ * @author songbird
+ */
+abstract class ValueConverter {
+
+    /**
+     * Lit une valeur YAML.
+     *
+     * @param parser Le parseur, positionné juste avant la valeur.
+     * @return La valeur convertie, {@code null} si elle est nulle.
+     * @throws IOException Si la valeur ne peut pas être convertie.
+     */
+    abstract Object read_yaml(Parser parser) throws IOException;
+
+    /**
+     * Lit une valeur JSON.
+     *
+     * @param iterator L'itérateur, positionné juste avant la valeur.
+     * @return La valeur convertie, {@code null} si elle est nulle.
+     * @throws IOException Si la valeur ne peut pas être convertie.
+     */
+    abstract Object read_json(JsonIterator iterator) throws IOException;
+
+    /**
+     * Choisit le convertisseur d'un type.
+     * <p>
+     * Sont supportés: les types primitifs et leurs enveloppes, {@link String}, les énumérations,
+     * les listes et collections, les maps indexées par des chaînes, {@link Object} (la valeur est
+     * alors construite telle quelle: map, liste, chaîne, nombre ou booléen) et les classes
+     * disposant d'un constructeur sans paramètre (voir {@link ObjectBinder}).
+     *
+     * @param type Le type.
+     * @return Le convertisseur.
+     */
+    static ValueConverter of(Type type) {
+        if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterized = (ParameterizedType) type;
+            final Class<?> raw = (Class<?>) parameterized.getRawType();
+            if (raw.isAssignableFrom(ArrayList.class)) {
+                return new ListOf(of(parameterized.getActualTypeArguments()[0]));
+            }
+            if (raw.isAssignableFrom(LinkedHashMap.class)) {
+                if (!String.class.equals(parameterized.getActualTypeArguments()[0])) {
+                    throw new RuntimeException("Les clés de la map " + type + " doivent être des chaînes de caractères.");
+                }
+                return new MapOf(of(parameterized.getActualTypeArguments()[1]));
+            }
+            return of(raw);
+        }
+        if (type instanceof WildcardType) {
+            return of(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable || Object.class.equals(type)) {
+            return Natural.INSTANCE;
+        }
+        if (!(type instanceof Class)) {
+            throw new RuntimeException("Le type " + type + " n'est pas supporté.");
+        }
+        final Class<?> raw = (Class<?>) type;
+        final Scalar.Primitive primitive = Scalar.Primitive.of(raw);
+        if (primitive != null) {
+            return new Scalar(primitive);
+        }
+        if (raw.isEnum()) {
+            return new EnumOf(raw);
+        }
+        if (Collection.class.isAssignableFrom(raw) && raw.isAssignableFrom(ArrayList.class)) {
+            return new ListOf(Natural.INSTANCE);
+        }
+        if (Map.class.isAssignableFrom(raw) && raw.isAssignableFrom(LinkedHashMap.class)) {
+            return new MapOf(Natural.INSTANCE);
+        }
+        if (raw.isArray() || Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw)) {
+            throw new RuntimeException("Le type " + raw.getName() + " n'est pas supporté, utilisez List ou Map.");
+        }
+        return new Bean(raw);
+    }
+
+    /**
+     * Lit le premier événement d'une valeur YAML.
+     *
+     * @param parser Le parseur.
+     * @return L'événement, ou {@code null} si la valeur est nulle.
+     * @throws IOException Si la valeur est une référence (alias).
+     */
+    static Event first_event(Parser parser) throws IOException {
+        final Event event = parser.getEvent();
+        if (event instanceof AliasEvent) {
+            throw new IOException(where(event) + ": les références (alias) ne sont pas supportées.");
+        }
+        if (event instanceof ScalarEvent && Tag.NULL.equals(YamlSchema.tag_of((ScalarEvent) event))) {
+            return null;
+        }
+        return event;
+    }
+
+    /**
+     * Consomme une valeur YAML sans la construire.
+     *
+     * @param parser Le parseur, positionné juste avant la valeur.
+     */
+    static void skip_yaml(Parser parser) {
+        int depth = 0;
+        do {
+            final Event event = parser.getEvent();
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Lit une clé de map YAML.
+     *
+     * @param parser Le parseur, positionné juste avant la clé.
+     * @return La clé.
+     * @throws IOException Si la clé n'est pas un scalaire.
+     */
+    static String key(Parser parser) throws IOException {
+        final Event event = parser.getEvent();
+        if (!(event instanceof ScalarEvent)) {
+            throw new IOException(where(event) + ": les clés doivent être des scalaires.");
+        }
+        return ((ScalarEvent) event).getValue();
+    }
+
+    /**
+     * @param event    L'événement lu.
+     * @param expected Ce qui était attendu.
+     * @return L'exception signalant que l'événement n'est pas du type attendu.
+     */
+    static IOException mismatch(Event event, String expected) {
+        return new IOException(where(event) + ": " + expected + " est attendu.");
+    }
+
+    /**
+     * @param iterator L'itérateur.
+     * @param expected Ce qui était attendu.
+     * @return L'exception signalant que la valeur n'est pas du type attendu.
+     * @throws IOException Si le type de la valeur ne peut pas être lu.
+     */
+    static IOException mismatch(JsonIterator iterator, String expected) throws IOException {
+        return new IOException(expected + " est attendu, " + iterator.whatIsNext() + " a été trouvé.");
+    }
+
+    /**
+     * @param event Un événement.
+     * @return Sa position dans le document.
+     */
+    static String where(Event event) {
+        return "Ligne " + (event.getStartMark().getLine() + 1) + ", colonne " + (event.getStartMark().getColumn() + 1);
+    }
+
+    /**
+     * Lit un entier YAML 1.1: binaire, octal, hexadécimal, sexagésimal ou décimal, avec ou sans '_'.
+     *
+     * @param text Le texte.
+     * @return L'entier.
+     * @throws NumberFormatException Si le texte n'est pas un entier.
+     */
+    static long parse_integer(String text) {
+        String value = text.replace("_", "");
+        final boolean negative = value.startsWith("-");
+        if (negative || value.startsWith("+")) {
+            value = value.substring(1);
+        }
+        long result;
+        if (value.startsWith("0b")) {
+            result = Long.parseLong(value.substring(2), 2);
+        } else if (value.startsWith("0x")) {
+            result = Long.parseLong(value.substring(2), 16);
+        } else if (value.indexOf(':') >= 0) {
+            result = 0;
+            for (String part : value.split(":")) {
+                result = result * 60 + Long.parseLong(part);
+            }
+        } else if (value.length() > 1 && value.startsWith("0")) {
+            result = Long.parseLong(value.substring(1), 8);
+        } else {
+            result = Long.parseLong(value);
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Lit un nombre YAML 1.1, infinis et NaN compris.
+     *
+     * @param text Le texte.
+     * @return Le nombre.
+     * @throws NumberFormatException Si le texte n'est pas un nombre.
+     */
+    static double parse_float(String text) {
+        final String value = text.replace("_", "");
+        switch (value.toLowerCase()) {
+            case ".inf":
+            case "+.inf":
+                return Double.POSITIVE_INFINITY;
+            case "-.inf":
+                return Double.NEGATIVE_INFINITY;
+            case ".nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * Lit un booléen YAML 1.1.
+     *
+     * @param text Le texte.
+     * @return Le booléen.
+     * @throws IllegalArgumentException Si le texte n'est pas un booléen.
+     */
+    static boolean parse_boolean(String text) {
+        switch (text.toLowerCase()) {
+            case "true":
+            case "yes":
+            case "on":
+                return true;
+            case "false":
+            case "no":
+            case "off":
+                return false;
+            default:
+                throw new IllegalArgumentException(text);
+        }
+    }
+
+    /**
+     * Les scalaires: chaînes, types primitifs et leurs enveloppes.
+     */
+    static final class Scalar extends ValueConverter {
+
+        enum Primitive {
+            STRING("une chaîne"),
+            BOOLEAN("un booléen"),
+            CHARACTER("un caractère"),
+            BYTE("un entier"),
+            SHORT("un entier"),
+            INTEGER("un entier"),
+            LONG("un entier"),
+            FLOAT("un nombre"),
+            DOUBLE("un nombre");
+
+            private final String description;
+
+            Primitive(String description) {
+                this.description = description;
+            }
+
+            static Primitive of(Class<?> type) {
+                if (type == String.class || type == CharSequence.class) {
+                    return STRING;
+                }
+                if (type == boolean.class || type == Boolean.class) {
+                    return BOOLEAN;
+                }
+                if (type == char.class || type == Character.class) {
+                    return CHARACTER;
+                }
+                if (type == byte.class || type == Byte.class) {
+                    return BYTE;
+                }
+                if (type == short.class || type == Short.class) {
+                    return SHORT;
+                }
+                if (type == int.class || type == Integer.class) {
+                    return INTEGER;
+                }
+                if (type == long.class || type == Long.class) {
+                    return LONG;
+                }
+                if (type == float.class || type == Float.class) {
+                    return FLOAT;
+                }
+                if (type == double.class || type == Double.class) {
+                    return DOUBLE;
+                }
+                return null;
+            }
+        }
+
+        private final Primitive primitive;
+
+        Scalar(Primitive primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            final Event event = first_event(parser);
+            if (event == null) {
+                return null;
+            }
+            if (!(event instanceof ScalarEvent)) {
+                throw mismatch(event, primitive.description);
+            }
+            final String text = ((ScalarEvent) event).getValue();
+            try {
+                switch (primitive) {
+                    case STRING:
+                        return text;
+                    case BOOLEAN:
+                        return parse_boolean(text);
+                    case CHARACTER:
+                        if (text.length() != 1) {
+                            throw new IllegalArgumentException(text);
+                        }
+                        return text.charAt(0);
+                    case BYTE:
+                        return (byte) narrow(parse_integer(text), Byte.MIN_VALUE, Byte.MAX_VALUE);
+                    case SHORT:
+                        return (short) narrow(parse_integer(text), Short.MIN_VALUE, Short.MAX_VALUE);
+                    case INTEGER:
+                        return (int) narrow(parse_integer(text), Integer.MIN_VALUE, Integer.MAX_VALUE);
+                    case LONG:
+                        return parse_integer(text);
+                    case FLOAT:
+                        return (float) parse_float(text);
+                    default:
+                        return parse_float(text);
+                }
+            } catch (IllegalArgumentException iae0) {
+                throw new IOException(where(event) + ": \"" + text + "\" n'est pas " + primitive.description + " valide.", iae0);
+            }
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            final ValueType next = iterator.whatIsNext();
+            if (next == ValueType.NULL) {
+                iterator.readNull();
+                return null;
+            }
+            final ValueType expected = primitive == Primitive.STRING || primitive == Primitive.CHARACTER ? ValueType.STRING
+                    : primitive == Primitive.BOOLEAN ? ValueType.BOOLEAN : ValueType.NUMBER;
+            if (next != expected) {
+                throw mismatch(iterator, primitive.description);
+            }
+            switch (primitive) {
+                case STRING:
+                    return iterator.readString();
+                case BOOLEAN:
+                    return iterator.readBoolean();
+                case CHARACTER:
+                    final String text = iterator.readString();
+                    if (text.length() != 1) {
+                        throw new IOException("\"" + text + "\" n'est pas un caractère valide.");
+                    }
+                    return text.charAt(0);
+                case BYTE:
+                    return (byte) narrow(iterator.readLong(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+                case SHORT:
+                    return (short) narrow(iterator.readLong(), Short.MIN_VALUE, Short.MAX_VALUE);
+                case INTEGER:
+                    return iterator.readInt();
+                case LONG:
+                    return iterator.readLong();
+                case FLOAT:
+                    return iterator.readFloat();
+                default:
+                    return iterator.readDouble();
+            }
+        }
+
+        private static long narrow(long value, long min, long max) {
+            if (value < min || value > max) {
+                throw new IllegalArgumentException(value + " est hors de l'intervalle [" + min + ", " + max + "].");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Les énumérations, lues d'après le nom de leurs constantes.
+     */
+    static final class EnumOf extends ValueConverter {
+
+        private final Class<?> type;
+        private final Map<String, Object> constants = new HashMap<>();
+
+        EnumOf(Class<?> type) {
+            this.type = type;
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+        }
+
+        private Object constant(String name, String where) throws IOException {
+            final Object constant = constants.get(name);
+            if (constant == null) {
+                throw new IOException(where + "\"" + name + "\" n'est pas une constante de " + type.getSimpleName() + ".");
+            }
+            return constant;
+        }
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            final Event event = first_event(parser);
+            if (event == null) {
+                return null;
+            }
+            if (!(event instanceof ScalarEvent)) {
+                throw mismatch(event, "une constante de " + type.getSimpleName());
+            }
+            return constant(((ScalarEvent) event).getValue(), where(event) + ": ");
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            switch (iterator.whatIsNext()) {
+                case NULL:
+                    iterator.readNull();
+                    return null;
+                case STRING:
+                    return constant(iterator.readString(), "");
+                default:
+                    throw mismatch(iterator, "une constante de " + type.getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Les listes, construites sous forme d'{@link ArrayList}.
+     */
+    static final class ListOf extends ValueConverter {
+
+        private final ValueConverter element;
+
+        ListOf(ValueConverter element) {
+            this.element = element;
+        }
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            final Event event = first_event(parser);
+            if (event == null) {
+                return null;
+            }
+            if (!(event instanceof SequenceStartEvent)) {
+                throw mismatch(event, "une liste");
+            }
+            final List<Object> list = new ArrayList<>();
+            while (!(parser.peekEvent() instanceof SequenceEndEvent)) {
+                list.add(element.read_yaml(parser));
+            }
+            parser.getEvent();
+            return list;
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            switch (iterator.whatIsNext()) {
+                case NULL:
+                    iterator.readNull();
+                    return null;
+                case ARRAY:
+                    final List<Object> list = new ArrayList<>();
+                    while (iterator.readArray()) {
+                        list.add(element.read_json(iterator));
+                    }
+                    return list;
+                default:
+                    throw mismatch(iterator, "une liste");
+            }
+        }
+    }
+
+    /**
+     * Les maps indexées par des chaînes, construites sous forme de {@link LinkedHashMap}.
+     */
+    static final class MapOf extends ValueConverter {
+
+        private final ValueConverter value;
+
+        MapOf(ValueConverter value) {
+            this.value = value;
+        }
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            final Event event = first_event(parser);
+            if (event == null) {
+                return null;
+            }
+            if (!(event instanceof MappingStartEvent)) {
+                throw mismatch(event, "une map");
+            }
+            final Map<String, Object> map = new LinkedHashMap<>();
+            while (!(parser.peekEvent() instanceof MappingEndEvent)) {
+                final String key = key(parser);
+                map.put(key, value.read_yaml(parser));
+            }
+            parser.getEvent();
+            return map;
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            switch (iterator.whatIsNext()) {
+                case NULL:
+                    iterator.readNull();
+                    return null;
+                case OBJECT:
+                    final Map<String, Object> map = new LinkedHashMap<>();
+                    for (String field = iterator.readObject(); field != null; field = iterator.readObject()) {
+                        map.put(field, value.read_json(iterator));
+                    }
+                    return map;
+                default:
+                    throw mismatch(iterator, "une map");
+            }
+        }
+    }
+
+    /**
+     * Les valeurs dont le type n'est pas connu: maps, listes, chaînes, nombres et booléens,
+     * comme les construit SnakeYAML. Les nombres JSON sont lus sous forme de {@link Double}.
+     */
+    static final class Natural extends ValueConverter {
+
+        static final Natural INSTANCE = new Natural();
+
+        private static final ListOf LIST = new ListOf(INSTANCE);
+        private static final MapOf MAP = new MapOf(INSTANCE);
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            final Event event = parser.peekEvent();
+            if (event instanceof SequenceStartEvent) {
+                return LIST.read_yaml(parser);
+            }
+            if (event instanceof MappingStartEvent) {
+                return MAP.read_yaml(parser);
+            }
+            if (first_event(parser) == null) {
+                return null;
+            }
+            final ScalarEvent scalar = (ScalarEvent) event;
+            final Tag tag = YamlSchema.tag_of(scalar);
+            try {
+                if (tag.equals(Tag.INT)) {
+                    final long value = parse_integer(scalar.getValue());
+                    return value == (int) value ? (Object) (int) value : (Object) value;
+                }
+                if (tag.equals(Tag.FLOAT)) {
+                    return parse_float(scalar.getValue());
+                }
+                if (tag.equals(Tag.BOOL)) {
+                    return parse_boolean(scalar.getValue());
+                }
+            } catch (IllegalArgumentException iae0) {
+                throw new IOException(where(event) + ": \"" + scalar.getValue() + "\" ne correspond pas à son tag " + tag + ".", iae0);
+            }
+            return scalar.getValue();
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            switch (iterator.whatIsNext()) {
+                case ARRAY:
+                    return LIST.read_json(iterator);
+                case OBJECT:
+                    return MAP.read_json(iterator);
+                case STRING:
+                    return iterator.readString();
+                case NUMBER:
+                    return iterator.readDouble();
+                case BOOLEAN:
+                    return iterator.readBoolean();
+                default:
+                    iterator.skip();
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Les objets, lus par leur {@link ObjectBinder}.
+     */
+    static final class Bean extends ValueConverter {
+
+        private final Class<?> type;
+        /**
+         * Le lieur, obtenu au premier usage: une classe peut ainsi contenir des champs de son propre type.
+         */
+        private volatile ObjectBinder<?> binder = null;
+
+        Bean(Class<?> type) {
+            try {
+                type.getDeclaredConstructor();
+            } catch (NoSuchMethodException nsme0) {
+                throw new RuntimeException("La classe " + type.getName() + " doit disposer d'un constructeur sans paramètre.", nsme0);
+            }
+            this.type = type;
+        }
+
+        private ObjectBinder<?> binder() {
+            ObjectBinder<?> current = binder;
+            if (current == null) {
+                binder = current = ObjectBinder.of(type);
+            }
+            return current;
+        }
+
+        @Override
+        Object read_yaml(Parser parser) throws IOException {
+            return binder().read_yaml_value(parser);
+        }
+
+        @Override
+        Object read_json(JsonIterator iterator) throws IOException {
+            return binder().read_json_value(iterator);
+        }
+    }
+}
@@ -20,12 +20,28 @@
 
 package fr.songbird.sdk.stringparser;
 
+import fr.songbird.sdk.fileutils.AtomicFiles;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
 import java.io.*;
-import java.util.Iterator;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
 /**
  * @author songbird
@@ -33,6 +49,20 @@ import java.util.Set;
  */
 public class YamlFileWrapper {
 
+    /**
+     * Le logger de la classe.
+     */
+    private static final Logger LOGGER = Logger.getLogger(YamlFileWrapper.class.getSimpleName());
+
+    /**
+     * La taille des tampons de lecture et d'écriture.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * La résolution, en millisecondes, des dates de modification dans le pire des cas
+     * (une seconde avec {@link File#lastModified()} sous Java 8).
+     */
+    private static final long TIMESTAMP_RESOLUTION = 1000;
     /**
      * Le fichier une fois chargé en mémoire.
      */
@@ -47,9 +77,42 @@ public class YamlFileWrapper {
     private Map<String, Object> default_skeleton = null;
     /**
      * Cet attribut est le squelette chargé en mémoire une fois le test
-     * d'intégrité passé.
+     * d'intégrité passé. Il est remplacé d'un bloc à chaque rechargement,
+     * les lecteurs voient donc soit l'ancien squelette, soit le nouveau.
+     */
+    private volatile Map<String, Object> current_skeleton = null;
+    /**
+     * La date de modification du fichier lors du dernier chargement.
+     */
+    private long loaded_last_modified = -1;
+    /**
+     * La taille du fichier lors du dernier chargement.
+     */
+    private long loaded_size = -1;
+    /**
+     * La somme de contrôle du contenu du fichier lors du dernier chargement.
+     */
+    private long loaded_checksum = -1;
+    /**
+     * L'heure à laquelle le fichier a été lu lors du dernier chargement.
      */
-    private Map<String, Object> current_skeleton = null;
+    private long loaded_at = -1;
+    /**
+     * Le service surveillant le répertoire du fichier, {@code null} si la surveillance est arrêtée.
+     */
+    private WatchService watch_service = null;
+    /**
+     * {@code true} si le fichier est chargé paresseusement, voir {@link #loadLazily()}.
+     */
+    private boolean lazy = false;
+    /**
+     * Le schéma compilé à partir du squelette par défaut lors du premier chargement.
+     */
+    private YamlSchema schema = null;
+    /**
+     * Les différences relevées lors du dernier chargement.
+     */
+    private volatile List<String> mismatches = Collections.emptyList();
 
     /**
      * L'unique constructeur de cette classe.
@@ -103,14 +166,34 @@ public class YamlFileWrapper {
      * Cette méthode créé et écrit un fichier de configuration disposant du
      * squelette par défaut.
      * <p>
+     * L'écriture est atomique: le squelette est d'abord écrit dans un fichier
+     * temporaire du même répertoire, qui remplace ensuite le fichier d'un seul coup.
+     * Un plantage en pleine écriture laisse donc l'ancien fichier intact.
+     * Les données ne sont pas forcées sur le disque, voir {@link #writeThisFile(boolean)}.
      */
     public void writeThisFile() {
+        writeThisFile(false);
+    }
 
-        final String yaml_file_content = virtual_file.dump(default_skeleton);
+    /**
+     * Écrit le squelette par défaut dans le fichier, comme {@link #writeThisFile()}.
+     * <p>
+     * Le squelette est sérialisé directement dans un tampon, sans passer par une chaîne
+     * contenant tout le fichier.
+     *
+     * @param sync {@code true} pour forcer l'écriture des données sur le disque avant de remplacer
+     *             le fichier (fsync), ce qui garantit qu'il survive à une coupure de courant,
+     *             au prix d'une écriture plus lente.
+     */
+    public synchronized void writeThisFile(boolean sync) {
         try {
-            FileWriter writer = new FileWriter(target_file);
-            writer.write(yaml_file_content);
-            writer.close();
+            AtomicFiles.write(target_file.toPath(), sync, channel -> {
+                final Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+                synchronized (virtual_file) {
+                    virtual_file.dump(default_skeleton, writer);
+                }
+                writer.flush();
+            });
         } catch (IOException ioe0) {
             ioe0.printStackTrace();
         }
@@ -123,44 +206,283 @@ public class YamlFileWrapper {
      * La méthode {@code loadHim()} va, en chargeant le fichier en question, vérifier,
      * au minimum, si le squelette par défaut est respecté. Que la valeur des
      * clés soit nulle, ou non, importe peu, mais elles doivent au moins être
-     * présentes.
+     * présentes, à tous les niveaux, et du même type que dans le squelette par défaut
+     * (voir {@link YamlSchema}). L'ordre des clés et les clés supplémentaires importent peu.
+     * Les différences relevées sont disponibles via {@link #getMismatches()}.
      * <strong>Note</strong>: Ce service n'assure en aucun cas l'intégrité des valeurs
      * de chaque clés. Cette phase de test est à votre charge.
      *
      * @return {@code true} si le chargement s'est bien passé, sinon {@code false}.
      */
-    public boolean loadHim() {
+    public synchronized boolean loadHim() {
+        lazy = false;
+        return load();
+    }
+
+    /**
+     * Charge le fichier comme {@link #loadHim()}, mais paresseusement.
+     * <p>
+     * Seules les clés de premier niveau sont indexées au chargement. Chaque valeur n'est construite
+     * qu'au premier accès via {@link Map#get(Object)}, puis conservée: le temps de chargement et la
+     * mémoire occupée dépendent de ce qui est réellement lu, et non de la taille du fichier.
+     * Le squelette obtenu est en lecture seule. Les rechargements suivants ({@link #reload()},
+     * surveillance du fichier) restent paresseux jusqu'au prochain appel de {@link #loadHim()}.
+     * <p>
+     * Un document utilisant des références (alias), des directives de tags ou des clés complexes
+     * est chargé d'un bloc, comme avec {@link #loadHim()}.
+     *
+     * @return {@code true} si le chargement s'est bien passé, sinon {@code false}.
+     */
+    public synchronized boolean loadLazily() {
+        lazy = true;
+        return load();
+    }
+
+    /**
+     * Lit et analyse le fichier.
+     *
+     * @return {@code true} si le chargement s'est bien passé, sinon {@code false}.
+     */
+    private boolean load() {
         try {
-            // It's ok javac, good boy ! Go to sleep, now.
-            @SuppressWarnings(value = "unchecked")
-            final Map<String, Object> skeleton = (Map<String, Object>) virtual_file
-                    .load(new FileInputStream(target_file));
-            assert (skeleton != null) : "Le fichier qui devait être parsé est vide, vérifiez votre chemin.";
-            // On récupère un set de clés pour chaque squelette
-            final Set<String> key_set_default_skeleton = default_skeleton.keySet();
-            final Set<String> key_set_skeleton = skeleton.keySet();
-            // On récupère chaque itérateur pour commencer à les parcourir.
-            final Iterator<String> default_skeleton_keys = key_set_default_skeleton.iterator();
-            final Iterator<String> skeleton_keys = key_set_skeleton.iterator();
-            // On parcours nos itérateurs.
-            while (default_skeleton_keys.hasNext()) {
-                // Si le programme tombe sur ne serait-ce qu'une seule clé
-                // différente du squelette de base
-                // tout est interrompu
-                if (!(default_skeleton_keys.next().equals(skeleton_keys.next()))) {
-                    return false;
+            final long read_at = System.currentTimeMillis();
+            final long last_modified = target_file.lastModified();
+            final byte[] content = Files.readAllBytes(target_file.toPath());
+            return parse(content, last_modified, checksum(content), read_at);
+        } catch (IOException ioe0) {
+            ioe0.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Recharge le fichier uniquement s'il a changé depuis le dernier chargement.
+     * <p>
+     * Si sa date de modification et sa taille n'ont pas bougé, le fichier n'est même pas lu, à moins
+     * que cette date soit trop proche de la dernière lecture: le fichier a pu être modifié de nouveau,
+     * sans changer de taille, dans la même unité de temps. Sinon, son contenu est lu et comparé, grâce à une somme de contrôle, au contenu chargé
+     * la dernière fois: il n'est analysé que s'il est réellement différent. Un fichier qui ne
+     * respecte plus le squelette par défaut n'est pas pris en compte, le squelette précédent
+     * reste en place.
+     *
+     * @return Le squelette en vigueur après le rechargement, celui déjà chargé si rien n'a changé.
+     * @throws Exception Si le fichier ne peut pas être lu, ou s'il ne respecte pas le squelette par défaut.
+     */
+    public Map<String, Object> reload() throws Exception {
+        return reload(true);
+    }
+
+    /**
+     * Recharge le fichier uniquement s'il a changé depuis le dernier chargement.
+     *
+     * @param trust_timestamp {@code false} pour toujours lire le fichier et comparer son contenu,
+     *                        par exemple lorsque le système de fichiers vient de signaler une modification.
+     * @return Le squelette en vigueur après le rechargement.
+     * @throws Exception Si le fichier ne peut pas être lu, ou s'il ne respecte pas le squelette par défaut.
+     */
+    private synchronized Map<String, Object> reload(boolean trust_timestamp) throws Exception {
+        final long read_at = System.currentTimeMillis();
+        final long last_modified = target_file.lastModified();
+        final long size = target_file.length();
+        if (trust_timestamp && current_skeleton != null && last_modified == loaded_last_modified && size == loaded_size
+                && loaded_at - loaded_last_modified > TIMESTAMP_RESOLUTION) {
+            return current_skeleton;
+        }
+        final byte[] content = Files.readAllBytes(target_file.toPath());
+        final long content_checksum = checksum(content);
+        if (current_skeleton != null && content.length == loaded_size && content_checksum == loaded_checksum) {
+            loaded_last_modified = last_modified;
+            loaded_at = read_at;
+            return current_skeleton;
+        }
+        if (!parse(content, last_modified, content_checksum, read_at)) {
+            throw new Exception("Le fichier " + target_file + " ne respecte pas le squelette par défaut, il n'a pas été rechargé: " + mismatches);
+        }
+        return current_skeleton;
+    }
+
+    /**
+     * Démarre la surveillance du fichier: un thread d'arrière-plan (démon) attend les
+     * notifications du système de fichiers et recharge le fichier à chaque modification. Le contenu
+     * est alors toujours comparé à celui déjà chargé, sans se fier à la date de modification. Le nouveau squelette remplace l'ancien d'un seul bloc.
+     * Sans effet si la surveillance est déjà démarrée.
+     *
+     * @throws IOException Si le répertoire du fichier ne peut pas être surveillé.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watch_service != null) {
+            return;
+        }
+        final Path file = target_file.getAbsoluteFile().toPath();
+        final WatchService service = FileSystems.getDefault().newWatchService();
+        file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watch_service = service;
+
+        final Thread watcher = new Thread(() -> watch(service, file.getFileName()), "YamlFileWrapper-" + file.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Arrête la surveillance démarrée par {@link #startWatching()}.
+     *
+     * @throws IOException Si le service de surveillance ne peut pas être fermé.
+     */
+    public synchronized void stopWatching() throws IOException {
+        if (watch_service != null) {
+            watch_service.close();
+            watch_service = null;
+        }
+    }
+
+    /**
+     * La boucle du thread de surveillance, qui s'arrête à la fermeture du service.
+     *
+     * @param service   Le service de surveillance.
+     * @param file_name Le nom du fichier surveillé.
+     */
+    private void watch(WatchService service, Path file_name) {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file_name.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    try {
+                        reload(false);
+                    } catch (Exception e) {
+                        LOGGER.log(Level.WARNING, "Le fichier " + target_file + " n'a pas pu être rechargé.", e);
+                    }
+                }
+                if (!key.reset()) {
+                    return;
                 }
             }
-            // Sinon, on load comme prévu notre squelette pour commencer à
-            // effectuer
-            // nos opérations.
-            current_skeleton = skeleton;
-        } catch (FileNotFoundException fnfe0) {
-            fnfe0.printStackTrace();
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // La surveillance a été arrêtée.
         }
+    }
+
+    /**
+     * Analyse le contenu du fichier et, s'il respecte le squelette par défaut,
+     * remplace le squelette chargé.
+     *
+     * @param content       Le contenu du fichier.
+     * @param last_modified La date de modification du fichier.
+     * @param checksum      La somme de contrôle du contenu.
+     * @param read_at       L'heure à laquelle le fichier a été lu.
+     * @return {@code true} si le contenu a été chargé, sinon {@code false}.
+     * @throws IOException Si le contenu ne peut pas être décodé.
+     */
+    private boolean parse(byte[] content, long last_modified, long checksum, long read_at) throws IOException {
+        if (schema == null) {
+            schema = YamlSchema.compile(default_skeleton);
+        }
+        final List<String> found = new ArrayList<>();
+        final Object tree = lazy ? load_lazily(content, found) : load_eagerly(content, found);
+        mismatches = Collections.unmodifiableList(found);
+        if (!found.isEmpty()) {
+            LOGGER.fine("Le fichier " + target_file + " ne respecte pas le squelette par défaut: " + found);
+            return false;
+        }
+        // It's ok javac, good boy ! Go to sleep, now.
+        @SuppressWarnings(value = "unchecked")
+        final Map<String, Object> skeleton = (Map<String, Object>) tree;
+        current_skeleton = skeleton;
+        loaded_last_modified = last_modified;
+        loaded_size = content.length;
+        loaded_checksum = checksum;
+        loaded_at = read_at;
         return true;
     }
 
+    /**
+     * Construit tout le squelette contenu dans le fichier, puis le valide.
+     *
+     * @param content    Le contenu du fichier.
+     * @param mismatches Les différences relevées par le schéma.
+     * @return Le squelette.
+     */
+    private Object load_eagerly(byte[] content, List<String> mismatches) {
+        final Object tree;
+        synchronized (virtual_file) {
+            tree = virtual_file.load(new ByteArrayInputStream(content));
+        }
+        mismatches.addAll(schema.validate(tree));
+        return tree;
+    }
+
+    /**
+     * Indexe les clés de premier niveau du fichier et le valide, sans construire leurs valeurs.
+     *
+     * @param content    Le contenu du fichier.
+     * @param mismatches Les différences relevées par le schéma.
+     * @return Le squelette paresseux, ou le squelette complet si le document ne peut pas être indexé.
+     * @throws IOException Si le contenu ne peut pas être décodé.
+     */
+    private Object load_lazily(byte[] content, List<String> mismatches) throws IOException {
+        final StringBuilder text = new StringBuilder(content.length);
+        try (Reader reader = new UnicodeReader(new ByteArrayInputStream(content))) {
+            final char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+        }
+        final Map<String, Object> skeleton = LazyYamlMap.index(virtual_file, text.toString(), schema, mismatches);
+        if (skeleton == null) {
+            LOGGER.fine("Le fichier " + target_file + " ne peut pas être indexé, il est chargé d'un bloc.");
+            mismatches.clear();
+            return load_eagerly(content, mismatches);
+        }
+        return skeleton;
+    }
+
+    /**
+     * Calcule la somme de contrôle du contenu d'un fichier.
+     *
+     * @param content Le contenu.
+     * @return La somme de contrôle.
+     */
+    private static long checksum(byte[] content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Lit le fichier directement dans un objet, sans construire de squelette intermédiaire
+     * (voir {@link ObjectBinder}). Le squelette chargé n'est pas modifié, et le squelette par
+     * défaut n'est pas vérifié: c'est la classe elle-même qui décrit la structure attendue.
+     * Les scalaires sont interprétés selon les règles par défaut de YAML 1.1, et non d'après
+     * la configuration de l'instance Yaml du constructeur.
+     *
+     * @param type La classe de l'objet, qui doit disposer d'un constructeur sans paramètre.
+     * @param <T>  Le type de l'objet.
+     * @return L'objet lu.
+     * @throws IOException Si le fichier ne peut pas être lu ou s'il ne correspond pas à la classe.
+     */
+    public <T> T loadAs(Class<T> type) throws IOException {
+        final ObjectBinder<T> binder = ObjectBinder.of(type);
+        try (Reader reader = new UnicodeReader(Files.newInputStream(target_file.toPath()))) {
+            return binder.read_yaml(reader);
+        }
+    }
+
+    /**
+     * Renvoie les différences entre le fichier et le squelette par défaut relevées lors du dernier
+     * chargement, par exemple "section.weight: attendu un entier, trouvé une chaîne.".
+     *
+     * @return Les différences, vide si le dernier chargement a réussi.
+     */
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
     /**
      * Cette méthode se charge de vous fournir la structure chargée dans la RAM
      * sous forme de {@link java.util.HashMap HashMap}.
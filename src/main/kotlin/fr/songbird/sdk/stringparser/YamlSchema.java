@@ -0,0 +1,342 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk.stringparser;
+
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * La structure attendue d'un fichier YAML, compilée une fois pour toutes à partir de son squelette par défaut.
+ * <p>
+ * Chaque clé du squelette doit être présente dans le fichier, à tous les niveaux, et sa valeur doit être
+ * du même type que la valeur par défaut: une map, une liste, une chaîne, un entier, un nombre (un entier
+ * est aussi accepté) ou un booléen. Une valeur nulle est toujours acceptée, tout comme les clés
+ * supplémentaires et l'ordre des clés. Les valeurs par défaut nulles ou d'un autre type acceptent n'importe
+ * quelle valeur.
+ * <p>
+ * La validation peut porter sur le squelette chargé ({@link #validate(Object)}) ou directement sur les
+ * événements de l'analyseur syntaxique, ce qui permet de refuser un fichier sans rien construire.
+ * Dans les deux cas, toutes les différences sont relevées, et non seulement la première.
+ *
+ * @author songbird
+ */
+public final class YamlSchema {
+
+    /**
+     * Le type d'une valeur.
+     */
+    enum Kind {
+        ANY("n'importe quelle valeur"),
+        NULL("une valeur nulle"),
+        MAPPING("une map"),
+        SEQUENCE("une liste"),
+        STRING("une chaîne"),
+        INTEGER("un entier"),
+        FLOAT("un nombre"),
+        BOOLEAN("un booléen"),
+        OTHER("une valeur d'un autre type");
+
+        private final String description;
+
+        Kind(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * Le schéma d'une valeur quelconque.
+     */
+    static final YamlSchema ANY = new YamlSchema(Kind.ANY, null);
+
+    /**
+     * Résout le type des scalaires sans tag explicite, comme le fait SnakeYAML par défaut.
+     */
+    private static final Resolver RESOLVER = new Resolver();
+
+    /**
+     * Le type attendu.
+     */
+    private final Kind kind;
+    /**
+     * Le schéma de chaque clé, dans l'ordre du squelette, si une map est attendue.
+     */
+    private final Map<String, YamlSchema> children;
+
+    private YamlSchema(Kind kind, Map<String, YamlSchema> children) {
+        this.kind = kind;
+        this.children = children;
+    }
+
+    /**
+     * Compile le schéma d'un squelette par défaut.
+     *
+     * @param skeleton Le squelette par défaut.
+     * @return Le schéma.
+     */
+    public static YamlSchema compile(Map<String, ?> skeleton) {
+        if (skeleton == null) {
+            throw new RuntimeException("Le squelette passé en paramètre est nul.");
+        }
+        return of(skeleton);
+    }
+
+    private static YamlSchema of(Object value) {
+        final Kind kind = kind_of(value);
+        if (kind == Kind.MAPPING) {
+            final Map<String, YamlSchema> children = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                children.put(String.valueOf(entry.getKey()), of(entry.getValue()));
+            }
+            return new YamlSchema(kind, children);
+        }
+        return kind == Kind.NULL || kind == Kind.OTHER || kind == Kind.ANY ? ANY : new YamlSchema(kind, null);
+    }
+
+    /**
+     * Vérifie qu'un squelette chargé respecte le schéma.
+     *
+     * @param tree Le squelette chargé.
+     * @return Les différences relevées, vide si le squelette respecte le schéma.
+     */
+    public List<String> validate(Object tree) {
+        final List<String> mismatches = new ArrayList<>();
+        if (tree == null) {
+            mismatches.add("Le fichier est vide.");
+        } else {
+            check(tree, "", mismatches);
+        }
+        return mismatches;
+    }
+
+    private void check(Object value, String path, List<String> mismatches) {
+        final Kind found = kind_of(value);
+        if (!accepts(found)) {
+            mismatch(path, found, mismatches);
+            return;
+        }
+        if (children != null && value != null) {
+            final Set<String> seen = new HashSet<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final String key = String.valueOf(entry.getKey());
+                seen.add(key);
+                final YamlSchema child = children.get(key);
+                if (child != null) {
+                    child.check(entry.getValue(), child_path(path, key), mismatches);
+                }
+            }
+            check_missing(seen, path, mismatches);
+        }
+    }
+
+    /**
+     * Consomme les événements d'une valeur et vérifie qu'elle respecte le schéma.
+     *
+     * @param events     Les événements, positionnés juste avant la valeur.
+     * @param path       Le chemin de la valeur, pour les messages.
+     * @param mismatches Les différences relevées.
+     * @return Le dernier événement de la valeur, ou {@code null} si elle contient un alias: sa structure
+     * ne peut alors être connue qu'en la construisant.
+     */
+    Event check(Iterator<Event> events, String path, List<String> mismatches) {
+        final Event first = events.next();
+        if (first instanceof AliasEvent) {
+            return null;
+        }
+        final Kind found = kind_of(first);
+        if (!accepts(found)) {
+            mismatch(path, found, mismatches);
+            return ANY.skip(first, events);
+        }
+        if (children == null || !(first instanceof MappingStartEvent)) {
+            return skip(first, events);
+        }
+        final Set<String> seen = new HashSet<>();
+        Event key;
+        while (!((key = events.next()) instanceof MappingEndEvent)) {
+            final YamlSchema child;
+            final String name;
+            if (key instanceof ScalarEvent) {
+                name = ((ScalarEvent) key).getValue();
+                seen.add(name);
+                child = children.get(name);
+            } else if (skip(key, events) != null) {
+                // Clé complexe, qui ne peut correspondre à aucune clé du squelette.
+                name = "?";
+                child = null;
+            } else {
+                return null;
+            }
+            if ((child == null ? ANY : child).check(events, child_path(path, name), mismatches) == null) {
+                return null;
+            }
+        }
+        check_missing(seen, path, mismatches);
+        return key;
+    }
+
+    /**
+     * Consomme les événements d'une valeur, sans rien vérifier.
+     *
+     * @param first  Le premier événement de la valeur.
+     * @param events Les événements suivants.
+     * @return Le dernier événement de la valeur, ou {@code null} si elle contient un alias.
+     */
+    private Event skip(Event first, Iterator<Event> events) {
+        Event event = first;
+        int depth = 0;
+        do {
+            if (event instanceof AliasEvent) {
+                return null;
+            }
+            if (event instanceof CollectionStartEvent) {
+                depth++;
+            } else if (event instanceof CollectionEndEvent) {
+                depth--;
+            }
+            if (depth == 0) {
+                return event;
+            }
+            event = events.next();
+        } while (true);
+    }
+
+    /**
+     * @param key Une clé.
+     * @return Le schéma de la clé, ou {@code null} si elle ne fait pas partie du squelette.
+     */
+    YamlSchema get_child(String key) {
+        return children == null ? null : children.get(key);
+    }
+
+    /**
+     * Relève les clés du squelette absentes d'une map.
+     *
+     * @param seen       Les clés de la map.
+     * @param path       Le chemin de la map.
+     * @param mismatches Les différences relevées.
+     */
+    void check_missing(Set<String> seen, String path, List<String> mismatches) {
+        for (String key : children.keySet()) {
+            if (!seen.contains(key)) {
+                mismatches.add(child_path(path, key) + ": clé absente.");
+            }
+        }
+    }
+
+    private boolean accepts(Kind found) {
+        return kind == Kind.ANY || found == Kind.NULL || found == kind || (kind == Kind.FLOAT && found == Kind.INTEGER);
+    }
+
+    private void mismatch(String path, Kind found, List<String> mismatches) {
+        mismatches.add((path.isEmpty() ? "(racine)" : path) + ": attendu " + kind.description + ", trouvé " + found.description + ".");
+    }
+
+    private static String child_path(String path, String key) {
+        return path.isEmpty() ? key : path + "." + key;
+    }
+
+    /**
+     * @param value Une valeur construite.
+     * @return Son type.
+     */
+    private static Kind kind_of(Object value) {
+        if (value == null) {
+            return Kind.NULL;
+        }
+        if (value instanceof Map) {
+            return Kind.MAPPING;
+        }
+        if (value instanceof List) {
+            return Kind.SEQUENCE;
+        }
+        if (value instanceof String) {
+            return Kind.STRING;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof BigInteger
+                || value instanceof Short || value instanceof Byte) {
+            return Kind.INTEGER;
+        }
+        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            return Kind.FLOAT;
+        }
+        if (value instanceof Boolean) {
+            return Kind.BOOLEAN;
+        }
+        return Kind.OTHER;
+    }
+
+    /**
+     * @param scalar Un scalaire.
+     * @return Son tag, explicite ou résolu d'après sa valeur comme le fait SnakeYAML par défaut.
+     */
+    static Tag tag_of(ScalarEvent scalar) {
+        return scalar.getTag() == null || scalar.getTag().equals("!")
+                ? RESOLVER.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar())
+                : new Tag(scalar.getTag());
+    }
+
+    /**
+     * @param event Le premier événement d'une valeur.
+     * @return Le type de la valeur qui serait construite, tag explicite compris.
+     */
+    private static Kind kind_of(Event event) {
+        if (event instanceof ScalarEvent) {
+            final Tag tag = tag_of((ScalarEvent) event);
+            if (tag.equals(Tag.STR)) {
+                return Kind.STRING;
+            }
+            if (tag.equals(Tag.INT)) {
+                return Kind.INTEGER;
+            }
+            if (tag.equals(Tag.FLOAT)) {
+                return Kind.FLOAT;
+            }
+            if (tag.equals(Tag.BOOL)) {
+                return Kind.BOOLEAN;
+            }
+            return tag.equals(Tag.NULL) ? Kind.NULL : Kind.OTHER;
+        }
+        final String tag = ((CollectionStartEvent) event).getTag();
+        if (event instanceof MappingStartEvent) {
+            return tag == null || tag.equals("!") || Tag.MAP.getValue().equals(tag) ? Kind.MAPPING : Kind.OTHER;
+        }
+        return tag == null || tag.equals("!") || Tag.SEQ.getValue().equals(tag) ? Kind.SEQUENCE : Kind.OTHER;
+    }
+}
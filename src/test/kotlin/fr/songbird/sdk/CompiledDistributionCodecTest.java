@@ -0,0 +1,159 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.CompiledDistributionCodec;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class CompiledDistributionCodecTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompiledDistribution<String> distribution;
+
+    @Before
+    public void init() throws Exception
+    {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(new FavorableCase<>("épée", "sword", 10));
+        fav_case_list.add(FavorableCase.weighted("bouclier", "shield", 0.5));
+        fav_case_list.add(FavorableCase.weighted("bâton", "stick", 89.5));
+        distribution = CompiledDistribution.of(fav_case_list);
+    }
+
+    @Test
+    public void round_trip_through_a_file() throws Exception {
+        final Path path = folder.newFile("loot.bin").toPath();
+        CompiledDistributionCodec.write(distribution, path);
+        final CompiledDistribution<String> reloaded = CompiledDistributionCodec.read(path, name -> name.toUpperCase());
+
+        assert(reloaded.size() == distribution.size());
+        for(int i = 0; i < distribution.size(); i++)
+        {
+            assert(reloaded.get_probability(i) == distribution.get_probability(i));
+            assert(reloaded.get(i).get_weight() == distribution.get(i).get_weight());
+            assert(reloaded.get(i).is_percentage() == distribution.get(i).is_percentage());
+            assert(reloaded.get(i).getItemRef().equals(distribution.get(i).get_item_name().toUpperCase()));
+        }
+
+        final XoroshiroRandomSource first = new XoroshiroRandomSource(5);
+        final XoroshiroRandomSource second = new XoroshiroRandomSource(5);
+        for(int i = 0; i < 10000; i++)
+            assert(reloaded.fire_random_index(first) == distribution.fire_random_index(second)) : "Les tables d'alias diffèrent.";
+    }
+
+    @Test(expected = IOException.class)
+    public void corrupted_payload() throws Exception {
+        final ByteBuffer buffer = CompiledDistributionCodec.encode(distribution);
+        buffer.put(buffer.limit() - 1, (byte) (buffer.get(buffer.limit() - 1) ^ 1));
+        CompiledDistributionCodec.decode(buffer, Function.identity());
+    }
+
+    @Test
+    public void trailing_bytes_are_rejected() throws Exception {
+        final Path path = folder.newFile("trailing.bin").toPath();
+        CompiledDistributionCodec.write(distribution, path);
+        Files.write(path, new byte[]{0}, StandardOpenOption.APPEND);
+        try {
+            CompiledDistributionCodec.read(path, Function.identity());
+            assert(false) : "La taille du fichier ne correspond pas à l'en-tête.";
+        } catch (IOException e) {
+            // Attendu.
+        }
+
+        // Des octets en trop annoncés par l'en-tête, avec une somme de contrôle correcte.
+        final ByteBuffer encoded = CompiledDistributionCodec.encode(distribution);
+        final ByteBuffer padded = ByteBuffer.allocate(encoded.remaining() + 1);
+        padded.put(encoded).put((byte) 0);
+        final CRC32 crc = new CRC32();
+        crc.update(padded.array(), 20, padded.capacity() - 20);
+        padded.putInt(12, padded.capacity() - 20).putInt(16, (int) crc.getValue());
+        padded.position(0);
+        try {
+            CompiledDistributionCodec.decode(padded, Function.identity());
+            assert(false) : "Les octets après la table des noms ont été ignorés.";
+        } catch (IOException e) {
+            // Attendu.
+        }
+    }
+
+    @Test
+    public void write_replaces_the_file_atomically() throws Exception {
+        final Path path = folder.newFile("replaced.bin").toPath();
+        Files.write(path, new byte[]{1, 2, 3});
+        CompiledDistributionCodec.write(distribution, path);
+        assert(CompiledDistributionCodec.read(path, Function.identity()).size() == distribution.size());
+        assert(folder.getRoot().list().length == 1) : "Le fichier temporaire n'a pas été renommé.";
+    }
+
+    @Test(expected = IOException.class)
+    public void unknown_version() throws Exception {
+        final ByteBuffer buffer = CompiledDistributionCodec.encode(distribution);
+        buffer.putShort(4, (short) (CompiledDistributionCodec.VERSION + 1));
+        CompiledDistributionCodec.decode(buffer, Function.identity());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void unnamed_items_cannot_be_encoded() throws Exception {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(new FavorableCase<>(null, "foo", 50));
+        CompiledDistributionCodec.encode(CompiledDistribution.of(fav_case_list));
+    }
+
+    @Test
+    public void blank_or_duplicate_names_cannot_be_encoded() throws Exception {
+        final List<FavorableCase<String>> duplicates = new ArrayList<>();
+        duplicates.add(FavorableCase.weighted("épée", "sword", 1.0));
+        duplicates.add(FavorableCase.weighted("épée", "long sword", 1.0));
+        final List<List<FavorableCase<String>>> tables = Arrays.asList(
+                FavorableCase.as_fav_case_list("foo", 50, "bar"), duplicates);
+        for(List<FavorableCase<String>> fav_case_list : tables)
+        {
+            try {
+                CompiledDistributionCodec.encode(CompiledDistribution.of(fav_case_list));
+                assert(false) : "Les items ne pourraient pas être distingués au chargement.";
+            } catch (RuntimeException e) {
+                // Attendu.
+            }
+        }
+    }
+}
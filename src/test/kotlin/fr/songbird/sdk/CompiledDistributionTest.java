@@ -0,0 +1,160 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.ProbabilityManager;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class CompiledDistributionTest {
+
+    private List<FavorableCase<String>> fav_case_list;
+
+    @Before
+    public void init() throws Exception
+    {
+        fav_case_list = new ArrayList<>();
+        fav_case_list.add(new FavorableCase<>("foo", "foo", 10));
+        fav_case_list.add(new FavorableCase<>("bar", "bar", 30));
+    }
+
+    @Test
+    public void compile_freezes_the_list() throws Exception {
+        final ProbabilityManager<String> proba_manager = new ProbabilityManager<>(fav_case_list);
+        final CompiledDistribution<String> distribution = proba_manager.compile();
+        fav_case_list.add(new FavorableCase<>("baz", "baz", 40));
+
+        assert(distribution.size() == 2) : "distribution.size() == " + distribution.size();
+        assert(Math.abs(distribution.get_probability(0) - 0.25) < 1e-9);
+        assert(Math.abs(distribution.get_probability(1) - 0.75) < 1e-9);
+        for(int i = 0; i < 1000; i++)
+            assert(!proba_manager.fire_random_item().getItemRef().equals("baz")) : "La liste n'a pas été figée.";
+    }
+
+    @Test
+    public void seeded_draws_are_reproducible() throws Exception {
+        final CompiledDistribution<String> distribution = new ProbabilityManager<>(fav_case_list).compile();
+        final SplittableRandomSource first = new SplittableRandomSource(117);
+        final SplittableRandomSource second = new SplittableRandomSource(117);
+        for(int i = 0; i < 1000; i++)
+            assert(distribution.fire_random_index(first) == distribution.fire_random_index(second));
+    }
+
+    @Test
+    public void concurrent_draws() throws Exception {
+        final CompiledDistribution<String> distribution = new ProbabilityManager<>(fav_case_list).compile();
+        final AtomicLongArray hits = new AtomicLongArray(distribution.size());
+        final int draws_per_thread = 50000;
+        final Thread[] threads = new Thread[4];
+        for(int i = 0; i < threads.length; i++)
+        {
+            threads[i] = new Thread(() -> {
+                final long[] local_hits = new long[distribution.size()];
+                for(int j = 0; j < draws_per_thread; j++)
+                    local_hits[distribution.fire_random_index()]++;
+                for(int j = 0; j < local_hits.length; j++)
+                    hits.addAndGet(j, local_hits[j]);
+            });
+            threads[i].start();
+        }
+        for(Thread thread : threads)
+            thread.join();
+
+        final long draws = (long) draws_per_thread * threads.length;
+        assert(hits.get(0) + hits.get(1) == draws);
+        assert(Math.abs(hits.get(1) / (double) draws - 0.75) < 0.01) : "hits.get(1) == " + hits.get(1);
+    }
+
+    @Test
+    public void fire_random_indexes_fills_the_slice() throws Exception {
+        final CompiledDistribution<String> distribution = new ProbabilityManager<>(fav_case_list).compile();
+        final int[] indexes = new int[100];
+        Arrays.fill(indexes, -1);
+        distribution.fire_random_indexes(indexes, 10, 80, new SplittableRandomSource(42));
+        for(int i = 0; i < indexes.length; i++)
+        {
+            if(i < 10 || i >= 90)
+                assert(indexes[i] == -1) : "La case " + i + " a été modifiée.";
+            else
+                assert(indexes[i] == 0 || indexes[i] == 1) : "indexes[" + i + "] == " + indexes[i];
+        }
+    }
+
+    @Test
+    public void fire_histogram_counts_every_draw() throws Exception {
+        final CompiledDistribution<String> distribution = new ProbabilityManager<>(fav_case_list).compile();
+        final long[] histogram = new long[distribution.size()];
+        distribution.fire_histogram(histogram, 100000);
+        assert(histogram[0] + histogram[1] == 100000);
+        assert(Math.abs(histogram[0] / 100000.0 - 0.25) < 0.01) : "histogram[0] == " + histogram[0];
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void fire_histogram_too_small() throws Exception {
+        new ProbabilityManager<>(fav_case_list).compile().fire_histogram(new long[1], 10);
+    }
+
+    @Test
+    public void exact_weights_keep_rare_items() throws Exception {
+        final List<FavorableCase<String>> weighted = new ArrayList<>();
+        weighted.add(FavorableCase.weighted("rare", "rare", 0.01));
+        weighted.add(FavorableCase.weighted("common", "common", 99.99));
+        final CompiledDistribution<String> distribution = CompiledDistribution.of(weighted);
+        assert(Math.abs(distribution.get_probability(0) - 0.0001) < 1e-12) : "p == " + distribution.get_probability(0);
+
+        final long[] histogram = new long[2];
+        distribution.fire_histogram(histogram, 1000000, new SplittableRandomSource(1));
+        assert(histogram[0] > 50 && histogram[0] < 150) : "histogram[0] == " + histogram[0];
+    }
+
+    @Test
+    public void large_tables_keep_every_column() throws Exception {
+        final List<FavorableCase<Integer>> items = new ArrayList<>();
+        for(int i = 0; i < 70000; i++)
+            items.add(FavorableCase.weighted(null, i, (long) (i % 7 + 1)));
+        final CompiledDistribution<Integer> distribution = CompiledDistribution.of(items);
+        final long[] histogram = new long[distribution.size()];
+        distribution.fire_histogram(histogram, 2000000, new SplittableRandomSource(2));
+
+        long heaviest = 0;
+        long beyond_16_bits = 0;
+        for(int i = 0; i < histogram.length; i++)
+        {
+            if(i % 7 == 6)
+                heaviest += histogram[i];
+            if(i >= 65536)
+                beyond_16_bits += histogram[i];
+        }
+        assert(Math.abs(heaviest / 2000000.0 - 0.25) < 0.005) : "heaviest == " + heaviest;
+        assert(Math.abs(beyond_16_bits / 2000000.0 - 4464 * 4 / 280000.0) < 0.002) : "beyond_16_bits == " + beyond_16_bits;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.ConditionalDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class ConditionalDistributionTest {
+
+    private ConditionalDistribution<Integer, String> loot;
+
+    @Before
+    public void init() throws Exception
+    {
+        loot = new ConditionalDistribution<Integer, String>(2)
+                .add_item(FavorableCase.weighted("stick", "stick", 90.0))
+                .add_item(FavorableCase.weighted("sword", "sword", 1L), level -> level >= 10 ? 10 : 0);
+    }
+
+    @Test
+    public void weights_depend_on_the_context() {
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(6);
+        for(int i = 0; i < 10000; i++)
+            assert(loot.fire_random_item(1, random).getItemRef().equals("stick")) : "L'épée est réservée au niveau 10.";
+        final CompiledDistribution<String> high_level = loot.compile(10);
+        assert(Math.abs(high_level.get_probability(1) - 0.1) < 1e-12);
+    }
+
+    @Test
+    public void repeated_contexts_reuse_the_compiled_table() {
+        final CompiledDistribution<String> first = loot.compile(10);
+        assert(loot.compile(10) == first);
+        assert(loot.get_compilations() == 1);
+        assert(loot.get_cache_hits() == 1);
+    }
+
+    @Test
+    public void least_recently_used_context_is_evicted() {
+        final CompiledDistribution<String> level_1 = loot.compile(1);
+        loot.compile(2);
+        loot.compile(1);
+        loot.compile(3);
+        assert(loot.get_cache_size() == 2);
+        assert(loot.compile(1) == level_1) : "Le contexte 1 a été utilisé plus récemment que le contexte 2.";
+        loot.compile(2);
+        assert(loot.get_compilations() == 4);
+    }
+
+    @Test
+    public void concurrent_draws_share_the_cache() throws Exception {
+        loot.compile(1);
+        final Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++)
+        {
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 10000; i++)
+                    loot.fire_random_item(1 + i % 2);
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads)
+            thread.join();
+        assert(loot.get_cache_size() == 2);
+        assert(loot.get_cache_hits() + loot.get_compilations() == 40001) : loot.get_cache_hits() + " + " + loot.get_compilations();
+    }
+
+    @Test
+    public void invalidation_during_compilation_discards_the_table() throws Exception {
+        final AtomicInteger config = new AtomicInteger(1);
+        final CountDownLatch compiling = new CountDownLatch(1);
+        final CountDownLatch invalidated = new CountDownLatch(1);
+        final ConditionalDistribution<Integer, String> reloaded = new ConditionalDistribution<Integer, String>(4)
+                .add_item(FavorableCase.weighted("stick", "stick", 1L))
+                .add_item(FavorableCase.weighted("sword", "sword", 1L), level -> {
+                    final int weight = config.get();
+                    compiling.countDown();
+                    try
+                    {
+                        invalidated.await();
+                    }catch(InterruptedException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    return weight;
+                });
+        final Thread compiler = new Thread(() -> reloaded.compile(1));
+        compiler.start();
+        compiling.await();
+        // La configuration est rechargée pendant la compilation.
+        config.set(3);
+        reloaded.invalidate();
+        invalidated.countDown();
+        compiler.join();
+        assert(reloaded.get_cache_size() == 0) : "La table périmée a été mise en cache.";
+        assert(Math.abs(reloaded.compile(1).get_probability(1) - 0.75) < 1e-12);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void items_are_frozen_after_compilation() throws Exception {
+        loot.compile(1);
+        loot.add_item(FavorableCase.weighted("shield", "shield", 1L));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.DistributionAnalytics;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.IntDistribution;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class DistributionAnalyticsTest {
+
+    private static final IntDistribution D6 = new IntDistribution(new int[]{1, 2, 3, 4, 5, 6}, new double[]{1, 1, 1, 1, 1, 1});
+
+    @Test
+    public void moments_cdf_and_quantiles() {
+        final DistributionAnalytics roll = DistributionAnalytics.of(D6);
+        assert(Math.abs(roll.get_mean() - 3.5) < 1e-12);
+        assert(Math.abs(roll.get_variance() - 35 / 12.0) < 1e-12);
+        assert(Math.abs(roll.get_moment(2) - 91 / 6.0) < 1e-12);
+        assert(roll.get_cdf(0.5) == 0);
+        assert(Math.abs(roll.get_cdf(3) - 0.5) < 1e-12);
+        assert(roll.get_cdf(6) == 1);
+        assert(roll.get_quantile(0.5) == 3);
+        assert(roll.get_quantile(0.51) == 4);
+        assert(roll.get_quantile(1) == 6);
+        assert(roll.get_quantile(0) == 1);
+    }
+
+    @Test
+    public void duplicated_values_are_merged() {
+        final DistributionAnalytics analytics = DistributionAnalytics.of(new double[]{2, 1, 2, 5}, new double[]{1, 1, 1, 0});
+        assert(analytics.size() == 2);
+        assert(analytics.get_value(0) == 1 && analytics.get_value(1) == 2);
+        assert(Math.abs(analytics.get_probability(1) - 2 / 3.0) < 1e-12);
+    }
+
+    @Test
+    public void sum_of_rolls() {
+        final DistributionAnalytics two_rolls = DistributionAnalytics.of(D6).sum_of(2);
+        assert(two_rolls.size() == 11);
+        assert(two_rolls.get_value(0) == 2);
+        assert(Math.abs(two_rolls.get_probability(5) - 6 / 36.0) < 1e-12);
+
+        final DistributionAnalytics ten_rolls = DistributionAnalytics.of(D6).sum_of(10);
+        assert(Math.abs(ten_rolls.get_mean() - 35) < 1e-9);
+        assert(Math.abs(ten_rolls.get_variance() - 10 * 35 / 12.0) < 1e-9);
+        assert(Math.abs(ten_rolls.get_probability(0) - Math.pow(6, -10)) < 1e-15);
+    }
+
+    @Test
+    public void fft_convolution_matches_the_direct_one() {
+        final int[] values = new int[300];
+        final double[] weights = new double[300];
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = i * 2;
+            weights[i] = 1 + i % 5;
+        }
+        final DistributionAnalytics large = DistributionAnalytics.of(new IntDistribution(values, weights));
+        final DistributionAnalytics sum = large.sum_of(3);
+        assert(Math.abs(sum.get_mean() - 3 * large.get_mean()) < 1e-6);
+        assert(Math.abs(sum.get_variance() - 3 * large.get_variance()) < 1e-4 * sum.get_variance());
+        // Seules les sommes paires sont possibles.
+        for(int i = 0; i < sum.size(); i++)
+            assert(sum.get_value(i) % 2 == 0) : "value == " + sum.get_value(i);
+    }
+
+    @Test
+    public void items_with_a_value() throws Exception {
+        final List<FavorableCase<Integer>> gold = new ArrayList<>();
+        gold.add(FavorableCase.weighted("small", 10, 3L));
+        gold.add(FavorableCase.weighted("big", 100, 1L));
+        final DistributionAnalytics analytics = DistributionAnalytics.of(CompiledDistribution.of(gold), Integer::doubleValue);
+        assert(Math.abs(analytics.get_mean() - 32.5) < 1e-12);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void sum_requires_integer_values() {
+        DistributionAnalytics.of(new double[]{0.5, 1}, new double[]{1, 1}).sum_of(2);
+    }
+}
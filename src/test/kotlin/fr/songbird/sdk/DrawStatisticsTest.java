@@ -0,0 +1,97 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.DrawMetrics;
+import fr.songbird.sdk.probabuilder.DrawStatistics;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.ProbabilityManager;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class DrawStatisticsTest {
+
+    private ProbabilityManager<String> proba_manager;
+
+    @Before
+    public void init() throws Exception
+    {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(new FavorableCase<>("foo", "foo", 10));
+        fav_case_list.add(new FavorableCase<>("bar", "bar", 30));
+        fav_case_list.add(new FavorableCase<>("baz", "baz", 60));
+        proba_manager = new ProbabilityManager<>(fav_case_list);
+    }
+
+    @Test
+    public void metrics_are_disabled_by_default() {
+        assert(proba_manager.get_metrics() == DrawMetrics.none());
+        assert(!DrawMetrics.none().is_timed());
+    }
+
+    @Test
+    public void hits_and_latencies() {
+        final DrawStatistics statistics = new DrawStatistics(proba_manager.get_compiled().size(), true);
+        proba_manager.set_metrics(statistics);
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(3);
+        final long[] expected = new long[3];
+        for(int i = 0; i < 100000; i++)
+        {
+            final String item = proba_manager.fire_random_item(random).getItemRef();
+            expected[item.equals("foo") ? 0 : item.equals("bar") ? 1 : 2]++;
+        }
+        assert(statistics.get_draws() == 100000);
+        for(int i = 0; i < 3; i++)
+            assert(statistics.get_hits(i) == expected[i]) : "hits[" + i + "] == " + statistics.get_hits(i);
+
+        long timed = 0;
+        for(long count : statistics.get_latency_histogram())
+            timed += count;
+        assert(timed == 100000);
+        assert(statistics.get_latency_quantile(0.5) <= statistics.get_latency_quantile(1));
+    }
+
+    @Test
+    public void drift_check() throws Exception {
+        final DrawStatistics statistics = new DrawStatistics(3);
+        proba_manager.set_metrics(statistics);
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(4);
+        for(int i = 0; i < 100000; i++)
+            proba_manager.fire_random_item(random);
+        final double p_value = statistics.get_drift_p_value(proba_manager.get_compiled());
+        assert(p_value > 0.001) : "p_value == " + p_value;
+
+        final List<FavorableCase<String>> drifted = new ArrayList<>();
+        drifted.add(new FavorableCase<>("foo", "foo", 12));
+        drifted.add(new FavorableCase<>("bar", "bar", 30));
+        drifted.add(new FavorableCase<>("baz", "baz", 58));
+        final double drifted_p_value = statistics.get_drift_p_value(CompiledDistribution.of(drifted));
+        assert(drifted_p_value < 1e-6) : "drifted_p_value == " + drifted_p_value;
+    }
+}
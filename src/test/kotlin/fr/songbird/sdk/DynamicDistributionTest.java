@@ -0,0 +1,134 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.DynamicDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static fr.songbird.sdk.probabuilder.FavorableCase.as_fav_case_list;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class DynamicDistributionTest {
+
+    @Test
+    public void reweight_changes_frequencies() throws Exception {
+        final DynamicDistribution<String> distribution = new DynamicDistribution<>(as_fav_case_list("foo", 10, "bar"));
+        assert(distribution.get_total_weight() == 20);
+        distribution.reweight(1, 30);
+        assert(distribution.get_total_weight() == 40);
+
+        final SplittableRandomSource random = new SplittableRandomSource(7);
+        final long[] hits = new long[2];
+        for(int i = 0; i < 40000; i++)
+            hits[distribution.fire_random_index(random)]++;
+        assert(Math.abs(hits[1] / 40000.0 - 0.75) < 0.01) : "hits[1] == " + hits[1];
+    }
+
+    @Test
+    public void zero_weight_is_never_drawn() throws Exception {
+        final DynamicDistribution<String> distribution = new DynamicDistribution<>(as_fav_case_list("foo", 10, "bar", "baz"));
+        distribution.reweight(0, 0);
+        distribution.reweight(2, 0);
+        for(int i = 0; i < 1000; i++)
+            assert(distribution.fire_random_item().getItemRef().equals("bar"));
+    }
+
+    @Test
+    public void removed_slot_is_reused() throws Exception {
+        final DynamicDistribution<String> distribution = new DynamicDistribution<>(2);
+        final int foo = distribution.add(new FavorableCase<>("foo", "foo", 10), 10);
+        distribution.add(new FavorableCase<>("bar", "bar", 10), 10);
+        assert(distribution.remove(foo).getItemRef().equals("foo"));
+        assert(distribution.size() == 1);
+        assert(distribution.get_total_weight() == 10);
+
+        final int baz = distribution.add(new FavorableCase<>("baz", "baz", 10), 5);
+        assert(baz == foo) : "baz == " + baz;
+        assert(distribution.get(baz).getItemRef().equals("baz"));
+        assert(distribution.get_total_weight() == 15);
+    }
+
+    @Test
+    public void large_table_keeps_consistent_sums() throws Exception {
+        final DynamicDistribution<Integer> distribution = new DynamicDistribution<>();
+        final FavorableCase<Integer> item = new FavorableCase<>("item", 0, 1);
+        for(int i = 0; i < 100000; i++)
+            distribution.add(item, 1);
+        for(int i = 0; i < 100000; i += 2)
+            distribution.reweight(i, 0);
+        distribution.reweight(99999, 50001);
+        assert(distribution.get_total_weight() == 100000) : "total == " + distribution.get_total_weight();
+
+        final SplittableRandomSource random = new SplittableRandomSource(3);
+        for(int i = 0; i < 1000; i++)
+        {
+            final int index = distribution.fire_random_index(random);
+            assert(index % 2 == 1) : "L'indice " + index + " a un poids nul.";
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void empty_distribution_cannot_be_drawn()
+    {
+        new DynamicDistribution<String>().fire_random_item();
+    }
+
+    @Test
+    public void invalid_lists_are_rejected() throws Exception {
+        final List<FavorableCase<String>> with_null = new ArrayList<>(as_fav_case_list("foo", 10, "bar"));
+        with_null.add(null);
+        final List<FavorableCase<String>> overflowing = Arrays.asList(
+                FavorableCase.weighted("foo", "foo", 9e18), FavorableCase.weighted("bar", "bar", 9e18));
+        for(List<FavorableCase<String>> fav_case : Arrays.asList(with_null, overflowing))
+        {
+            try {
+                new DynamicDistribution<>(fav_case);
+                assert(false);
+            } catch (RuntimeException e) {
+                assert(!(e instanceof ArithmeticException) && !(e instanceof NullPointerException)) : e;
+            }
+        }
+    }
+
+    @Test
+    public void overflowing_add_leaves_no_phantom_item() throws Exception {
+        final DynamicDistribution<String> distribution = new DynamicDistribution<>(1);
+        distribution.add(FavorableCase.weighted("foo", "foo", 1L), Long.MAX_VALUE - 1);
+        try {
+            distribution.add(FavorableCase.weighted("bar", "bar", 1L), 2);
+            assert(false);
+        } catch (RuntimeException e) {
+            assert(!(e instanceof ArithmeticException)) : e;
+        }
+        assert(distribution.size() == 1);
+        assert(distribution.get(1) == null);
+        assert(distribution.add(FavorableCase.weighted("baz", "baz", 1L), 1) == 1);
+        assert(distribution.size() == 2 && distribution.get_total_weight() == Long.MAX_VALUE);
+    }
+}
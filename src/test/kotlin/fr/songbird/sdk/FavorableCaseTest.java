@@ -108,6 +108,38 @@ public class FavorableCaseTest {
         final Integer favorable_case_to_int = f.get_favorable_case_to_int(100);
     }
 
+    @Test
+    public void weighted_favorable_case() throws Exception {
+        final FavorableCase<String> rare = FavorableCase.weighted("rare", "item content", 0.01);
+        final FavorableCase<String> common = FavorableCase.weighted("common", "item content", 9999L);
+        assert(!rare.is_percentage());
+        assert(rare.get_weight() == 0.01);
+        assert(common.get_weight() == 9999);
+        assert(rare.copy().get_weight() == 0.01);
+        assert(new FavorableCase<>("my awesome item", "item content", 10).get_weight() == 10);
+    }
+
+    @Test(expected = Exception.class)
+    public void null_weight() throws Exception {
+        FavorableCase.weighted("my awesome item", "item content", 0.0);
+    }
+
+    @Test(expected = Exception.class)
+    public void nan_weight() throws Exception {
+        FavorableCase.weighted("my awesome item", "item content", Double.NaN);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void inexact_long_weight() throws Exception {
+        assert(FavorableCase.weighted("exact", "item content", FavorableCase.MAX_EXACT_WEIGHT).get_weight() == FavorableCase.MAX_EXACT_WEIGHT);
+        FavorableCase.weighted("my awesome item", "item content", FavorableCase.MAX_EXACT_WEIGHT + 1);
+    }
+
+    @Test(expected = Exception.class)
+    public void weighted_favorable_case_has_no_favorable_case_to_int() throws Exception {
+        FavorableCase.weighted("my awesome item", "item content", 10L).get_favorable_case_to_int(100);
+    }
+
     @Test
     public void cloned_object_test() throws Exception {
 
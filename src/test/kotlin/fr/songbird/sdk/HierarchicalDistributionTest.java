@@ -0,0 +1,131 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.HierarchicalDistribution;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class HierarchicalDistributionTest {
+
+    private static HierarchicalDistribution<String> tier(String... names) throws Exception
+    {
+        final HierarchicalDistribution<String> tier = new HierarchicalDistribution<>();
+        for(String name : names)
+            tier.add_item(FavorableCase.weighted(name, name, 1L));
+        return tier;
+    }
+
+    @Test
+    public void static_tree_is_flattened() throws Exception {
+        final HierarchicalDistribution<String> loot = new HierarchicalDistribution<String>()
+                .add_table("common", 3, tier("stick", "stone"))
+                .add_table("rare", 1, tier("sword"));
+        assert(loot.is_static());
+
+        final CompiledDistribution<String> flat = loot.flatten();
+        assert(flat.size() == 3);
+        assert(Math.abs(flat.get_probability(0) - 0.375) < 1e-12);
+        assert(Math.abs(flat.get_probability(2) - 0.25) < 1e-12);
+
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(3);
+        int swords = 0;
+        for(int i = 0; i < 40000; i++)
+            if(loot.fire_random_item(random).getItemRef().equals("sword"))
+                swords++;
+        assert(Math.abs(swords / 40000.0 - 0.25) < 0.01) : "swords == " + swords;
+    }
+
+    @Test
+    public void flattened_sub_tables_are_frozen() throws Exception {
+        final HierarchicalDistribution<String> rare = tier("sword");
+        final HierarchicalDistribution<String> loot = new HierarchicalDistribution<String>()
+                .add_table("common", 3, tier("stick"))
+                .add_table("rare", 1, rare);
+        // Un simple aplatissement ne fige rien.
+        loot.flatten();
+        rare.add_item(FavorableCase.weighted("shield", "shield", 1L));
+
+        loot.fire_random_item(new XoroshiroRandomSource(1));
+        try {
+            rare.add_item(FavorableCase.weighted("bow", "bow", 1L));
+            assert(false) : "La sous-table aplatie dans sa parente a été modifiée.";
+        } catch (RuntimeException e) {
+            assert(e.getMessage().contains("ne peut plus être modifiée"));
+        }
+    }
+
+    @Test
+    public void lazy_table_is_resolved_once() throws Exception {
+        final AtomicInteger resolutions = new AtomicInteger();
+        final HierarchicalDistribution<String> loot = new HierarchicalDistribution<String>()
+                .add_item(FavorableCase.weighted("stick", "stick", 9L))
+                .add_table("rare", 1, () -> {
+                    resolutions.incrementAndGet();
+                    try
+                    {
+                        return tier("sword", "shield");
+                    }catch(Exception e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                });
+        assert(!loot.is_static());
+
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(5);
+        final Map<String, Integer> hits = new HashMap<>();
+        for(int i = 0; i < 40000; i++)
+            hits.merge(loot.fire_random_item(random).getItemRef(), 1, Integer::sum);
+        assert(resolutions.get() == 1) : "resolutions == " + resolutions.get();
+        assert(Math.abs(hits.get("sword") / 40000.0 - 0.05) < 0.01) : "hits == " + hits;
+        assert(Math.abs(hits.get("stick") / 40000.0 - 0.9) < 0.01) : "hits == " + hits;
+    }
+
+    @Test
+    public void lazy_table_is_not_resolved_before_use() throws Exception {
+        final AtomicInteger resolutions = new AtomicInteger();
+        final HierarchicalDistribution<String> loot = new HierarchicalDistribution<String>()
+                .add_item(FavorableCase.weighted("stick", "stick", 1L))
+                .add_table("never", 1e-300, () -> {
+                    resolutions.incrementAndGet();
+                    return null;
+                });
+        for(int i = 0; i < 1000; i++)
+            loot.fire_random_item();
+        assert(resolutions.get() == 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void compiled_table_is_frozen() throws Exception {
+        final HierarchicalDistribution<String> loot = tier("stick");
+        loot.fire_random_item();
+        loot.add_item(FavorableCase.weighted("stone", "stone", 1L));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.MonteCarloSimulation;
+import fr.songbird.sdk.probabuilder.SimulationResult;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class MonteCarloSimulationTest {
+
+    private CompiledDistribution<String> distribution;
+
+    @Before
+    public void init() throws Exception
+    {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(FavorableCase.weighted("rare", "rare", 1L));
+        fav_case_list.add(FavorableCase.weighted("common", "common", 9L));
+        distribution = CompiledDistribution.of(fav_case_list);
+    }
+
+    @Test
+    public void single_draw_frequencies()
+    {
+        final MonteCarloSimulation simulation = new MonteCarloSimulation(2, MonteCarloSimulation.single_draw(distribution));
+        final SimulationResult result = simulation.run(200000, new XoroshiroRandomSource(1));
+        assert(result.get_trials() == 200000);
+        assert(result.get_count(0) + result.get_count(1) == 200000);
+        assert(Math.abs(result.get_probability(0) - 0.1) < 0.005) : "p == " + result.get_probability(0);
+    }
+
+    @Test
+    public void same_seed_same_result()
+    {
+        final MonteCarloSimulation simulation = new MonteCarloSimulation(2, MonteCarloSimulation.single_draw(distribution));
+        final long[] first = simulation.run(100000, new XoroshiroRandomSource(42)).get_histogram();
+        final long[] second = simulation.run(100000, new XoroshiroRandomSource(42)).get_histogram();
+        assert(Arrays.equals(first, second)) : Arrays.toString(first) + " != " + Arrays.toString(second);
+    }
+
+    @Test
+    public void result_does_not_depend_on_the_pool()
+    {
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final ForkJoinPool several = new ForkJoinPool(8);
+        try
+        {
+            final MonteCarloSimulation.Trial trial = MonteCarloSimulation.draws_until(distribution, 0, 2);
+            final SimulationResult first = new MonteCarloSimulation(3, trial, single).run(200000, new XoroshiroRandomSource(42L));
+            final SimulationResult second = new MonteCarloSimulation(3, trial, several).run(200000, new XoroshiroRandomSource(42L));
+            assert(Arrays.equals(first.get_histogram(), second.get_histogram()))
+                    : Arrays.toString(first.get_histogram()) + " != " + Arrays.toString(second.get_histogram());
+
+            final SimulationResult first_converged = new MonteCarloSimulation(3, trial, single)
+                    .run_until_converged(0.001, 2000000L, new XoroshiroRandomSource(42L));
+            final SimulationResult second_converged = new MonteCarloSimulation(3, trial, several)
+                    .run_until_converged(0.001, 2000000L, new XoroshiroRandomSource(42L));
+            assert(first_converged.get_trials() == second_converged.get_trials());
+            assert(Arrays.equals(first_converged.get_histogram(), second_converged.get_histogram()));
+        }finally
+        {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    public void expected_time_to_item()
+    {
+        // Loi géométrique: 9 tirages ratés en moyenne avant d'obtenir l'item rare.
+        final MonteCarloSimulation simulation = new MonteCarloSimulation(201, MonteCarloSimulation.draws_until(distribution, 0, 200));
+        final SimulationResult result = simulation.run_until_converged(0.002, 10000000L, new XoroshiroRandomSource(7));
+        assert(result.get_max_probability_half_width() <= 0.002 || result.get_trials() == 10000000L);
+        assert(Math.abs(result.get_mean() - 9) < 4 * result.get_mean_half_width() + 0.05) : "mean == " + result.get_mean();
+    }
+
+    @Test
+    public void unobserved_outcomes_are_not_converged()
+    {
+        final MonteCarloSimulation simulation = new MonteCarloSimulation(201, MonteCarloSimulation.draws_until(distribution, 0, 200));
+        final SimulationResult result = simulation.run(100, new XoroshiroRandomSource(3));
+        assert(result.get_count(200) == 0);
+        // Intervalle de Wilson: z²/2n environ pour une issue jamais observée, et non 0.
+        assert(result.get_probability_half_width(200) > 0.015) : result.get_probability_half_width(200);
+        assert(result.get_probability_half_width(200) < 0.025) : result.get_probability_half_width(200);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void outcome_out_of_range()
+    {
+        new MonteCarloSimulation(1, random -> 1).run(10, new XoroshiroRandomSource(7));
+    }
+}
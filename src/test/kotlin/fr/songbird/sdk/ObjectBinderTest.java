@@ -0,0 +1,171 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import com.jsoniter.JsonIterator;
+import fr.songbird.sdk.stringparser.ObjectBinder;
+import fr.songbird.sdk.stringparser.YamlFileWrapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class ObjectBinderTest {
+
+    public enum Rarity { COMMON, RARE }
+
+    public static class Item {
+        public String name;
+        public double weight;
+        public Rarity rarity;
+    }
+
+    public static class Config {
+        public String title;
+        private int version = 1;
+        public long seed;
+        public boolean enabled;
+        public Float ratio;
+        public char symbol;
+        public List<Item> items;
+        public Map<String, Integer> limits;
+        public Object extra;
+        public Config parent;
+        public transient String ignored = "ignored";
+
+        int get_version() {
+            return version;
+        }
+    }
+
+    public static class NoDefaultConstructor {
+        public NoDefaultConstructor(int value) {
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String YAML = "title: loot\nseed: 0x10\nenabled: yes\nratio: 1_000.5\nsymbol: '$'\n"
+            + "items:\n- {name: sword, weight: 1, rarity: RARE}\n- name: shield\n  weight: .5\n  rarity: COMMON\n  unknown: [1, {a: 2}]\n"
+            + "limits: {daily: 3, weekly: 12}\nextra: {list: [1, 2.5, true, text, ~]}\nparent: {title: base, version: 7}\n"
+            + "ignored: changed\nunknown: value\n";
+
+    private static void check(Config config) {
+        assert(config.title.equals("loot"));
+        assert(config.get_version() == 1);
+        assert(config.seed == 16);
+        assert(config.enabled);
+        assert(config.ratio == 1000.5f);
+        assert(config.symbol == '$');
+        assert(config.items.size() == 2);
+        assert(config.items.get(0).name.equals("sword") && config.items.get(0).weight == 1 && config.items.get(0).rarity == Rarity.RARE);
+        assert(config.items.get(1).name.equals("shield") && config.items.get(1).weight == 0.5 && config.items.get(1).rarity == Rarity.COMMON);
+        assert(config.limits.get("daily") == 3 && config.limits.get("weekly") == 12);
+        assert(config.parent.title.equals("base") && config.parent.get_version() == 7 && config.parent.items == null);
+        assert(config.ignored.equals("ignored"));
+    }
+
+    @Test
+    public void read_yaml() throws Exception {
+        final Config config = ObjectBinder.of(Config.class).read_yaml(new StringReader(YAML));
+        check(config);
+        final Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("list", Arrays.asList(1, 2.5, true, "text", null));
+        assert(config.extra.equals(extra)) : config.extra;
+    }
+
+    @Test
+    public void read_json() throws Exception {
+        final String json = "{\"title\": \"loot\", \"seed\": 16, \"enabled\": true, \"ratio\": 1000.5, \"symbol\": \"$\","
+                + "\"items\": [{\"name\": \"sword\", \"weight\": 1, \"rarity\": \"RARE\"},"
+                + "{\"name\": \"shield\", \"weight\": 0.5, \"rarity\": \"COMMON\", \"unknown\": [1, {\"a\": 2}]}],"
+                + "\"limits\": {\"daily\": 3, \"weekly\": 12}, \"extra\": {\"list\": [1, \"text\", null]},"
+                + "\"parent\": {\"title\": \"base\", \"version\": 7}, \"ignored\": \"changed\", \"unknown\": null}";
+        final ObjectBinder<Config> binder = ObjectBinder.of(Config.class);
+        check(binder.read_json(json.getBytes(StandardCharsets.UTF_8)));
+
+        binder.register_json_decoder();
+        check(JsonIterator.deserialize(json.getBytes(StandardCharsets.UTF_8), Config.class));
+    }
+
+    @Test
+    public void binders_are_cached() {
+        assert(ObjectBinder.of(Config.class) == ObjectBinder.of(Config.class));
+        assert(ObjectBinder.of(Item.class).get_type() == Item.class);
+    }
+
+    @Test
+    public void invalid_documents() throws Exception {
+        final ObjectBinder<Config> binder = ObjectBinder.of(Config.class);
+        for(String yaml : new String[]{"version: ten\n", "items: {a: 1}\n", "symbol: ab\n", "items:\n- rarity: EPIC\n",
+                "title: &t a\nparent: {title: *t}\n", "title: [unclosed\n"})
+        {
+            try {
+                binder.read_yaml(new StringReader(yaml));
+                assert(false) : yaml;
+            } catch (IOException e) {
+                // Attendu.
+            }
+        }
+        for(String json : new String[]{"{\"version\": \"ten\"}", "{\"version\": 2} garbage", "{\"version\": 2}}", "null {}"})
+        {
+            try {
+                binder.read_json(json.getBytes(StandardCharsets.UTF_8));
+                assert(false) : json;
+            } catch (IOException e) {
+                // Attendu.
+            }
+        }
+        assert(binder.read_json("{\"version\": 2}\n \t".getBytes(StandardCharsets.UTF_8)).get_version() == 2);
+        assert(binder.read_json("null".getBytes(StandardCharsets.UTF_8)) == null);
+        assert(binder.read_yaml(new StringReader("")) == null);
+        assert(binder.read_yaml(new StringReader("# commentaire\n")) == null);
+        // Une valeur nulle laisse les champs primitifs à leur valeur par défaut.
+        assert(binder.read_yaml(new StringReader("version: ~\n")).get_version() == 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void classes_need_a_default_constructor() {
+        ObjectBinder.of(NoDefaultConstructor.class);
+    }
+
+    @Test
+    public void load_as() throws Exception {
+        final File file = new File(folder.getRoot(), "config.yml");
+        final YamlFileWrapper wrapper = new YamlFileWrapper(new Yaml(), file, new LinkedHashMap<>());
+        Files.write(file.toPath(), YAML.getBytes(StandardCharsets.UTF_8));
+        check(wrapper.loadAs(Config.class));
+    }
+}
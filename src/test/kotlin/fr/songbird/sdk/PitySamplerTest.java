@@ -0,0 +1,124 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.PitySampler;
+import fr.songbird.sdk.probabuilder.RandomSource;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class PitySamplerTest {
+
+    private CompiledDistribution<String> distribution;
+
+    @Before
+    public void init() throws Exception
+    {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(FavorableCase.weighted("legendary", "legendary", 1L));
+        fav_case_list.add(FavorableCase.weighted("epic", "epic", 50L));
+        fav_case_list.add(FavorableCase.weighted("common", "common", 949L));
+        distribution = CompiledDistribution.of(fav_case_list);
+    }
+
+    @Test
+    public void hard_pity_guarantees_the_drop() {
+        final PitySampler<String> sampler = new PitySampler<>(distribution)
+                .add_rule(item -> item.getItemRef().equals("legendary"), 0, 0, 20)
+                .add_rule(item -> item.getItemRef().equals("epic"), 0, 0, 5);
+        final long[] states = new long[100];
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(7);
+        final int[] misses = new int[states.length];
+        for(int draw = 0; draw < 200; draw++)
+        {
+            for(int user = 0; user < states.length; user++)
+            {
+                final String item = sampler.fire_random_item(states, user, random).getItemRef();
+                misses[user] = item.equals("legendary") ? 0 : misses[user] + 1;
+                assert(misses[user] < 20) : "Le légendaire aurait dû être garanti.";
+                assert(PitySampler.get_misses(states[user], 0) == misses[user]);
+                assert(PitySampler.get_misses(states[user], 1) < 5 || item.equals("legendary"));
+            }
+        }
+    }
+
+    @Test
+    public void soft_pity_raises_the_rate() {
+        final PitySampler<String> plain = new PitySampler<>(distribution);
+        final PitySampler<String> pity = new PitySampler<>(distribution)
+                .add_rule(item -> item.getItemRef().equals("legendary"), 50, 0.02, 0);
+        assert(legendary_rate(plain) < 0.0015);
+        final double rate = legendary_rate(pity);
+        assert(rate > 0.01) : "rate == " + rate;
+    }
+
+    private static double legendary_rate(PitySampler<String> sampler) {
+        final long[] states = new long[1];
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(8);
+        int legendary = 0;
+        for(int i = 0; i < 200000; i++)
+            if(sampler.fire_random_item(states, 0, random).getItemRef().equals("legendary"))
+                legendary++;
+        return legendary / 200000.0;
+    }
+
+    @Test
+    public void concurrent_updates_are_not_lost() throws Exception {
+        final PitySampler<String> sampler = new PitySampler<>(distribution)
+                .add_rule(item -> !item.getItemRef().equals("common"), 0, 0, 65536);
+        final AtomicLongArray states = new AtomicLongArray(1);
+        final RandomSource root = new XoroshiroRandomSource(9);
+        final int[] non_common = new int[4];
+        final Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++)
+        {
+            final RandomSource random = root.split();
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 5000; i++)
+                    if(!sampler.fire_random_item(states, 0, random).getItemRef().equals("common"))
+                        non_common[thread]++;
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads)
+            thread.join();
+        assert(PitySampler.get_misses(states.get(0), 0) <= 20000);
+        assert(non_common[0] + non_common[1] + non_common[2] + non_common[3] > 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rules_must_not_overlap() {
+        new PitySampler<>(distribution)
+                .add_rule(item -> !item.getItemRef().equals("common"), 0, 0, 10)
+                .add_rule(item -> item.getItemRef().equals("epic"), 0, 0, 10);
+    }
+}
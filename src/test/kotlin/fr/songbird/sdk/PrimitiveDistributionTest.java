@@ -0,0 +1,76 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.DoubleDistribution;
+import fr.songbird.sdk.probabuilder.IntDistribution;
+import fr.songbird.sdk.probabuilder.LongDistribution;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Test;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class PrimitiveDistributionTest {
+
+    @Test
+    public void int_distribution_mean()
+    {
+        final IntDistribution die = new IntDistribution(new int[]{1, 2, 3, 4, 5, 6}, new double[]{1, 1, 1, 1, 1, 1});
+        final int[] rolls = new int[60000];
+        die.fire_random_values(rolls, 0, rolls.length, new XoroshiroRandomSource(1));
+        long sum = 0;
+        for(int roll : rolls)
+        {
+            assert(roll >= 1 && roll <= 6) : "roll == " + roll;
+            sum += roll;
+        }
+        assert(Math.abs(sum / 60000.0 - 3.5) < 0.05) : "mean == " + sum / 60000.0;
+    }
+
+    @Test
+    public void long_distribution_keeps_large_values()
+    {
+        final LongDistribution gold = new LongDistribution(new long[]{Long.MAX_VALUE, 1}, new double[]{1, 0});
+        for(int i = 0; i < 100; i++)
+            assert(gold.fire_random_value() == Long.MAX_VALUE);
+        assert(gold.get_probability(1) == 0);
+    }
+
+    @Test
+    public void double_distribution_probabilities()
+    {
+        final DoubleDistribution multiplier = new DoubleDistribution(new double[]{1.0, 1.5, 2.0}, new double[]{80, 15, 5});
+        assert(multiplier.size() == 3);
+        assert(Math.abs(multiplier.get_probability(0) - 0.8) < 1e-12);
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(2);
+        double sum = 0;
+        for(int i = 0; i < 100000; i++)
+            sum += multiplier.fire_random_value(random);
+        assert(Math.abs(sum / 100000 - 1.125) < 0.01) : "mean == " + sum / 100000;
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void mismatched_weights()
+    {
+        new IntDistribution(new int[]{1, 2}, new double[]{1});
+    }
+}
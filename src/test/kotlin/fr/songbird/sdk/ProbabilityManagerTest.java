@@ -27,6 +27,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 /**
  * Created by anthony on 21/01/17.
@@ -108,6 +115,64 @@ public class ProbabilityManagerTest {
     }
 
 
+    @Test
+    public void fire_random_item_frequencies_test() throws Exception {
+        /**
+         * Les items se partagent 10, 20 et 30 cas favorables sur 60:
+         * on doit donc retrouver à peu près 1/6, 2/6 et 3/6 des tirages.
+         */
+        fav_case_list.add(new FavorableCase<>("foo", "foo", 10));
+        fav_case_list.add(new FavorableCase<>("bar", "bar", 20));
+        fav_case_list.add(new FavorableCase<>("baz", "baz", 30));
+        final ProbabilityManager<String> proba_manager = new ProbabilityManager<>(fav_case_list);
+
+        final int draws = 60000;
+        final Map<String, Integer> hits = new HashMap<>();
+        for(int i = 0; i < draws; i++)
+            hits.merge(proba_manager.fire_random_item().getItemRef(), 1, Integer::sum);
+
+        assert(Math.abs(hits.get("foo") - draws / 6) < draws / 60) : "foo == " + hits.get("foo");
+        assert(Math.abs(hits.get("bar") - draws / 3) < draws / 60) : "bar == " + hits.get("bar");
+        assert(Math.abs(hits.get("baz") - draws / 2) < draws / 60) : "baz == " + hits.get("baz");
+    }
+
+    @Test
+    public void warning_is_logged_once_test() throws Exception {
+        final List<LogRecord> records = new ArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) { records.add(record); }
+            @Override
+            public void flush() {}
+            @Override
+            public void close() {}
+        };
+        final Logger logger = Logger.getLogger(ProbabilityManager.class.getSimpleName());
+        logger.addHandler(handler);
+        try
+        {
+            fav_case_list.add(new FavorableCase<>("foo", "foo", 10));
+            final ProbabilityManager<String> proba_manager = new ProbabilityManager<>(fav_case_list);
+            for(int i = 0; i < 1000; i++)
+                proba_manager.fire_random_item();
+            proba_manager.compile();
+            assert(records.size() == 1) : "records.size() == " + records.size();
+            assert(records.get(0).getLevel() == Level.WARNING);
+            assert(proba_manager.get_favorable_case_sum() == 10);
+        }finally
+        {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void fire_random_item_after_free_test() throws Exception {
+        fav_case_list.add(new FavorableCase<>("foo", "foo", 10));
+        final ProbabilityManager<String> proba_manager = new ProbabilityManager<>(fav_case_list);
+        proba_manager.free();
+        proba_manager.fire_random_item();
+    }
+
     @Test(expected = Exception.class)
     public void favorable_case_list_is_empty_test() throws Exception {
         final ProbabilityManager<String> proba_manager = new ProbabilityManager<>(fav_case_list);
@@ -0,0 +1,80 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.ProbabilityManager;
+import fr.songbird.sdk.probabuilder.ProbabilityTableLoader;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class ProbabilityTableLoaderTest {
+
+    @Test
+    public void yaml_table() throws Exception {
+        final String yaml = "- name: sword\n" +
+                "  percentage: 10\n" +
+                "  comment: {rarity: [rare, shiny]}\n" +
+                "- name: stick\n" +
+                "  percentage: 90\n";
+        final List<FavorableCase<String>> fav_case = ProbabilityTableLoader.read_yaml(new StringReader(yaml), String::toUpperCase);
+        assert(fav_case.size() == 2);
+        assert(fav_case.get(0).getItemRef().equals("SWORD"));
+        assert(fav_case.get(1).get_favorable_case_percentage() == 90);
+        assert(new ProbabilityManager<>(fav_case).get_favorable_case_sum() == 100);
+    }
+
+    @Test
+    public void json_table() throws Exception {
+        final String json = "[{\"name\": \"sword\", \"weight\": 0.5, \"tags\": [1, {\"a\": null}]}, {\"percentage\": 99, \"name\": \"stick\"}]";
+        final CompiledDistribution<String> distribution = ProbabilityTableLoader.compile_json(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Function.identity());
+        assert(distribution.size() == 2);
+        assert(distribution.get(0).get_weight() == 0.5);
+        assert(!distribution.get(0).is_percentage());
+        assert(Math.abs(distribution.get_probability(1) - 99 / 99.5) < 1e-12);
+    }
+
+    @Test(expected = IOException.class)
+    public void yaml_entry_without_chances() throws Exception {
+        ProbabilityTableLoader.read_yaml(new StringReader("- name: sword\n"), Function.identity());
+    }
+
+    @Test(expected = IOException.class)
+    public void yaml_entry_with_both_chances() throws Exception {
+        ProbabilityTableLoader.read_yaml(new StringReader("- {name: sword, weight: 1, percentage: 5}\n"), Function.identity());
+    }
+
+    @Test(expected = IOException.class)
+    public void json_table_must_be_an_array() throws Exception {
+        ProbabilityTableLoader.read_json(new ByteArrayInputStream("{\"name\": \"sword\"}".getBytes(StandardCharsets.UTF_8)), Function.identity());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.RandomSource;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class RandomSourceTest {
+
+    @Test
+    public void seeded_sources_are_reproducible()
+    {
+        final RandomSource[] firsts = { new XoroshiroRandomSource(117), new SplittableRandomSource(117), RandomSource.of(new Random(117)) };
+        final RandomSource[] seconds = { new XoroshiroRandomSource(117), new SplittableRandomSource(117), RandomSource.of(new Random(117)) };
+        for(int i = 0; i < firsts.length; i++)
+            for(int j = 0; j < 1000; j++)
+                assert(firsts[i].next_long() == seconds[i].next_long()) : "La source N°" + i + " n'est pas reproductible.";
+    }
+
+    @Test
+    public void split_is_deterministic_and_independent()
+    {
+        final RandomSource first_root = new XoroshiroRandomSource(42);
+        final RandomSource second_root = new XoroshiroRandomSource(42);
+        final RandomSource first_child = first_root.split();
+        final RandomSource second_child = second_root.split();
+        int collisions = 0;
+        for(int i = 0; i < 1000; i++)
+        {
+            final long child_value = first_child.next_long();
+            assert(child_value == second_child.next_long());
+            if(child_value == first_root.next_long())
+                collisions++;
+            second_root.next_long();
+        }
+        assert(collisions == 0) : "Les deux flux se chevauchent.";
+    }
+
+    @Test
+    public void next_int_stays_in_bounds()
+    {
+        final RandomSource random = new XoroshiroRandomSource(7);
+        final long[] histogram = new long[6];
+        for(int i = 0; i < 60000; i++)
+            histogram[random.next_int(6)]++;
+        for(long count : histogram)
+            assert(Math.abs(count - 10000) < 500) : "count == " + count;
+        for(int i = 0; i < 1000; i++)
+        {
+            final long value = random.next_long(1000000007L);
+            assert(value >= 0 && value < 1000000007L);
+            final double real = random.next_double();
+            assert(real >= 0 && real < 1);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void next_int_rejects_null_bound()
+    {
+        new XoroshiroRandomSource(7).next_int(0);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.PitySampler;
+import fr.songbird.sdk.probabuilder.UserStateStore;
+import fr.songbird.sdk.probabuilder.XoroshiroRandomSource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class UserStateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fields_are_independent() {
+        final UserStateStore states = new UserStateStore(3);
+        states.set_seed(1, 42);
+        states.set_pity_state(1, -1L);
+        states.set_last_draw(2, 1234);
+        assert(states.get_seed(1) == 42);
+        assert(states.get_pity_state(1) == -1L);
+        assert(states.get_last_draw(1) == 0);
+        assert(states.get_last_draw(2) == 1234);
+        assert(states.get_seed(0) == 0 && states.get_pity_state(2) == 0);
+    }
+
+    @Test
+    public void user_random_streams_are_reproducible() {
+        final UserStateStore first = new UserStateStore(1);
+        final UserStateStore second = new UserStateStore(1);
+        first.set_seed(0, 7);
+        second.set_seed(0, 7);
+        for(int i = 0; i < 100; i++)
+            assert(first.next_long(0) == second.next_long(0));
+    }
+
+    @Test
+    public void snapshot_and_restore() throws Exception {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(FavorableCase.weighted("legendary", "legendary", 1L));
+        fav_case_list.add(FavorableCase.weighted("common", "common", 99L));
+        final PitySampler<String> sampler = new PitySampler<>(CompiledDistribution.of(fav_case_list))
+                .add_rule(item -> item.getItemRef().equals("legendary"), 0, 0, 1000);
+        final UserStateStore states = new UserStateStore((1 << 20) + 5);
+        final XoroshiroRandomSource random = new XoroshiroRandomSource(10);
+        for(int i = 0; i < 50; i++)
+        {
+            sampler.fire_random_item(states, 3, random);
+            sampler.fire_random_item(states, (1 << 20) + 4, random);
+        }
+        states.set_seed(17, 99);
+        assert(states.get_last_draw(3) > 0);
+
+        final Path path = folder.newFile("states.bin").toPath();
+        states.snapshot(path);
+        final UserStateStore restored = UserStateStore.restore(path);
+        assert(restored.capacity() == states.capacity());
+        for(int user : new int[]{0, 3, 17, (1 << 20) + 4})
+        {
+            assert(restored.get_pity_state(user) == states.get_pity_state(user));
+            assert(restored.get_last_draw(user) == states.get_last_draw(user));
+            assert(restored.get_seed(user) == states.get_seed(user));
+        }
+        assert(PitySampler.get_misses(restored.get_pity_state(3), 0) > 0 || PitySampler.get_misses(restored.get_pity_state((1 << 20) + 4), 0) > 0);
+    }
+
+    @Test
+    public void snapshot_replaces_the_previous_one() throws Exception {
+        final UserStateStore states = new UserStateStore(10);
+        final Path path = folder.newFile("replaced.bin").toPath();
+        states.set_seed(5, 1);
+        states.snapshot(path);
+        states.set_seed(5, 2);
+        states.snapshot(path);
+        assert(UserStateStore.restore(path).get_seed(5) == 2);
+        assert(folder.getRoot().list().length == 1) : "Le fichier temporaire n'a pas été renommé.";
+    }
+
+    @Test(expected = IOException.class)
+    public void corrupted_snapshot() throws Exception {
+        final UserStateStore states = new UserStateStore(10);
+        states.set_seed(5, 1);
+        final Path path = folder.newFile("corrupted.bin").toPath();
+        states.snapshot(path);
+        try(RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw"))
+        {
+            file.seek(file.length() - 1);
+            file.write(1);
+        }
+        UserStateStore.restore(path);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void user_out_of_bounds() {
+        new UserStateStore(2).get_seed(2);
+    }
+}
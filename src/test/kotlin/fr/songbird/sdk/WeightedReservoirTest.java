@@ -0,0 +1,99 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.probabuilder.CompiledDistribution;
+import fr.songbird.sdk.probabuilder.FavorableCase;
+import fr.songbird.sdk.probabuilder.SplittableRandomSource;
+import fr.songbird.sdk.probabuilder.WeightedReservoir;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class WeightedReservoirTest {
+
+    @Test
+    public void fire_distinct_items_returns_distinct_items() throws Exception {
+        final List<FavorableCase<Integer>> fav_case_list = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+            fav_case_list.add(FavorableCase.weighted("item " + i, i, i + 1L));
+        final CompiledDistribution<Integer> distribution = CompiledDistribution.of(fav_case_list);
+        final SplittableRandomSource random = new SplittableRandomSource(5);
+        for(int draw = 0; draw < 100; draw++)
+        {
+            final List<FavorableCase<Integer>> picked = distribution.fire_distinct_items(4, random);
+            final Set<Integer> distinct = new HashSet<>();
+            for(FavorableCase<Integer> item : picked)
+                distinct.add(item.getItemRef());
+            assert(picked.size() == 4 && distinct.size() == 4) : "picked == " + distinct;
+        }
+        assert(distribution.fire_distinct_items(20, random).size() == 10);
+        assert(distribution.fire_distinct_items(0, random).isEmpty());
+        assert(distribution.fire_distinct_items(0).isEmpty());
+        try {
+            distribution.fire_distinct_items(-1, random);
+            assert(false);
+        } catch (RuntimeException e) {
+            // Un nombre négatif d'items n'a pas de sens.
+        }
+    }
+
+    @Test
+    public void first_item_follows_weights() throws Exception {
+        final List<FavorableCase<String>> fav_case_list = new ArrayList<>();
+        fav_case_list.add(FavorableCase.weighted("foo", "foo", 1L));
+        fav_case_list.add(FavorableCase.weighted("bar", "bar", 3L));
+        final CompiledDistribution<String> distribution = CompiledDistribution.of(fav_case_list);
+        final SplittableRandomSource random = new SplittableRandomSource(9);
+        int bar_first = 0;
+        for(int draw = 0; draw < 20000; draw++)
+            if(distribution.fire_distinct_items(2, random).get(0).getItemRef().equals("bar"))
+                bar_first++;
+        assert(Math.abs(bar_first / 20000.0 - 0.75) < 0.015) : "bar_first == " + bar_first;
+    }
+
+    @Test
+    public void reservoir_consumes_a_stream() throws Exception {
+        final WeightedReservoir<Integer> reservoir = new WeightedReservoir<>(5, new SplittableRandomSource(11));
+        IntStream.range(0, 100000).mapToObj(i -> {
+            try
+            {
+                // Un seul item pèse autant que tous les autres réunis.
+                return FavorableCase.weighted("item " + i, i, i == 4242 ? 1e9 : 1.0);
+            }catch(Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        }).forEach(reservoir);
+
+        final List<FavorableCase<Integer>> sample = reservoir.get_sample();
+        assert(reservoir.get_seen() == 100000);
+        assert(sample.size() == 5);
+        assert(sample.get(0).getItemRef() == 4242) : "sample.get(0) == " + sample.get(0).getItemRef();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.stringparser.YamlFileWrapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class YamlFileWrapperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private YamlFileWrapper wrapper;
+
+    @Before
+    public void init() throws Exception
+    {
+        final Map<String, Object> skeleton = new LinkedHashMap<>();
+        skeleton.put("name", "foo");
+        skeleton.put("weight", 10);
+        file = new File(folder.getRoot(), "config.yml");
+        wrapper = new YamlFileWrapper(new Yaml(), file, skeleton);
+        wrapper.writeThisFile();
+    }
+
+    private void write(String content, long last_modified) throws Exception
+    {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        // Hors de l'assert: sans -ea, la date ne serait jamais modifiée.
+        final boolean touched = file.setLastModified(last_modified);
+        assert(touched) : "La date de modification n'a pas pu être changée.";
+    }
+
+    @Test
+    public void load_him() throws Exception {
+        assert(wrapper.loadHim());
+        assert(wrapper.getMap().get("name").equals("foo"));
+    }
+
+    @Test
+    public void write_replaces_the_file_atomically() throws Exception {
+        write("name: bar\nweight: 20\n", file.lastModified());
+        wrapper.writeThisFile(true);
+        assert(wrapper.loadHim());
+        assert(wrapper.getMap().get("name").equals("foo"));
+        final String[] files = folder.getRoot().list();
+        assert(files != null && files.length == 1) : "Le fichier temporaire n'a pas été renommé.";
+    }
+
+    @Test
+    public void reload_returns_the_cached_skeleton_when_nothing_changed() throws Exception {
+        final Map<String, Object> first = wrapper.reload();
+        assert(wrapper.reload() == first);
+
+        // Même contenu, date différente: le fichier est relu mais pas analysé de nouveau.
+        write(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), file.lastModified() + 5000);
+        assert(wrapper.reload() == first);
+    }
+
+    @Test
+    public void reload_picks_up_modifications() throws Exception {
+        final Map<String, Object> first = wrapper.reload();
+        write("name: bar\nweight: 20\n", file.lastModified() + 5000);
+        final Map<String, Object> second = wrapper.reload();
+        assert(second != first);
+        assert(second.get("name").equals("bar"));
+        assert(wrapper.getMap() == second);
+    }
+
+    @Test
+    public void reload_sees_same_size_edits_within_one_tick() throws Exception {
+        final long now = System.currentTimeMillis() / 1000 * 1000;
+        write("name: foo\nweight: 10\n", now);
+        assert(wrapper.reload().get("weight").equals(10));
+        // Même taille, même date: seul le contenu permet de voir la modification.
+        write("name: foo\nweight: 20\n", now);
+        assert(wrapper.reload().get("weight").equals(20));
+    }
+
+    @Test
+    public void invalid_modifications_keep_the_previous_skeleton() throws Exception {
+        final Map<String, Object> first = wrapper.reload();
+        write("other: bar\nweight: 20\n", file.lastModified() + 5000);
+        try {
+            wrapper.reload();
+            assert(false) : "Le fichier ne respecte pas le squelette.";
+        } catch (Exception e) {
+            assert(wrapper.getMap() == first);
+        }
+    }
+
+    @Test
+    public void watcher_swaps_the_skeleton() throws Exception {
+        final Map<String, Object> first = wrapper.reload();
+        wrapper.startWatching();
+        try {
+            write("name: watched\nweight: 30\n", file.lastModified() + 5000);
+            final long deadline = System.currentTimeMillis() + 30000;
+            while(wrapper.getMap() == first && System.currentTimeMillis() < deadline)
+                Thread.sleep(20);
+            assert(wrapper.getMap().get("name").equals("watched")) : "Le fichier n'a pas été rechargé.";
+        } finally {
+            wrapper.stopWatching();
+        }
+    }
+
+    @Test
+    public void watcher_ignores_the_timestamp() throws Exception {
+        final long old = System.currentTimeMillis() / 1000 * 1000 - 60000;
+        write("name: foo\nweight: 10\n", old);
+        final Map<String, Object> first = wrapper.reload();
+        assert(wrapper.reload() == first);
+        wrapper.startWatching();
+        try {
+            write("name: foo\nweight: 30\n", old);
+            final long deadline = System.currentTimeMillis() + 30000;
+            while(wrapper.getMap() == first && System.currentTimeMillis() < deadline)
+                Thread.sleep(20);
+            assert(wrapper.getMap().get("weight").equals(30)) : "La modification a été ignorée.";
+        } finally {
+            wrapper.stopWatching();
+        }
+    }
+
+    @Test
+    public void lazy_load_matches_the_eager_load() throws Exception {
+        write("name: \u00e9t\u00e9\nweight: 20\nnested:\n  list: [1, 2]\n  deeper:\n    key: value # commentaire\n"
+                + "text: |\n  line\n  other\nitems:\n- 1\n- two\n'quoted key': \"x\"\nempty:\n", file.lastModified());
+        assert(wrapper.loadHim());
+        final Map<String, Object> eager = wrapper.getMap();
+        assert(wrapper.loadLazily());
+        final Map<String, Object> lazy = wrapper.getMap();
+        assert(lazy != eager);
+        assert(lazy.keySet().equals(eager.keySet()));
+        for(String key : eager.keySet())
+            assert(Objects.equals(lazy.get(key), eager.get(key))) : key;
+        assert(lazy.get("text").equals("line\nother\n"));
+        assert(lazy.get("missing") == null && !lazy.containsKey("missing"));
+        assert(lazy.equals(eager));
+    }
+
+    @Test
+    public void lazy_load_only_builds_what_is_read() throws Exception {
+        // Cette valeur ne peut pas être construite, mais elle n'est jamais lue.
+        write("name: bar\nweight: 20\nbroken: !!int abc\n", file.lastModified());
+        assert(wrapper.loadLazily());
+        final Map<String, Object> lazy = wrapper.getMap();
+        assert(lazy.size() == 3 && lazy.containsKey("broken"));
+        assert(lazy.get("name").equals("bar"));
+        assert(lazy.get("weight").equals(20));
+        try {
+            lazy.get("broken");
+            assert(false) : "La valeur n'aurait pas dû être construite.";
+        } catch (RuntimeException e) {
+            // La valeur n'est construite qu'au premier accès.
+        }
+    }
+
+    @Test
+    public void lazy_load_falls_back_on_aliases() throws Exception {
+        write("name: &n bar\nweight: 20\nalias: *n\n", file.lastModified());
+        assert(wrapper.loadLazily());
+        assert(wrapper.getMap().get("alias").equals("bar"));
+        assert(wrapper.getMap() instanceof LinkedHashMap);
+    }
+
+    @Test
+    public void lazy_load_checks_the_skeleton() throws Exception {
+        write("other: bar\nweight: 20\n", file.lastModified());
+        assert(!wrapper.loadLazily());
+    }
+
+    @Test
+    public void lazy_reload_stays_lazy() throws Exception {
+        assert(wrapper.loadLazily());
+        final Map<String, Object> first = wrapper.getMap();
+        write("name: bar\nweight: 20\n", file.lastModified() + 5000);
+        final Map<String, Object> second = wrapper.reload();
+        assert(second != first && second.get("name").equals("bar"));
+        assert(!(second instanceof LinkedHashMap));
+    }
+
+    @Test
+    public void key_order_and_missing_keys() throws Exception {
+        write("weight: 20\nname: bar\n", file.lastModified());
+        assert(wrapper.loadHim() && wrapper.getMismatches().isEmpty());
+        // Moins de clés que le squelette: le fichier est refusé, sans exception.
+        write("name: bar\n", file.lastModified());
+        assert(!wrapper.loadHim());
+        assert(wrapper.getMismatches().equals(Arrays.asList("weight: clé absente.")));
+    }
+
+    @Test
+    public void lazy_and_eager_validation_agree() throws Exception {
+        final String content = "weight: heavy\nextra: {a: [1, 2]}\n";
+        write(content, file.lastModified());
+        assert(!wrapper.loadHim());
+        final List<String> eager = wrapper.getMismatches();
+        assert(eager.equals(Arrays.asList("weight: attendu un entier, trouvé une chaîne.", "name: clé absente."))) : eager;
+        assert(!wrapper.loadLazily());
+        assert(wrapper.getMismatches().equals(eager));
+        // Avec un alias, le fichier est chargé d'un bloc, puis validé.
+        write("name: &n [x]\nweight: *n\n", file.lastModified());
+        assert(!wrapper.loadLazily());
+        assert(wrapper.getMismatches().equals(Arrays.asList(
+                "name: attendu une chaîne, trouvé une liste.", "weight: attendu un entier, trouvé une liste.")));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *    SurvivalDevKit, descendante de la bibliothèque utilitaire TheBareMinimum, mais en moins crade. :)
+ *     Copyright (C) 2017  Defranceschi Anthony
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *     If you need more information, feel free to contact me at chaacygg[at]gmail[dot]com.
+ */
+
+package fr.songbird.sdk;
+
+import fr.songbird.sdk.stringparser.YamlSchema;
+import org.junit.Before;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by songbird on 18/10/26.
+ */
+public class YamlSchemaTest {
+
+    private YamlSchema schema;
+
+    @Before
+    public void init()
+    {
+        final Map<String, Object> section = new LinkedHashMap<>();
+        section.put("name", "foo");
+        section.put("weight", 10);
+        section.put("ratio", 0.5);
+        section.put("enabled", true);
+        section.put("tags", Arrays.asList("a", "b"));
+        section.put("anything", null);
+        final Map<String, Object> skeleton = new LinkedHashMap<>();
+        skeleton.put("version", 1);
+        skeleton.put("section", section);
+        schema = YamlSchema.compile(skeleton);
+    }
+
+    private List<String> validate(String content)
+    {
+        return schema.validate(new Yaml().load(content));
+    }
+
+    @Test
+    public void valid_trees() {
+        assert(validate("version: 2\nsection: {name: bar, weight: 3, ratio: 1.5, enabled: false, tags: [], anything: [1]}\n").isEmpty());
+        // Ordre, clés supplémentaires, valeurs nulles et entiers à la place des nombres sont acceptés.
+        assert(validate("extra: 1\nsection:\n  tags:\n  anything: x\n  ratio: 2\n  enabled: true\n  weight: 1\n  name: ~\nversion: 3\n").isEmpty());
+        assert(validate("version: 2\nsection:\n").isEmpty());
+    }
+
+    @Test
+    public void every_mismatch_is_reported() {
+        final List<String> mismatches = validate("version: one\nsection: {name: [x], weight: 1.5, ratio: yes, tags: {}}\n");
+        assert(mismatches.equals(Arrays.asList(
+                "version: attendu un entier, trouvé une chaîne.",
+                "section.name: attendu une chaîne, trouvé une liste.",
+                "section.weight: attendu un entier, trouvé un nombre.",
+                "section.ratio: attendu un nombre, trouvé un booléen.",
+                "section.tags: attendu une liste, trouvé une map.",
+                "section.enabled: clé absente.",
+                "section.anything: clé absente."))) : mismatches;
+    }
+
+    @Test
+    public void root_mismatches() {
+        assert(validate("- 1\n").equals(Arrays.asList("(racine): attendu une map, trouvé une liste.")));
+        assert(schema.validate(null).equals(Arrays.asList("Le fichier est vide.")));
+        assert(validate("other: 1\n").equals(Arrays.asList("version: clé absente.", "section: clé absente.")));
+    }
+}